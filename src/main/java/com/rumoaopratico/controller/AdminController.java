@@ -3,10 +3,12 @@ package com.rumoaopratico.controller;
 import com.rumoaopratico.dto.request.AdminUpdateUserRequest;
 import com.rumoaopratico.dto.request.ImportQuestionsRequest;
 import com.rumoaopratico.dto.response.ImportResultResponse;
+import com.rumoaopratico.dto.response.QuestionItemStatsResponse;
 import com.rumoaopratico.dto.response.UserResponse;
 import com.rumoaopratico.security.SecurityUtils;
 import com.rumoaopratico.service.AdminService;
 import com.rumoaopratico.service.ImportService;
+import com.rumoaopratico.service.ItemAnalysisService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -16,6 +18,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -25,6 +28,7 @@ public class AdminController {
 
     private final ImportService importService;
     private final AdminService adminService;
+    private final ItemAnalysisService itemAnalysisService;
 
     @PostMapping("/import-questions")
     @Operation(summary = "Import questions from JSON data")
@@ -32,6 +36,24 @@ public class AdminController {
         return ResponseEntity.ok(importService.importQuestions(SecurityUtils.getCurrentUserId(), request));
     }
 
+    @GetMapping("/item-stats")
+    @Operation(summary = "List question item analysis (correct rate, discrimination, suggested difficulty)")
+    public ResponseEntity<Page<QuestionItemStatsResponse>> getItemStats(
+            @RequestParam(required = false) Long topicId,
+            @RequestParam(defaultValue = "0") long minResponses,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(itemAnalysisService.getItemStats(topicId, minResponses,
+                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "responses"))));
+    }
+
+    @PostMapping("/item-stats/run")
+    @Operation(summary = "Run item analysis now over attempts finished since the last run")
+    public ResponseEntity<Void> runItemAnalysis() {
+        itemAnalysisService.run();
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/users")
     @Operation(summary = "List all users (paginated)")
     public ResponseEntity<Page<UserResponse>> listUsers(
@@ -49,6 +71,23 @@ public class AdminController {
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/users/{userId}/history/export")
+    @Operation(summary = "Download a user's full quiz history as NDJSON or CSV (resumable by fromAttemptId)")
+    public ResponseEntity<StreamingResponseBody> exportUserHistory(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long fromAttemptId,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return adminService.exportUserHistory(userId, format, fromAttemptId, gzip);
+    }
+
+    @PostMapping("/users/{userId}/stats/rebuild")
+    @Operation(summary = "Recompute a user's dashboard stats aggregates from their quiz history")
+    public ResponseEntity<Void> rebuildUserStats(@PathVariable Long userId) {
+        adminService.rebuildUserStats(userId);
+        return ResponseEntity.noContent().build();
+    }
+
     @PatchMapping("/users/{userId}")
     @Operation(summary = "Update user role and/or status (enable/disable)")
     public ResponseEntity<UserResponse> updateUser(
@@ -1,8 +1,10 @@
 package com.rumoaopratico.controller;
 
+import com.rumoaopratico.dto.response.CursorSliceResponse;
 import com.rumoaopratico.dto.response.HistoryEntryResponse;
 import com.rumoaopratico.dto.response.QuizResultResponse;
 import com.rumoaopratico.security.SecurityUtils;
+import com.rumoaopratico.service.HistoryExportService;
 import com.rumoaopratico.service.HistoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -14,6 +16,7 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 
@@ -24,15 +27,44 @@ import java.time.LocalDateTime;
 public class HistoryController {
 
     private final HistoryService historyService;
+    private final HistoryExportService historyExportService;
 
     @GetMapping
     @Operation(summary = "Get quiz history (paginated, filterable)")
     public ResponseEntity<Page<HistoryEntryResponse>> getHistory(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) Long topicId,
             @PageableDefault(size = 20, sort = "startedAt", direction = Sort.Direction.DESC) Pageable pageable) {
         return ResponseEntity.ok(historyService.getHistory(
-                SecurityUtils.getCurrentUserId(), startDate, endDate, pageable));
+                SecurityUtils.getCurrentUserId(), startDate, endDate, topicId, pageable));
+    }
+
+    @GetMapping("/scroll")
+    @Operation(summary = "Get quiz history using cursor pagination",
+               description = "Newest first, without a total count. Pass nextCursor from the previous response "
+                       + "to fetch the following slice.")
+    public ResponseEntity<CursorSliceResponse<HistoryEntryResponse>> scrollHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) Long topicId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(historyService.scrollHistory(
+                SecurityUtils.getCurrentUserId(), startDate, endDate, topicId, cursor,
+                Math.max(1, Math.min(size, 100))));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Download the full quiz history as NDJSON or CSV",
+               description = "One line per answer with its attempt, question and result, streamed in attempt id "
+                       + "order. To resume an interrupted download pass the last attemptId received as "
+                       + "fromAttemptId; that attempt is sent again in full.")
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long fromAttemptId,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return historyExportService.download(SecurityUtils.getCurrentUserId(), format, fromAttemptId, gzip);
     }
 
     @GetMapping("/{attemptId}")
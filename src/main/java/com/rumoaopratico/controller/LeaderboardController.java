@@ -0,0 +1,31 @@
+package com.rumoaopratico.controller;
+
+import com.rumoaopratico.dto.response.LeaderboardResponse;
+import com.rumoaopratico.model.enums.QuizMode;
+import com.rumoaopratico.security.SecurityUtils;
+import com.rumoaopratico.service.LeaderboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@RequiredArgsConstructor
+@Tag(name = "Leaderboard", description = "User rankings by correct answers")
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+
+    @GetMapping
+    @Operation(summary = "Get the top users and the current user's rank",
+               description = "Overall by default; pass topicId or mode (not both) for a topic or quiz mode board.")
+    public ResponseEntity<LeaderboardResponse> getLeaderboard(
+            @RequestParam(required = false) Long topicId,
+            @RequestParam(required = false) QuizMode mode,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(leaderboardService.getLeaderboard(
+                SecurityUtils.getCurrentUserId(), topicId, mode, Math.max(1, Math.min(limit, 100))));
+    }
+}
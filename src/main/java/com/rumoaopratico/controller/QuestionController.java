@@ -1,12 +1,18 @@
 package com.rumoaopratico.controller;
 
 import com.rumoaopratico.dto.request.QuestionRequest;
+import com.rumoaopratico.dto.response.CursorSliceResponse;
+import com.rumoaopratico.dto.response.QuestionFacetsResponse;
 import com.rumoaopratico.dto.response.QuestionResponse;
 import com.rumoaopratico.model.enums.Difficulty;
 import com.rumoaopratico.model.enums.QuestionType;
+import com.rumoaopratico.model.enums.SearchMode;
 import com.rumoaopratico.security.SecurityUtils;
+import com.rumoaopratico.service.CatalogResponseCache;
+import com.rumoaopratico.service.QuestionFacetService;
 import com.rumoaopratico.service.QuestionService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -14,10 +20,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/questions")
 @RequiredArgsConstructor
@@ -25,6 +34,8 @@ import org.springframework.web.bind.annotation.*;
 public class QuestionController {
 
     private final QuestionService questionService;
+    private final CatalogResponseCache catalogResponseCache;
+    private final QuestionFacetService questionFacetService;
 
     @GetMapping
     @Operation(summary = "List questions with filters (paginated)")
@@ -33,16 +44,69 @@ public class QuestionController {
             @RequestParam(required = false) QuestionType type,
             @RequestParam(required = false) Difficulty difficulty,
             @RequestParam(required = false) String search,
+            @Parameter(description = "Only questions carrying this tag (case-insensitive)")
+            @RequestParam(required = false) String tag,
+            @Parameter(description = "CONTAINS matches a substring of the statement; FULLTEXT searches statement, "
+                    + "options, explanation and bibliography ignoring accents, ordered by relevance")
+            @RequestParam(defaultValue = "CONTAINS") SearchMode searchMode,
             @RequestParam(required = false) String answerStatus,
             @PageableDefault(size = 20, sort = "createdAt", direction = Sort.Direction.DESC) Pageable pageable) {
         return ResponseEntity.ok(questionService.getQuestions(
-                SecurityUtils.getCurrentUserId(), topicId, type, difficulty, search, answerStatus, pageable));
+                SecurityUtils.getCurrentUserId(), topicId, type, difficulty, search, tag, searchMode, answerStatus, pageable));
+    }
+
+    @GetMapping("/scroll")
+    @Operation(summary = "List questions with filters using cursor pagination",
+               description = "Newest first, without a total count. Pass nextCursor from the previous response "
+                       + "to fetch the following slice.")
+    public ResponseEntity<CursorSliceResponse<QuestionResponse>> scrollQuestions(
+            @RequestParam(required = false) Long topicId,
+            @RequestParam(required = false) QuestionType type,
+            @RequestParam(required = false) Difficulty difficulty,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) String answerStatus,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(questionService.scrollQuestions(
+                SecurityUtils.getCurrentUserId(), topicId, type, difficulty, search, tag, answerStatus,
+                cursor, Math.max(1, Math.min(size, 100))));
+    }
+
+    @GetMapping("/tags")
+    @Operation(summary = "Count active questions per tag",
+               description = "Served from pre-serialized JSON shared by all users; supports ETag and gzip.")
+    public ResponseEntity<byte[]> getTagFacets(
+            @RequestParam(required = false) Long topicId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return catalogResponseCache
+                .get("tags:" + topicId, () -> questionService.getTagFacets(topicId))
+                .toResponse(ifNoneMatch, acceptEncoding);
+    }
+
+    @GetMapping("/facets")
+    @Operation(summary = "Count active questions per topic, type, difficulty and answer status",
+               description = "Each facet applies every filter except its own, so the counts show what "
+                       + "selecting another value would return.")
+    public ResponseEntity<QuestionFacetsResponse> getFacets(
+            @RequestParam(required = false) List<Long> topicIds,
+            @RequestParam(required = false) QuestionType type,
+            @RequestParam(required = false) Difficulty difficulty) {
+        return ResponseEntity.ok(questionFacetService.getFacets(
+                SecurityUtils.getCurrentUserId(), topicIds, type, difficulty));
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get a question by ID")
-    public ResponseEntity<QuestionResponse> getQuestion(@PathVariable Long id) {
-        return ResponseEntity.ok(questionService.getQuestion(SecurityUtils.getCurrentUserId(), id));
+    @Operation(summary = "Get a question by ID",
+               description = "Served from pre-serialized JSON shared by all users; supports ETag and gzip.")
+    public ResponseEntity<byte[]> getQuestion(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return catalogResponseCache
+                .get("question:" + id, () -> questionService.getQuestion(SecurityUtils.getCurrentUserId(), id))
+                .toResponse(ifNoneMatch, acceptEncoding);
     }
 
     @PostMapping
@@ -1,9 +1,11 @@
 package com.rumoaopratico.controller;
 
 import com.rumoaopratico.dto.request.QuizAnswerRequest;
+import com.rumoaopratico.dto.request.QuizBatchAnswerRequest;
 import com.rumoaopratico.dto.request.QuizStartRequest;
 import com.rumoaopratico.dto.response.QuizAnswerResponse;
 import com.rumoaopratico.dto.response.QuizAttemptResponse;
+import com.rumoaopratico.dto.response.QuizBatchAnswerResponse;
 import com.rumoaopratico.dto.response.QuizResultResponse;
 import com.rumoaopratico.security.SecurityUtils;
 import com.rumoaopratico.service.QuizService;
@@ -11,6 +13,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -46,10 +49,25 @@ public class QuizController {
     }
 
     @PostMapping("/{attemptId}/answer")
-    @Operation(summary = "Submit an answer for a quiz question")
-    public ResponseEntity<QuizAttemptResponse> submitAnswer(@PathVariable Long attemptId,
-                                                            @RequestBody Map<String, Object> request) {
-        return ResponseEntity.ok(quizService.submitAnswerSimple(SecurityUtils.getCurrentUserId(), attemptId, request));
+    @Operation(summary = "Submit an answer for a quiz question",
+               description = "Returns the full attempt by default. With view=delta, or an Accept header carrying "
+                       + "profile=delta, only the evaluation of the answer and the attempt counters are returned.")
+    public ResponseEntity<?> submitAnswer(@PathVariable Long attemptId,
+                                          @RequestParam(required = false) String view,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                          @RequestBody Map<String, Object> request) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        if (isDeltaView(view, accept)) {
+            return ResponseEntity.ok(quizService.submitAnswerDelta(userId, attemptId, request));
+        }
+        return ResponseEntity.ok(quizService.submitAnswerSimple(userId, attemptId, request));
+    }
+
+    @PostMapping("/{attemptId}/answers")
+    @Operation(summary = "Submit an ordered batch of answers collected offline")
+    public ResponseEntity<QuizBatchAnswerResponse> submitAnswers(@PathVariable Long attemptId,
+                                                                 @Valid @RequestBody QuizBatchAnswerRequest request) {
+        return ResponseEntity.ok(quizService.submitAnswers(SecurityUtils.getCurrentUserId(), attemptId, request));
     }
 
     @PostMapping("/{attemptId}/finish")
@@ -70,4 +88,11 @@ public class QuizController {
         quizService.abandonQuiz(SecurityUtils.getCurrentUserId(), attemptId);
         return ResponseEntity.noContent().build();
     }
+
+    private static boolean isDeltaView(String view, String accept) {
+        if (view != null) {
+            return "delta".equalsIgnoreCase(view);
+        }
+        return accept != null && accept.replace(" ", "").toLowerCase().contains("profile=delta");
+    }
 }
@@ -3,15 +3,16 @@ package com.rumoaopratico.controller;
 import com.rumoaopratico.dto.request.TopicRequest;
 import com.rumoaopratico.dto.response.TopicResponse;
 import com.rumoaopratico.security.SecurityUtils;
+import com.rumoaopratico.service.CatalogResponseCache;
 import com.rumoaopratico.service.TopicService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,12 +24,19 @@ import org.springframework.web.bind.annotation.*;
 public class TopicController {
 
     private final TopicService topicService;
+    private final CatalogResponseCache catalogResponseCache;
 
     @GetMapping
-    @Operation(summary = "List all topics (paginated)")
-    public ResponseEntity<Page<TopicResponse>> getTopics(
-            @PageableDefault(size = 20, sort = "name", direction = Sort.Direction.ASC) Pageable pageable) {
-        return ResponseEntity.ok(topicService.getTopics(SecurityUtils.getCurrentUserId(), pageable));
+    @Operation(summary = "List all topics (paginated)",
+               description = "Served from pre-serialized JSON shared by all users; supports ETag and gzip.")
+    public ResponseEntity<byte[]> getTopics(
+            @PageableDefault(size = 20, sort = "name", direction = Sort.Direction.ASC) Pageable pageable,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String resource = "topics:" + pageable.getPageNumber() + ":" + pageable.getPageSize() + ":" + pageable.getSort();
+        return catalogResponseCache
+                .get(resource, () -> topicService.getTopics(SecurityUtils.getCurrentUserId(), pageable))
+                .toResponse(ifNoneMatch, acceptEncoding);
     }
 
     @GetMapping("/{id}")
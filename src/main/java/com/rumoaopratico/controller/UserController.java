@@ -1,17 +1,22 @@
 package com.rumoaopratico.controller;
 
 import com.rumoaopratico.dto.request.UpdateUserRequest;
+import com.rumoaopratico.dto.response.ProgressResponse;
 import com.rumoaopratico.dto.response.UserResponse;
 import com.rumoaopratico.dto.response.UserStatsResponse;
+import com.rumoaopratico.model.enums.ProgressGranularity;
 import com.rumoaopratico.security.SecurityUtils;
 import com.rumoaopratico.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
@@ -37,4 +42,14 @@ public class UserController {
     public ResponseEntity<UserStatsResponse> getUserStats() {
         return ResponseEntity.ok(userService.getUserStats(SecurityUtils.getCurrentUserId()));
     }
+
+    @GetMapping("/me/progress")
+    @Operation(summary = "Get current user activity over time",
+               description = "Attempts, answers, correct answers and study time per day, week or month.")
+    public ResponseEntity<ProgressResponse> getProgress(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") ProgressGranularity granularity) {
+        return ResponseEntity.ok(userService.getProgress(SecurityUtils.getCurrentUserId(), from, to, granularity));
+    }
 }
@@ -0,0 +1,37 @@
+package com.rumoaopratico.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizBatchAnswerRequest {
+
+    @NotEmpty(message = "At least one answer is required")
+    @Size(max = 100, message = "Maximum 100 answers per request")
+    private List<@Valid Item> answers;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+
+        @NotNull(message = "Question ID is required")
+        private Long questionId;
+
+        // Same format as the single answer endpoint: "a".."h", "true"/"false", "correct"/"wrong" or free text
+        @NotNull(message = "Answer is required")
+        private String answer;
+    }
+}
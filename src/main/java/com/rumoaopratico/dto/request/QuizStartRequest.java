@@ -32,6 +32,8 @@ public class QuizStartRequest {
 
     private Difficulty difficulty;
 
+    private List<String> tags; // optional; questions must carry at least one of them
+
     @NotNull(message = "Quiz mode is required")
     private QuizMode mode;
 
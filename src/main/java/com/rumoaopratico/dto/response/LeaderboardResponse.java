@@ -0,0 +1,32 @@
+package com.rumoaopratico.dto.response;
+
+import com.rumoaopratico.model.enums.QuizMode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardResponse {
+    private Long topicId;  // null unless a topic board
+    private QuizMode mode; // null unless a mode board
+    private int totalUsers;
+    private List<Entry> top;
+    private Entry me; // null when the current user has no score on this board
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private int rank;
+        private Long userId;
+        private String name;
+        private long score; // correct answers in finished quizzes
+    }
+}
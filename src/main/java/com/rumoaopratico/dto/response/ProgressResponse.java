@@ -0,0 +1,48 @@
+package com.rumoaopratico.dto.response;
+
+import com.rumoaopratico.model.enums.ProgressGranularity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressResponse {
+    private LocalDate from;
+    private LocalDate to;
+    private ProgressGranularity granularity;
+    private List<Point> points; // one per period, including periods without activity
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private LocalDate periodStart;
+        private long attempts;
+        private long answered;
+        private long correct;
+        private long studySeconds;
+        private double score;
+        private List<TopicPoint> byTopic;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TopicPoint {
+        private Long topicId;
+        private String topicName;
+        private long attempts;
+        private long answered;
+        private long correct;
+        private long studySeconds;
+    }
+}
@@ -0,0 +1,25 @@
+package com.rumoaopratico.dto.response;
+
+import com.rumoaopratico.model.enums.QuestionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Active question counts per facet. Each facet applies every requested filter except its own,
+ * so the counts show what selecting another value would yield.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionFacetsResponse {
+    private long total;
+    private Map<Long, Long> byTopic;
+    private Map<QuestionType, Long> byType;
+    private Map<String, Long> byDifficulty; // Difficulty names, plus "UNSPECIFIED" for questions without one
+    private Map<String, Long> byAnswerStatus; // "UNANSWERED", "CORRECT", "INCORRECT"
+}
@@ -0,0 +1,22 @@
+package com.rumoaopratico.dto.response;
+
+import com.rumoaopratico.model.enums.Difficulty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionItemStatsResponse {
+    private Long questionId;
+    private String statement;
+    private Long topicId;
+    private Difficulty difficulty;
+    private long responses;
+    private Double correctRate;         // item p-value: share of correct answers
+    private Double discrimination;      // point-biserial correlation with the rest-score; null without variance
+    private Difficulty suggestedDifficulty;
+}
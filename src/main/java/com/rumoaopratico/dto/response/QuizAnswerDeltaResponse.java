@@ -0,0 +1,30 @@
+package com.rumoaopratico.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Compact answer submission result: the evaluation of the submitted answer and the
+ * attempt counters, without re-sending the attempt's questions.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizAnswerDeltaResponse {
+    private Long attemptId;
+    private Long questionId;
+    private Integer index;
+    private String userAnswer;
+    private Boolean correct;
+    private List<Long> correctOptionIds;
+    private Integer correctCount;
+    private Integer currentQuestionIndex;
+    private Integer totalQuestions;
+    private String status;
+    private Long version;
+}
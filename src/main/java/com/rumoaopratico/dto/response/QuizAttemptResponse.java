@@ -10,6 +10,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -26,6 +27,7 @@ public class QuizAttemptResponse {
     private QuizMode mode;
     private String status;
     private Integer currentQuestionIndex;
+    private Long version;
     private Map<String, Object> config;
     private List<QuizQuestionResponse> questions;
 
@@ -52,21 +54,24 @@ public class QuizAttemptResponse {
 
         QuizAttemptResponse response = from(attempt);
 
+        Map<Long, QuizAnswer> answersByQuestion = new HashMap<>();
+        if (answers != null) {
+            for (QuizAnswer answer : answers) {
+                answersByQuestion.putIfAbsent(answer.getQuestion().getId(), answer);
+            }
+        }
+
         List<QuizQuestionResponse> quizQuestions = new ArrayList<>();
         for (int i = 0; i < questionResponses.size(); i++) {
             QuestionResponse qr = questionResponses.get(i);
-            QuizAnswer matchingAnswer = answers != null
-                    ? answers.stream()
-                        .filter(a -> a.getQuestion().getId().equals(qr.getId()))
-                        .findFirst().orElse(null)
-                    : null;
+            QuizAnswer matchingAnswer = answersByQuestion.get(qr.getId());
 
             quizQuestions.add(QuizQuestionResponse.builder()
                     .index(i)
                     .questionId(qr.getId())
                     .question(qr)
                     .answered(matchingAnswer != null)
-                    .userAnswer(matchingAnswer != null ? extractUserAnswer(matchingAnswer) : null)
+                    .userAnswer(matchingAnswer != null ? userAnswerOf(matchingAnswer) : null)
                     .correct(matchingAnswer != null ? matchingAnswer.getIsCorrect() : null)
                     .build());
         }
@@ -85,12 +90,14 @@ public class QuizAttemptResponse {
             }
         }
         response.setCurrentQuestionIndex(currentIndex);
+        // Answers are append-only within an attempt, so their count versions its progress
+        response.setVersion((long) answersByQuestion.size());
 
         return response;
     }
 
     @SuppressWarnings("unchecked")
-    private static String extractUserAnswer(QuizAnswer answer) {
+    public static String userAnswerOf(QuizAnswer answer) {
         if (answer.getUserAnswerJson() == null) return null;
         Map<String, Object> answerMap = answer.getUserAnswerJson();
         Object selectedOptionId = answerMap.get("selectedOptionId");
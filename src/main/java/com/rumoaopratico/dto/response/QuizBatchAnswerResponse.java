@@ -0,0 +1,42 @@
+package com.rumoaopratico.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuizBatchAnswerResponse {
+    private Long attemptId;
+    private List<ItemResult> results;
+    private Integer acceptedCount;
+    private Integer correctCount;
+    private Integer currentQuestionIndex;
+    private Integer totalQuestions;
+    private Long version;
+
+    public enum ItemStatus {
+        ACCEPTED,
+        DUPLICATE,
+        OUT_OF_ORDER,
+        UNKNOWN_QUESTION
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private Integer position;
+        private Long questionId;
+        private ItemStatus status;
+        private Integer index;
+        private String userAnswer;
+        private Boolean correct;
+    }
+}
@@ -21,6 +21,7 @@ public class QuizResultResponse {
     private Integer totalQuestions;
     private Integer correctAnswers;
     private Double score;
+    private Double percentile; // share of finished attempts in the same mode scoring lower; null until finished
     private Long totalTimeSeconds;
     private QuizMode mode;
     private List<QuizResultQuestionResponse> questions;
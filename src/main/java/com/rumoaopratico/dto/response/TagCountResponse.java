@@ -0,0 +1,15 @@
+package com.rumoaopratico.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagCountResponse {
+    private String tag;
+    private long count;
+}
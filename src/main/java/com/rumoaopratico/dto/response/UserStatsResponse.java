@@ -22,9 +22,11 @@ public class UserStatsResponse {
     private double averageScore;
     private double averageScoreStudy;
     private double averageScoreEvaluation;
+    private Double averageScorePercentile; // average score ranked among all finished attempts' scores
     private long totalTime;
     private Map<String, Long> quizzesByTopic;
     private Map<String, Double> scoreByTopic;
+    private Map<String, Double> percentileByTopic;
     private Map<String, Long> quizzesByType;
 
     private long totalTopics;
@@ -0,0 +1,30 @@
+package com.rumoaopratico.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * High-water mark of the item-analysis job: the last finished attempt it has processed, in
+ * (finishedAt, id) order. Single row with id 1.
+ */
+@Entity
+@Table(name = "item_analysis_state")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAnalysisState {
+
+    public static final short ID = 1;
+
+    @Id
+    private Short id;
+
+    @Column(name = "last_finished_at", nullable = false)
+    private LocalDateTime lastFinishedAt;
+
+    @Column(name = "last_attempt_id", nullable = false)
+    private Long lastAttemptId;
+}
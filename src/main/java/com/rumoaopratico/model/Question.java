@@ -2,13 +2,16 @@ package com.rumoaopratico.model;
 
 import com.rumoaopratico.model.enums.Difficulty;
 import com.rumoaopratico.model.enums.QuestionType;
+import com.rumoaopratico.util.Tags;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Entity
 @Table(name = "questions")
@@ -50,6 +53,13 @@ public class Question {
     @Column(length = 500)
     private String tags;
 
+    // Normalized copy of tags, used for filtering and facets
+    @ElementCollection
+    @CollectionTable(name = "question_tags", joinColumns = @JoinColumn(name = "question_id"))
+    @Column(name = "tag", length = Tags.MAX_LENGTH)
+    @Builder.Default
+    private Set<String> tagSet = new LinkedHashSet<>();
+
     @Column(name = "is_active")
     @Builder.Default
     private Boolean isActive = true;
@@ -58,10 +68,22 @@ public class Question {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "question", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @Builder.Default
     private List<QuestionOption> options = new ArrayList<>();
 
+    /**
+     * Sets the free-form tags and keeps the normalized tag set in sync.
+     */
+    public void applyTags(String tags) {
+        this.tags = tags;
+        this.tagSet.clear();
+        this.tagSet.addAll(Tags.normalize(tags));
+    }
+
     public void addOption(QuestionOption option) {
         options.add(option);
         option.setQuestion(this);
@@ -0,0 +1,68 @@
+package com.rumoaopratico.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running item-analysis sums of one question. The rest-score of an answer is the share of the
+ * other answers in its attempt that were correct; the paired columns only cover answers whose
+ * attempt has at least one other answer.
+ */
+@Entity
+@Table(name = "question_item_stats")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionItemStats {
+
+    @Id
+    @Column(name = "question_id")
+    private Long questionId;
+
+    @Column(nullable = false)
+    private Long responses;
+
+    @Column(nullable = false)
+    private Long correct;
+
+    @Column(name = "paired_responses", nullable = false)
+    private Long pairedResponses;
+
+    @Column(name = "paired_correct", nullable = false)
+    private Long pairedCorrect;
+
+    @Column(name = "sum_rest", nullable = false)
+    private Double sumRest;
+
+    @Column(name = "sum_rest_sq", nullable = false)
+    private Double sumRestSq;
+
+    @Column(name = "sum_correct_rest", nullable = false)
+    private Double sumCorrectRest;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Share of correct answers, or null without responses.
+     */
+    public Double pValue() {
+        return responses > 0 ? (double) correct / responses : null;
+    }
+
+    /**
+     * Point-biserial correlation between answering correctly and the rest-score, or null
+     * when either side has no variance.
+     */
+    public Double discrimination() {
+        double n = pairedResponses;
+        double x = pairedCorrect;
+        double itemVariance = n * x - x * x;
+        double restVariance = n * sumRestSq - sumRest * sumRest;
+        if (n < 2 || itemVariance <= 0 || restVariance <= 1e-12) return null;
+        return (n * sumCorrectRest - x * sumRest) / Math.sqrt(itemVariance * restVariance);
+    }
+}
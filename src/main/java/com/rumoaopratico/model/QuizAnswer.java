@@ -27,6 +27,10 @@ public class QuizAnswer {
     @JoinColumn(name = "attempt_id", nullable = false)
     private QuizAttempt attempt;
 
+    // Denormalized from the attempt so per-user lookups skip the join
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "question_id", nullable = false)
     private Question question;
@@ -9,8 +9,10 @@ import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Entity
 @Table(name = "quiz_attempts")
@@ -18,8 +20,8 @@ import java.util.Map;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@ToString(exclude = "answers")
-@EqualsAndHashCode(exclude = "answers")
+@ToString(exclude = {"answers", "topicIds"})
+@EqualsAndHashCode(exclude = {"answers", "topicIds"})
 public class QuizAttempt {
 
     @Id
@@ -51,6 +53,13 @@ public class QuizAttempt {
     @Column(name = "config_json", columnDefinition = "jsonb")
     private Map<String, Object> configJson;
 
+    // Topics of the attempt's questions, for filtering history by topic
+    @ElementCollection
+    @CollectionTable(name = "quiz_attempt_topics", joinColumns = @JoinColumn(name = "attempt_id"))
+    @Column(name = "topic_id")
+    @Builder.Default
+    private Set<Long> topicIds = new LinkedHashSet<>();
+
     @OneToMany(mappedBy = "attempt", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @Builder.Default
     private List<QuizAnswer> answers = new ArrayList<>();
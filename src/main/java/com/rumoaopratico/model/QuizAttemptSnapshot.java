@@ -0,0 +1,28 @@
+package com.rumoaopratico.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "quiz_attempt_snapshots")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = "payload")
+public class QuizAttemptSnapshot {
+
+    @Id
+    @Column(name = "attempt_id")
+    private Long attemptId;
+
+    @Column(nullable = false)
+    private byte[] payload;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
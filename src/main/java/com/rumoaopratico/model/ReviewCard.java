@@ -0,0 +1,63 @@
+package com.rumoaopratico.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Spaced-repetition state of one question for one user.
+ */
+@Entity
+@Table(name = "review_cards")
+@IdClass(ReviewCard.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewCard {
+
+    public static final double DEFAULT_EASE_FACTOR = 2.5;
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "question_id")
+    private Long questionId;
+
+    @Column(nullable = false)
+    private Integer repetitions;
+
+    @Column(name = "interval_days", nullable = false)
+    private Integer intervalDays;
+
+    @Column(name = "ease_factor", nullable = false)
+    private Double easeFactor;
+
+    @Column(name = "due_at", nullable = false)
+    private LocalDateTime dueAt;
+
+    @Column(name = "last_reviewed_at")
+    private LocalDateTime lastReviewedAt;
+
+    public static ReviewCard newCard(Long userId, Long questionId) {
+        return ReviewCard.builder()
+                .userId(userId)
+                .questionId(questionId)
+                .repetitions(0)
+                .intervalDays(0)
+                .easeFactor(DEFAULT_EASE_FACTOR)
+                .build();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Long questionId;
+    }
+}
@@ -0,0 +1,35 @@
+package com.rumoaopratico.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Merged histogram of attempt scores for one scope (overall, a quiz mode or a topic).
+ */
+@Entity
+@Table(name = "score_distributions")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScoreDistribution {
+
+    @Id
+    @Column(length = 50)
+    private String scope;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb", nullable = false)
+    private List<Long> counts;
+
+    @Column(nullable = false)
+    private Long total;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
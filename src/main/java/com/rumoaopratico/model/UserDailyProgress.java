@@ -0,0 +1,48 @@
+package com.rumoaopratico.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Totals of the attempts one user finished on one day.
+ */
+@Entity
+@Table(name = "user_daily_progress")
+@IdClass(UserDailyProgress.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDailyProgress {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "activity_date")
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(nullable = false)
+    private Long answered;
+
+    @Column(nullable = false)
+    private Long correct;
+
+    @Column(name = "study_seconds", nullable = false)
+    private Long studySeconds;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private LocalDate day;
+    }
+}
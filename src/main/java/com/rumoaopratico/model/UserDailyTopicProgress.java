@@ -0,0 +1,53 @@
+package com.rumoaopratico.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Totals of the answers one user gave in one topic, in attempts finished on one day.
+ */
+@Entity
+@Table(name = "user_daily_topic_progress")
+@IdClass(UserDailyTopicProgress.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserDailyTopicProgress {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "activity_date")
+    private LocalDate day;
+
+    @Id
+    @Column(name = "topic_id")
+    private Long topicId;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(nullable = false)
+    private Long answered;
+
+    @Column(nullable = false)
+    private Long correct;
+
+    @Column(name = "study_seconds", nullable = false)
+    private Long studySeconds;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private LocalDate day;
+        private Long topicId;
+    }
+}
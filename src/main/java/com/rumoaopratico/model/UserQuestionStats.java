@@ -0,0 +1,45 @@
+package com.rumoaopratico.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Running answer counters of one question for one user, maintained as answers are stored.
+ */
+@Entity
+@Table(name = "user_question_stats")
+@IdClass(UserQuestionStats.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserQuestionStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "question_id")
+    private Long questionId;
+
+    @Column(name = "times_answered", nullable = false)
+    private Integer timesAnswered;
+
+    @Column(name = "times_correct", nullable = false)
+    private Integer timesCorrect;
+
+    @Column(name = "last_answered_at")
+    private LocalDateTime lastAnsweredAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Long questionId;
+    }
+}
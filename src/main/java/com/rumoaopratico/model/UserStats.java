@@ -0,0 +1,50 @@
+package com.rumoaopratico.model;
+
+import com.rumoaopratico.model.enums.QuizMode;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Running totals of one user's finished attempts in one quiz mode, maintained as attempts
+ * are finished or abandoned.
+ */
+@Entity
+@Table(name = "user_stats")
+@IdClass(UserStats.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private QuizMode mode;
+
+    @Column(nullable = false)
+    private Integer quizzes;
+
+    @Column(nullable = false)
+    private Long questions;
+
+    @Column(nullable = false)
+    private Long correct;
+
+    @Column(name = "time_seconds", nullable = false)
+    private Long timeSeconds;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private QuizMode mode;
+    }
+}
@@ -0,0 +1,45 @@
+package com.rumoaopratico.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Running answer totals of one user's finished attempts in one topic, maintained as attempts
+ * are finished or abandoned.
+ */
+@Entity
+@Table(name = "user_topic_stats")
+@IdClass(UserTopicStats.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserTopicStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "topic_id")
+    private Long topicId;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    @Column(nullable = false)
+    private Long answered;
+
+    @Column(nullable = false)
+    private Long correct;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Long topicId;
+    }
+}
@@ -2,5 +2,6 @@ package com.rumoaopratico.model.enums;
 
 public enum QuizMode {
     EVALUATION,
-    STUDY
+    STUDY,
+    REVIEW
 }
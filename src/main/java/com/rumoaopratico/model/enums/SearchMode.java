@@ -0,0 +1,6 @@
+package com.rumoaopratico.model.enums;
+
+public enum SearchMode {
+    CONTAINS,
+    FULLTEXT
+}
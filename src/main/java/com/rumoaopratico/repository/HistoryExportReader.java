@@ -0,0 +1,72 @@
+package com.rumoaopratico.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Reads a user's full quiz history, one row per answer, through a forward-only JDBC cursor.
+ * Rows are handed to the consumer as they are fetched, so memory stays bounded by the fetch size.
+ * Postgres only honours the fetch size inside a transaction (autocommit off).
+ */
+@Repository
+@RequiredArgsConstructor
+public class HistoryExportReader {
+
+    // Attempts without answers still produce one row with the answer columns null
+    private static final String EXPORT_SQL =
+            "SELECT a.id AS attempt_id, a.mode, a.started_at, a.finished_at, a.total_questions, a.correct_count, " +
+            "ans.id AS answer_id, ans.question_id, q.topic_id, t.name AS topic_name, q.type, q.difficulty, " +
+            "q.statement, CAST(ans.user_answer_json AS TEXT) AS user_answer, ans.is_correct, ans.answered_at " +
+            "FROM quiz_attempts a " +
+            "LEFT JOIN quiz_answers ans ON ans.attempt_id = a.id " +
+            "LEFT JOIN questions q ON q.id = ans.question_id " +
+            "LEFT JOIN topics t ON t.id = q.topic_id " +
+            "WHERE a.user_id = ? AND a.id >= ? " +
+            "ORDER BY a.id, ans.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void stream(Long userId, long fromAttemptId, int fetchSize, Consumer<Row> consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            ps.setLong(1, userId);
+            ps.setLong(2, fromAttemptId);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(toRow(rs)));
+    }
+
+    private static Row toRow(ResultSet rs) throws SQLException {
+        return new Row(
+                rs.getLong("attempt_id"),
+                rs.getString("mode"),
+                rs.getObject("started_at", LocalDateTime.class),
+                rs.getObject("finished_at", LocalDateTime.class),
+                rs.getObject("total_questions", Integer.class),
+                rs.getObject("correct_count", Integer.class),
+                rs.getObject("answer_id", Long.class),
+                rs.getObject("question_id", Long.class),
+                rs.getObject("topic_id", Long.class),
+                rs.getString("topic_name"),
+                rs.getString("type"),
+                rs.getString("difficulty"),
+                rs.getString("statement"),
+                rs.getString("user_answer"),
+                rs.getObject("is_correct", Boolean.class),
+                rs.getObject("answered_at", LocalDateTime.class));
+    }
+
+    public record Row(long attemptId, String mode, LocalDateTime startedAt, LocalDateTime finishedAt,
+                      Integer totalQuestions, Integer correctCount, Long answerId, Long questionId,
+                      Long topicId, String topicName, String questionType, String difficulty,
+                      String statement, String userAnswerJson, Boolean isCorrect, LocalDateTime answeredAt) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.rumoaopratico.repository;
+
+import com.rumoaopratico.model.ItemAnalysisState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ItemAnalysisStateRepository extends JpaRepository<ItemAnalysisState, Short> {
+
+    // Serializes job runs across nodes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ItemAnalysisState s WHERE s.id = :id")
+    Optional<ItemAnalysisState> findByIdForUpdate(@Param("id") Short id);
+}
@@ -0,0 +1,58 @@
+package com.rumoaopratico.repository;
+
+import com.rumoaopratico.model.QuestionItemStats;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface QuestionItemStatsRepository extends JpaRepository<QuestionItemStats, Long> {
+
+    // stats, question statement, topic id, difficulty
+    @Query(value = "SELECT s, q.statement, q.topic.id, q.difficulty FROM QuestionItemStats s " +
+                   "JOIN Question q ON q.id = s.questionId " +
+                   "WHERE q.isActive = true AND s.responses >= :minResponses " +
+                   "AND (:topicId IS NULL OR q.topic.id = :topicId)",
+           countQuery = "SELECT COUNT(s) FROM QuestionItemStats s JOIN Question q ON q.id = s.questionId " +
+                        "WHERE q.isActive = true AND s.responses >= :minResponses " +
+                        "AND (:topicId IS NULL OR q.topic.id = :topicId)")
+    Page<Object[]> findWithQuestion(@Param("topicId") Long topicId,
+                                    @Param("minResponses") long minResponses,
+                                    Pageable pageable);
+
+    // Active questions with enough responses to calibrate: question id, responses, correct, difficulty
+    @Query("SELECT s.questionId, s.responses, s.correct, q.difficulty FROM QuestionItemStats s " +
+           "JOIN Question q ON q.id = s.questionId " +
+           "WHERE q.isActive = true AND s.responses >= :minResponses")
+    List<Object[]> findCalibrationCandidates(@Param("minResponses") long minResponses);
+
+    @Modifying
+    @Query(value = "INSERT INTO question_item_stats (question_id, responses, correct, paired_responses, paired_correct, " +
+                   "sum_rest, sum_rest_sq, sum_correct_rest, updated_at) " +
+                   "VALUES (:questionId, :responses, :correct, :pairedResponses, :pairedCorrect, " +
+                   ":sumRest, :sumRestSq, :sumCorrectRest, NOW()) " +
+                   "ON CONFLICT (question_id) DO UPDATE SET " +
+                   "responses = question_item_stats.responses + EXCLUDED.responses, " +
+                   "correct = question_item_stats.correct + EXCLUDED.correct, " +
+                   "paired_responses = question_item_stats.paired_responses + EXCLUDED.paired_responses, " +
+                   "paired_correct = question_item_stats.paired_correct + EXCLUDED.paired_correct, " +
+                   "sum_rest = question_item_stats.sum_rest + EXCLUDED.sum_rest, " +
+                   "sum_rest_sq = question_item_stats.sum_rest_sq + EXCLUDED.sum_rest_sq, " +
+                   "sum_correct_rest = question_item_stats.sum_correct_rest + EXCLUDED.sum_correct_rest, " +
+                   "updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    void add(@Param("questionId") Long questionId,
+             @Param("responses") long responses,
+             @Param("correct") long correct,
+             @Param("pairedResponses") long pairedResponses,
+             @Param("pairedCorrect") long pairedCorrect,
+             @Param("sumRest") double sumRest,
+             @Param("sumRestSq") double sumRestSq,
+             @Param("sumCorrectRest") double sumCorrectRest);
+}
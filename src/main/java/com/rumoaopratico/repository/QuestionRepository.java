@@ -3,13 +3,19 @@ package com.rumoaopratico.repository;
 import com.rumoaopratico.model.Question;
 import com.rumoaopratico.model.enums.Difficulty;
 import com.rumoaopratico.model.enums.QuestionType;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,28 +29,32 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
            "AND (:topicId IS NULL OR q.topic.id = :topicId) " +
            "AND (:type IS NULL OR q.type = :type) " +
            "AND (:difficulty IS NULL OR q.difficulty = :difficulty) " +
-           "AND (:search IS NULL OR LOWER(CAST(q.statement AS string)) LIKE LOWER(CONCAT('%', CAST(:search AS string), '%')))")
+           "AND (:search IS NULL OR LOWER(CAST(q.statement AS string)) LIKE LOWER(CONCAT('%', CAST(:search AS string), '%'))) " +
+           "AND (:tag IS NULL OR :tag MEMBER OF q.tagSet)")
+    @EntityGraph(attributePaths = "topic")
     Page<Question> findFilteredGlobal(
             @Param("topicId") Long topicId,
             @Param("type") QuestionType type,
             @Param("difficulty") Difficulty difficulty,
             @Param("search") String search,
+            @Param("tag") String tag,
             Pageable pageable);
 
-    @Query("SELECT q FROM Question q WHERE q.isActive = true " +
-           "AND q.topic.id IN :topicIds " +
-           "AND (:type IS NULL OR q.type = :type) " +
-           "AND (:difficulty IS NULL OR q.difficulty = :difficulty) " +
-           "ORDER BY FUNCTION('RANDOM')")
-    List<Question> findRandomForQuizGlobal(
-            @Param("topicIds") List<Long> topicIds,
-            @Param("type") QuestionType type,
-            @Param("difficulty") Difficulty difficulty,
-            Pageable pageable);
+    // Locks optimistically and bumps the version on commit, even when only the options change
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT q FROM Question q WHERE q.id = :id")
+    Optional<Question> findByIdForUpdate(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = "topic")
+    List<Question> findByIdIn(Collection<Long> ids);
 
     @Query("SELECT COUNT(q) FROM Question q WHERE q.isActive = true")
     long countAllActive();
 
+    // Selection keys (id, topic, type, difficulty) for the in-memory question pool index
+    @Query("SELECT q.id, q.topic.id, q.type, q.difficulty FROM Question q WHERE q.isActive = true")
+    List<Object[]> findActiveSelectionKeys();
+
     // Legacy per-user queries
     @Query("SELECT q FROM Question q WHERE q.user.id = :userId AND q.isActive = true " +
            "AND (:topicId IS NULL OR q.topic.id = :topicId) " +
@@ -75,19 +85,22 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
 
     long countByUserIdAndTopicIdAndIsActiveTrue(Long userId, Long topicId);
 
-    // Answer-status filtered queries (for Feature 1)
+    // Answer-status filtered queries (for Feature 1), resolved against user_question_stats by primary key
     @Query("SELECT q FROM Question q WHERE q.isActive = true " +
            "AND (:topicId IS NULL OR q.topic.id = :topicId) " +
            "AND (:type IS NULL OR q.type = :type) " +
            "AND (:difficulty IS NULL OR q.difficulty = :difficulty) " +
            "AND (:search IS NULL OR LOWER(CAST(q.statement AS string)) LIKE LOWER(CONCAT('%', CAST(:search AS string), '%'))) " +
-           "AND q.id NOT IN (SELECT DISTINCT qa.question.id FROM QuizAnswer qa WHERE qa.attempt.user.id = :userId)")
+           "AND (:tag IS NULL OR :tag MEMBER OF q.tagSet) " +
+           "AND NOT EXISTS (SELECT 1 FROM UserQuestionStats s WHERE s.userId = :userId AND s.questionId = q.id)")
+    @EntityGraph(attributePaths = "topic")
     Page<Question> findFilteredGlobalUnanswered(
             @Param("userId") Long userId,
             @Param("topicId") Long topicId,
             @Param("type") QuestionType type,
             @Param("difficulty") Difficulty difficulty,
             @Param("search") String search,
+            @Param("tag") String tag,
             Pageable pageable);
 
     @Query("SELECT q FROM Question q WHERE q.isActive = true " +
@@ -95,13 +108,16 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
            "AND (:type IS NULL OR q.type = :type) " +
            "AND (:difficulty IS NULL OR q.difficulty = :difficulty) " +
            "AND (:search IS NULL OR LOWER(CAST(q.statement AS string)) LIKE LOWER(CONCAT('%', CAST(:search AS string), '%'))) " +
-           "AND q.id IN (SELECT DISTINCT qa.question.id FROM QuizAnswer qa WHERE qa.attempt.user.id = :userId AND qa.isCorrect = true)")
+           "AND (:tag IS NULL OR :tag MEMBER OF q.tagSet) " +
+           "AND EXISTS (SELECT 1 FROM UserQuestionStats s WHERE s.userId = :userId AND s.questionId = q.id AND s.timesCorrect > 0)")
+    @EntityGraph(attributePaths = "topic")
     Page<Question> findFilteredGlobalCorrect(
             @Param("userId") Long userId,
             @Param("topicId") Long topicId,
             @Param("type") QuestionType type,
             @Param("difficulty") Difficulty difficulty,
             @Param("search") String search,
+            @Param("tag") String tag,
             Pageable pageable);
 
     @Query("SELECT q FROM Question q WHERE q.isActive = true " +
@@ -109,30 +125,109 @@ public interface QuestionRepository extends JpaRepository<Question, Long> {
            "AND (:type IS NULL OR q.type = :type) " +
            "AND (:difficulty IS NULL OR q.difficulty = :difficulty) " +
            "AND (:search IS NULL OR LOWER(CAST(q.statement AS string)) LIKE LOWER(CONCAT('%', CAST(:search AS string), '%'))) " +
-           "AND q.id IN (SELECT DISTINCT qa.question.id FROM QuizAnswer qa WHERE qa.attempt.user.id = :userId) " +
-           "AND q.id NOT IN (SELECT DISTINCT qa2.question.id FROM QuizAnswer qa2 WHERE qa2.attempt.user.id = :userId AND qa2.isCorrect = true)")
+           "AND (:tag IS NULL OR :tag MEMBER OF q.tagSet) " +
+           "AND EXISTS (SELECT 1 FROM UserQuestionStats s WHERE s.userId = :userId AND s.questionId = q.id AND s.timesCorrect = 0)")
+    @EntityGraph(attributePaths = "topic")
     Page<Question> findFilteredGlobalIncorrect(
             @Param("userId") Long userId,
             @Param("topicId") Long topicId,
             @Param("type") QuestionType type,
             @Param("difficulty") Difficulty difficulty,
             @Param("search") String search,
+            @Param("tag") String tag,
             Pageable pageable);
 
-    // Smart selection for Quiz (Feature 2) — prioritize unanswered/incorrectly-answered
+    // Keyset scroll over (createdAt, id) descending: rows strictly after the cursor, no count query.
+    // answerStatus is UNANSWERED, CORRECT, INCORRECT or null
     @Query("SELECT q FROM Question q WHERE q.isActive = true " +
-           "AND q.topic.id IN :topicIds " +
+           "AND (q.createdAt, q.id) < (:createdAt, :id) " +
+           "AND (:topicId IS NULL OR q.topic.id = :topicId) " +
            "AND (:type IS NULL OR q.type = :type) " +
            "AND (:difficulty IS NULL OR q.difficulty = :difficulty) " +
-           "AND q.id NOT IN (" +
-           "  SELECT DISTINCT qa.question.id FROM QuizAnswer qa " +
-           "  WHERE qa.attempt.user.id = :userId AND qa.isCorrect = true" +
-           ") " +
-           "ORDER BY FUNCTION('RANDOM')")
-    List<Question> findUnansweredOrIncorrectForQuiz(
+           "AND (:search IS NULL OR LOWER(CAST(q.statement AS string)) LIKE LOWER(CONCAT('%', CAST(:search AS string), '%'))) " +
+           "AND (:tag IS NULL OR :tag MEMBER OF q.tagSet) " +
+           "AND (:answerStatus IS NULL " +
+           "  OR (:answerStatus = 'UNANSWERED' AND NOT EXISTS (SELECT 1 FROM UserQuestionStats s " +
+           "      WHERE s.userId = :userId AND s.questionId = q.id)) " +
+           "  OR (:answerStatus = 'CORRECT' AND EXISTS (SELECT 1 FROM UserQuestionStats s " +
+           "      WHERE s.userId = :userId AND s.questionId = q.id AND s.timesCorrect > 0)) " +
+           "  OR (:answerStatus = 'INCORRECT' AND EXISTS (SELECT 1 FROM UserQuestionStats s " +
+           "      WHERE s.userId = :userId AND s.questionId = q.id AND s.timesCorrect = 0))) " +
+           "ORDER BY q.createdAt DESC, q.id DESC")
+    @EntityGraph(attributePaths = "topic")
+    Slice<Question> scrollFilteredGlobal(
             @Param("userId") Long userId,
-            @Param("topicIds") List<Long> topicIds,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            @Param("topicId") Long topicId,
             @Param("type") QuestionType type,
             @Param("difficulty") Difficulty difficulty,
+            @Param("search") String search,
+            @Param("tag") String tag,
+            @Param("answerStatus") String answerStatus,
+            Pageable pageable);
+
+    // Active questions per (topic, type, difficulty), for facet counts when the pool index is disabled
+    @Query("SELECT q.topic.id, q.type, q.difficulty, COUNT(q) FROM Question q WHERE q.isActive = true " +
+           "GROUP BY q.topic.id, q.type, q.difficulty")
+    List<Object[]> countActiveByBucket();
+
+    // Tag facet: active questions per normalized tag, most used first
+    @Query("SELECT t, COUNT(q) FROM Question q JOIN q.tagSet t WHERE q.isActive = true " +
+           "AND (:topicId IS NULL OR q.topic.id = :topicId) " +
+           "GROUP BY t ORDER BY COUNT(q) DESC, t")
+    List<Object[]> countActiveByTag(@Param("topicId") Long topicId);
+
+    // Optional filters shared by the full-text query and its count query
+    String FULLTEXT_FILTERS =
+            "AND (CAST(:topicId AS BIGINT) IS NULL OR q.topic_id = :topicId) " +
+            "AND (CAST(:type AS VARCHAR) IS NULL OR q.type = :type) " +
+            "AND (CAST(:difficulty AS VARCHAR) IS NULL OR q.difficulty = :difficulty) " +
+            "AND (CAST(:tag AS VARCHAR) IS NULL OR EXISTS (SELECT 1 FROM question_tags t " +
+            "  WHERE t.question_id = q.id AND t.tag = :tag)) " +
+            "AND (CAST(:answerStatus AS VARCHAR) IS NULL " +
+            "  OR (:answerStatus = 'UNANSWERED' AND NOT EXISTS (SELECT 1 FROM user_question_stats s " +
+            "      WHERE s.user_id = :userId AND s.question_id = q.id)) " +
+            "  OR (:answerStatus = 'CORRECT' AND EXISTS (SELECT 1 FROM user_question_stats s " +
+            "      WHERE s.user_id = :userId AND s.question_id = q.id AND s.times_correct > 0)) " +
+            "  OR (:answerStatus = 'INCORRECT' AND EXISTS (SELECT 1 FROM user_question_stats s " +
+            "      WHERE s.user_id = :userId AND s.question_id = q.id AND s.times_correct = 0))) ";
+
+    // Full-text search ranked by relevance; answerStatus is UNANSWERED, CORRECT, INCORRECT or null
+    @Query(value = "SELECT q.* FROM questions q, websearch_to_tsquery('portuguese_unaccent', :search) query " +
+                   "WHERE q.is_active = TRUE AND q.search_vector @@ query " + FULLTEXT_FILTERS +
+                   "ORDER BY ts_rank_cd(q.search_vector, query) DESC, q.id DESC",
+           countQuery = "SELECT COUNT(*) FROM questions q, websearch_to_tsquery('portuguese_unaccent', :search) query " +
+                        "WHERE q.is_active = TRUE AND q.search_vector @@ query " + FULLTEXT_FILTERS,
+           nativeQuery = true)
+    Page<Question> searchFullText(
+            @Param("userId") Long userId,
+            @Param("topicId") Long topicId,
+            @Param("type") String type,
+            @Param("difficulty") String difficulty,
+            @Param("search") String search,
+            @Param("tag") String tag,
+            @Param("answerStatus") String answerStatus,
+            Pageable pageable);
+
+    // Quiz selection in a single round trip: type list pushed down as IN, any of the tags required when
+    // anyTag is set, and when prioritizing, questions the user already answered correctly are ranked after the others
+    @Query("SELECT q FROM Question q WHERE q.isActive = true " +
+           "AND q.topic.id IN :topicIds " +
+           "AND q.type IN :types " +
+           "AND (:difficulty IS NULL OR q.difficulty = :difficulty) " +
+           "AND (:anyTag = false OR EXISTS (SELECT 1 FROM Question tq JOIN tq.tagSet t WHERE tq.id = q.id AND t IN :tags)) " +
+           "ORDER BY CASE WHEN :prioritize = true AND EXISTS (" +
+           "  SELECT 1 FROM UserQuestionStats s " +
+           "  WHERE s.userId = :userId AND s.questionId = q.id AND s.timesCorrect > 0" +
+           ") THEN 1 ELSE 0 END, FUNCTION('RANDOM')")
+    List<Question> findForQuiz(
+            @Param("userId") Long userId,
+            @Param("topicIds") List<Long> topicIds,
+            @Param("types") List<QuestionType> types,
+            @Param("difficulty") Difficulty difficulty,
+            @Param("anyTag") boolean anyTag,
+            @Param("tags") Collection<String> tags,
+            @Param("prioritize") boolean prioritize,
             Pageable pageable);
 }
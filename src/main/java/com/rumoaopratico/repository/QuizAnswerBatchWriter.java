@@ -0,0 +1,103 @@
+package com.rumoaopratico.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rumoaopratico.model.QuizAnswer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Inserts quiz answers with a single JDBC batch instead of one JPA persist per answer.
+ */
+@Repository
+@RequiredArgsConstructor
+public class QuizAnswerBatchWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO quiz_answers (attempt_id, user_id, question_id, user_answer_json, is_correct, answered_at) " +
+            "VALUES (?, ?, ?, ?::jsonb, ?, ?)";
+
+    // Replay-safe variant: skips answers already stored, answers whose question is gone and
+    // answers whose attempt is gone or already finished
+    private static final String INSERT_IGNORING_CONFLICTS_SQL =
+            "INSERT INTO quiz_answers (attempt_id, user_id, question_id, user_answer_json, is_correct, answered_at) " +
+            "SELECT ?, ?, ?, ?::jsonb, ?, ? " +
+            "WHERE EXISTS (SELECT 1 FROM quiz_attempts WHERE id = ? AND finished_at IS NULL) " +
+            "AND EXISTS (SELECT 1 FROM questions WHERE id = ?) " +
+            "ON CONFLICT (attempt_id, question_id) DO NOTHING";
+
+    private static final String RECOUNT_CORRECT_SQL =
+            "UPDATE quiz_attempts SET correct_count = " +
+            "(SELECT COUNT(*) FROM quiz_answers WHERE attempt_id = ? AND is_correct = TRUE) " +
+            "WHERE id = ? AND finished_at IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public void insertAll(List<QuizAnswer> answers) {
+        if (answers.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_SQL, answers, answers.size(), (ps, answer) -> {
+            ps.setLong(1, answer.getAttempt().getId());
+            ps.setLong(2, answer.getUserId());
+            ps.setLong(3, answer.getQuestion().getId());
+            ps.setString(4, toJson(answer));
+            ps.setBoolean(5, Boolean.TRUE.equals(answer.getIsCorrect()));
+            ps.setTimestamp(6, Timestamp.valueOf(answer.getAnsweredAt()));
+        });
+    }
+
+    /**
+     * Returns the answers that were actually inserted.
+     */
+    public List<QuizAnswer> insertAllIgnoringConflicts(List<QuizAnswer> answers, int batchSize) {
+        if (answers.isEmpty()) return List.of();
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_IGNORING_CONFLICTS_SQL, answers, batchSize, (ps, answer) -> {
+            ps.setLong(1, answer.getAttempt().getId());
+            ps.setLong(2, answer.getUserId());
+            ps.setLong(3, answer.getQuestion().getId());
+            ps.setString(4, toJson(answer));
+            ps.setBoolean(5, Boolean.TRUE.equals(answer.getIsCorrect()));
+            ps.setTimestamp(6, Timestamp.valueOf(answer.getAnsweredAt()));
+            ps.setLong(7, answer.getAttempt().getId());
+            ps.setLong(8, answer.getQuestion().getId());
+        });
+
+        List<QuizAnswer> inserted = new ArrayList<>();
+        int i = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                // SUCCESS_NO_INFO (rewritten batches) is counted as inserted
+                if (count != 0) inserted.add(answers.get(i));
+                i++;
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Recomputes correct_count from the stored answers; idempotent, unlike an increment.
+     * Finished attempts are left alone, their count is already in the derived stats.
+     */
+    public void recountCorrect(Collection<Long> attemptIds) {
+        if (attemptIds.isEmpty()) return;
+        List<Object[]> args = new ArrayList<>(attemptIds.size());
+        for (Long attemptId : attemptIds) {
+            args.add(new Object[]{attemptId, attemptId});
+        }
+        jdbcTemplate.batchUpdate(RECOUNT_CORRECT_SQL, args);
+    }
+
+    private String toJson(QuizAnswer answer) {
+        try {
+            return answer.getUserAnswerJson() != null ? objectMapper.writeValueAsString(answer.getUserAnswerJson()) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize answer", e);
+        }
+    }
+}
@@ -8,29 +8,28 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface QuizAnswerRepository extends JpaRepository<QuizAnswer, Long> {
     List<QuizAnswer> findByAttemptId(Long attemptId);
+    List<QuizAnswer> findByAttemptIdIn(Collection<Long> attemptIds);
     long countByAttemptId(Long attemptId);
     long countByAttemptIdAndIsCorrectTrue(Long attemptId);
     boolean existsByAttemptIdAndQuestionId(Long attemptId, Long questionId);
 
+    // Outcomes for item analysis: attempt id, question id, correct
+    @Query("SELECT a.attempt.id, a.question.id, a.isCorrect FROM QuizAnswer a WHERE a.attempt.id IN :attemptIds")
+    List<Object[]> findOutcomesByAttemptIdIn(@Param("attemptIds") Collection<Long> attemptIds);
+
+    // Per-topic totals of one attempt: topic id, answers, correct answers
+    @Query("SELECT q.topic.id, COUNT(a), SUM(CASE WHEN a.isCorrect = true THEN 1 ELSE 0 END) " +
+           "FROM QuizAnswer a JOIN a.question q WHERE a.attempt.id = :attemptId GROUP BY q.topic.id")
+    List<Object[]> countByTopicForAttempt(@Param("attemptId") Long attemptId);
+
     @Modifying
-    @Query("DELETE FROM QuizAnswer qa WHERE qa.attempt.user.id = :userId")
-    void deleteByAttemptUserId(@Param("userId") Long userId);
-
-    @Query("SELECT COUNT(DISTINCT qa.question.id) FROM QuizAnswer qa WHERE qa.attempt.user.id = :userId")
-    long countUniqueQuestionsAnsweredByUserId(@Param("userId") Long userId);
-
-    @Query("SELECT qa.question.id, " +
-           "COUNT(qa), " +
-           "SUM(CASE WHEN qa.isCorrect = true THEN 1 ELSE 0 END) " +
-           "FROM QuizAnswer qa WHERE qa.attempt.user.id = :userId " +
-           "AND qa.question.id IN :questionIds " +
-           "GROUP BY qa.question.id")
-    List<Object[]> findAnswerStatsByUserAndQuestions(
-            @Param("userId") Long userId,
-            @Param("questionIds") List<Long> questionIds);
+    @Query("DELETE FROM QuizAnswer qa WHERE qa.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+
 }
@@ -1,15 +1,19 @@
 package com.rumoaopratico.repository;
 
 import com.rumoaopratico.model.QuizAttempt;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,21 +22,60 @@ public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long>
 
     Optional<QuizAttempt> findByIdAndUserId(Long id, Long userId);
 
+    // Serializes closing an attempt with answer submits, which take the same row lock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT qa FROM QuizAttempt qa WHERE qa.id = :id AND qa.user.id = :userId")
+    Optional<QuizAttempt> findByIdAndUserIdForUpdate(@Param("id") Long id, @Param("userId") Long userId);
+
     @Query("SELECT qa FROM QuizAttempt qa WHERE qa.user.id = :userId " +
            "AND qa.finishedAt IS NOT NULL " +
            "AND (CAST(:startDate AS timestamp) IS NULL OR qa.startedAt >= :startDate) " +
            "AND (CAST(:endDate AS timestamp) IS NULL OR qa.startedAt <= :endDate) " +
+           "AND (:topicId IS NULL OR :topicId MEMBER OF qa.topicIds) " +
            "ORDER BY qa.startedAt DESC")
     Page<QuizAttempt> findByUserIdFiltered(
             @Param("userId") Long userId,
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate,
+            @Param("topicId") Long topicId,
+            Pageable pageable);
+
+    // Keyset scroll over (startedAt, id) descending, backed by the (user_id, started_at, id) index
+    @Query("SELECT qa FROM QuizAttempt qa WHERE qa.user.id = :userId " +
+           "AND qa.finishedAt IS NOT NULL " +
+           "AND (qa.startedAt, qa.id) < (:startedAt, :id) " +
+           "AND (CAST(:startDate AS timestamp) IS NULL OR qa.startedAt >= :startDate) " +
+           "AND (CAST(:endDate AS timestamp) IS NULL OR qa.startedAt <= :endDate) " +
+           "AND (:topicId IS NULL OR :topicId MEMBER OF qa.topicIds) " +
+           "ORDER BY qa.startedAt DESC, qa.id DESC")
+    Slice<QuizAttempt> scrollByUserIdFiltered(
+            @Param("userId") Long userId,
+            @Param("startedAt") LocalDateTime startedAt,
+            @Param("id") Long id,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("topicId") Long topicId,
             Pageable pageable);
 
+    // Topic names of a page of attempts: attempt id, topic name
+    @Query("SELECT qa.id, t.name FROM QuizAttempt qa JOIN qa.topicIds tid JOIN Topic t ON t.id = tid " +
+           "WHERE qa.id IN :attemptIds ORDER BY t.name")
+    List<Object[]> findTopicNamesByAttemptIdIn(@Param("attemptIds") Collection<Long> attemptIds);
+
     long countByUserId(Long userId);
 
     List<QuizAttempt> findAllByUserId(Long userId);
 
+    // Finished attempts after the item-analysis high-water mark, oldest first: id, finishedAt
+    @Query("SELECT qa.id, qa.finishedAt FROM QuizAttempt qa " +
+           "WHERE qa.finishedAt IS NOT NULL AND qa.finishedAt < :settledBefore " +
+           "AND (qa.finishedAt, qa.id) > (:finishedAt, :id) " +
+           "ORDER BY qa.finishedAt, qa.id")
+    List<Object[]> findFinishedAfter(@Param("finishedAt") LocalDateTime finishedAt,
+                                     @Param("id") Long id,
+                                     @Param("settledBefore") LocalDateTime settledBefore,
+                                     Pageable pageable);
+
     List<QuizAttempt> findByUserIdAndFinishedAtIsNullOrderByStartedAtDesc(Long userId);
 
     @Query("SELECT COALESCE(SUM(qa.correctCount), 0) FROM QuizAttempt qa WHERE qa.user.id = :userId AND qa.finishedAt IS NOT NULL")
@@ -41,6 +84,18 @@ public interface QuizAttemptRepository extends JpaRepository<QuizAttempt, Long>
     @Query("SELECT COALESCE(SUM(qa.totalQuestions), 0) FROM QuizAttempt qa WHERE qa.user.id = :userId AND qa.finishedAt IS NOT NULL")
     long sumTotalQuestionsByUserId(@Param("userId") Long userId);
 
+    @Modifying
+    @Query("UPDATE QuizAttempt qa SET qa.correctCount = qa.correctCount + :delta WHERE qa.id = :id AND qa.finishedAt IS NULL")
+    int incrementCorrectCount(@Param("id") Long id, @Param("delta") int delta);
+
+    // Closes the attempt only if still open, so exactly one concurrent finish or abandon wins
+    @Modifying
+    @Query("UPDATE QuizAttempt qa SET qa.finishedAt = :finishedAt, qa.correctCount = :correctCount " +
+           "WHERE qa.id = :id AND qa.finishedAt IS NULL")
+    int markFinished(@Param("id") Long id,
+                     @Param("finishedAt") LocalDateTime finishedAt,
+                     @Param("correctCount") int correctCount);
+
     @Modifying
     @Query("DELETE FROM QuizAttempt qa WHERE qa.user.id = :userId")
     void deleteByUserId(@Param("userId") Long userId);
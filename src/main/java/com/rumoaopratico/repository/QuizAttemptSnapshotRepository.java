@@ -0,0 +1,18 @@
+package com.rumoaopratico.repository;
+
+import com.rumoaopratico.model.QuizAttemptSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface QuizAttemptSnapshotRepository extends JpaRepository<QuizAttemptSnapshot, Long> {
+
+    // Plain insert: snapshots are immutable and keyed by the attempt id, so no merge/select is needed
+    @Modifying
+    @Query(value = "INSERT INTO quiz_attempt_snapshots (attempt_id, payload) VALUES (:attemptId, :payload)",
+           nativeQuery = true)
+    void insert(@Param("attemptId") Long attemptId, @Param("payload") byte[] payload);
+}
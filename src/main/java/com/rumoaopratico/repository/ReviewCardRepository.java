@@ -0,0 +1,51 @@
+package com.rumoaopratico.repository;
+
+import com.rumoaopratico.model.ReviewCard;
+import com.rumoaopratico.model.enums.Difficulty;
+import com.rumoaopratico.model.enums.QuestionType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReviewCardRepository extends JpaRepository<ReviewCard, ReviewCard.Key> {
+
+    List<ReviewCard> findByUserIdAndQuestionIdIn(Long userId, Collection<Long> questionIds);
+
+    // Walks the (user_id, due_at) index from the most overdue card
+    @Query("SELECT rc.questionId FROM ReviewCard rc, Question q " +
+           "WHERE q.id = rc.questionId AND rc.userId = :userId AND rc.dueAt <= :now " +
+           "AND q.isActive = true AND q.topic.id IN :topicIds AND q.type IN :types " +
+           "AND (:difficulty IS NULL OR q.difficulty = :difficulty) " +
+           "AND (:anyTag = false OR EXISTS (SELECT 1 FROM Question tq JOIN tq.tagSet t WHERE tq.id = q.id AND t IN :tags)) " +
+           "ORDER BY rc.dueAt")
+    List<Long> findDueQuestionIds(
+            @Param("userId") Long userId,
+            @Param("now") LocalDateTime now,
+            @Param("topicIds") List<Long> topicIds,
+            @Param("types") List<QuestionType> types,
+            @Param("difficulty") Difficulty difficulty,
+            @Param("anyTag") boolean anyTag,
+            @Param("tags") Collection<String> tags,
+            Pageable pageable);
+
+    // First review of a question; a concurrent first review of the same card wins
+    @Modifying
+    @Query(value = "INSERT INTO review_cards (user_id, question_id, repetitions, interval_days, ease_factor, due_at, last_reviewed_at) " +
+                   "VALUES (:#{#card.userId}, :#{#card.questionId}, :#{#card.repetitions}, :#{#card.intervalDays}, " +
+                   ":#{#card.easeFactor}, :#{#card.dueAt}, :#{#card.lastReviewedAt}) " +
+                   "ON CONFLICT (user_id, question_id) DO NOTHING",
+           nativeQuery = true)
+    void insertIfAbsent(@Param("card") ReviewCard card);
+
+    @Modifying
+    @Query("DELETE FROM ReviewCard rc WHERE rc.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
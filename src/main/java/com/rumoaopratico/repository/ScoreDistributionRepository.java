@@ -0,0 +1,27 @@
+package com.rumoaopratico.repository;
+
+import com.rumoaopratico.model.ScoreDistribution;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ScoreDistributionRepository extends JpaRepository<ScoreDistribution, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM ScoreDistribution d WHERE d.scope = :scope")
+    Optional<ScoreDistribution> findByScopeForUpdate(@Param("scope") String scope);
+
+    // Lets concurrent nodes create a scope without a primary key conflict
+    @Modifying
+    @Query(value = "INSERT INTO score_distributions (scope, counts, total, updated_at) " +
+                   "VALUES (:scope, CAST('[]' AS jsonb), 0, NOW()) ON CONFLICT (scope) DO NOTHING",
+           nativeQuery = true)
+    void insertIfAbsent(@Param("scope") String scope);
+}
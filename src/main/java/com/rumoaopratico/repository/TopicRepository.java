@@ -3,6 +3,7 @@ package com.rumoaopratico.repository;
 import com.rumoaopratico.model.Topic;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,6 +13,7 @@ import java.util.Optional;
 @Repository
 public interface TopicRepository extends JpaRepository<Topic, Long> {
     // Global queries (topics are shared)
+    @EntityGraph(attributePaths = "parent")
     Page<Topic> findAll(Pageable pageable);
     Optional<Topic> findByName(String name);
 
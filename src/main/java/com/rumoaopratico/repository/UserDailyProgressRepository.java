@@ -0,0 +1,49 @@
+package com.rumoaopratico.repository;
+
+import com.rumoaopratico.model.UserDailyProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserDailyProgressRepository extends JpaRepository<UserDailyProgress, UserDailyProgress.Key> {
+
+    List<UserDailyProgress> findByUserIdAndDayBetweenOrderByDay(Long userId, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_daily_progress (user_id, activity_date, attempts, answered, correct, study_seconds) " +
+                   "VALUES (:userId, :day, 1, :answered, :correct, :studySeconds) " +
+                   "ON CONFLICT (user_id, activity_date) DO UPDATE SET " +
+                   "attempts = user_daily_progress.attempts + 1, " +
+                   "answered = user_daily_progress.answered + EXCLUDED.answered, " +
+                   "correct = user_daily_progress.correct + EXCLUDED.correct, " +
+                   "study_seconds = user_daily_progress.study_seconds + EXCLUDED.study_seconds",
+           nativeQuery = true)
+    void addAttempt(@Param("userId") Long userId,
+                    @Param("day") LocalDate day,
+                    @Param("answered") long answered,
+                    @Param("correct") long correct,
+                    @Param("studySeconds") long studySeconds);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_daily_progress (user_id, activity_date, attempts, answered, correct, study_seconds) " +
+                   "SELECT a.user_id, CAST(a.finished_at AS DATE), COUNT(*), " +
+                   "COALESCE(SUM(c.answered), 0), COALESCE(SUM(c.correct), 0), " +
+                   "COALESCE(SUM(FLOOR(EXTRACT(EPOCH FROM (a.finished_at - a.started_at)))), 0) " +
+                   "FROM quiz_attempts a " +
+                   "LEFT JOIN (SELECT attempt_id, COUNT(*) AS answered, COUNT(*) FILTER (WHERE is_correct) AS correct " +
+                   "           FROM quiz_answers WHERE user_id = :userId GROUP BY attempt_id) c ON c.attempt_id = a.id " +
+                   "WHERE a.user_id = :userId AND a.finished_at IS NOT NULL " +
+                   "GROUP BY a.user_id, CAST(a.finished_at AS DATE)",
+           nativeQuery = true)
+    void insertFromAttempts(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM UserDailyProgress p WHERE p.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,60 @@
+package com.rumoaopratico.repository;
+
+import com.rumoaopratico.model.UserDailyTopicProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserDailyTopicProgressRepository
+        extends JpaRepository<UserDailyTopicProgress, UserDailyTopicProgress.Key> {
+
+    // day, topic id, topic name, attempts, answered, correct, study seconds
+    @Query("SELECT p.day, p.topicId, t.name, p.attempts, p.answered, p.correct, p.studySeconds " +
+           "FROM UserDailyTopicProgress p JOIN Topic t ON t.id = p.topicId " +
+           "WHERE p.userId = :userId AND p.day BETWEEN :from AND :to ORDER BY p.day")
+    List<Object[]> findWithTopicName(@Param("userId") Long userId,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_daily_topic_progress (user_id, activity_date, topic_id, attempts, answered, correct, study_seconds) " +
+                   "VALUES (:userId, :day, :topicId, 1, :answered, :correct, :studySeconds) " +
+                   "ON CONFLICT (user_id, activity_date, topic_id) DO UPDATE SET " +
+                   "attempts = user_daily_topic_progress.attempts + 1, " +
+                   "answered = user_daily_topic_progress.answered + EXCLUDED.answered, " +
+                   "correct = user_daily_topic_progress.correct + EXCLUDED.correct, " +
+                   "study_seconds = user_daily_topic_progress.study_seconds + EXCLUDED.study_seconds",
+           nativeQuery = true)
+    void addAttempt(@Param("userId") Long userId,
+                    @Param("day") LocalDate day,
+                    @Param("topicId") Long topicId,
+                    @Param("answered") long answered,
+                    @Param("correct") long correct,
+                    @Param("studySeconds") long studySeconds);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_daily_topic_progress (user_id, activity_date, topic_id, attempts, answered, correct, study_seconds) " +
+                   "SELECT user_id, activity_date, topic_id, COUNT(*), SUM(answered), SUM(correct), SUM(study_seconds) FROM (" +
+                   "  SELECT a.user_id, CAST(a.finished_at AS DATE) AS activity_date, t.topic_id, t.answered, t.correct, " +
+                   "         COALESCE(FLOOR(EXTRACT(EPOCH FROM (a.finished_at - a.started_at)) * t.answered " +
+                   "                        / SUM(t.answered) OVER (PARTITION BY t.attempt_id)), 0) AS study_seconds " +
+                   "  FROM (SELECT ans.attempt_id, q.topic_id, COUNT(*) AS answered, " +
+                   "               COUNT(*) FILTER (WHERE ans.is_correct) AS correct " +
+                   "        FROM quiz_answers ans JOIN questions q ON q.id = ans.question_id " +
+                   "        WHERE ans.user_id = :userId GROUP BY ans.attempt_id, q.topic_id) t " +
+                   "  JOIN quiz_attempts a ON a.id = t.attempt_id " +
+                   "  WHERE a.finished_at IS NOT NULL" +
+                   ") per_attempt GROUP BY user_id, activity_date, topic_id",
+           nativeQuery = true)
+    void insertFromAnswers(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM UserDailyTopicProgress p WHERE p.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
@@ -0,0 +1,48 @@
+package com.rumoaopratico.repository;
+
+import com.rumoaopratico.model.UserQuestionStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserQuestionStatsRepository extends JpaRepository<UserQuestionStats, UserQuestionStats.Key> {
+
+    List<UserQuestionStats> findByUserIdAndQuestionIdIn(Long userId, Collection<Long> questionIds);
+
+    long countByUserId(Long userId);
+
+    @Query("SELECT s.questionId FROM UserQuestionStats s WHERE s.userId = :userId AND s.timesCorrect > 0")
+    List<Long> findCorrectlyAnsweredQuestionIds(@Param("userId") Long userId);
+
+    // Answered active questions per (topic, type, difficulty) and whether any answer was correct
+    @Query("SELECT q.topic.id, q.type, q.difficulty, CASE WHEN s.timesCorrect > 0 THEN true ELSE false END, COUNT(s) " +
+           "FROM UserQuestionStats s JOIN Question q ON q.id = s.questionId " +
+           "WHERE s.userId = :userId AND q.isActive = true " +
+           "GROUP BY q.topic.id, q.type, q.difficulty, CASE WHEN s.timesCorrect > 0 THEN true ELSE false END")
+    List<Object[]> countAnsweredByBucket(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_question_stats (user_id, question_id, times_answered, times_correct, last_answered_at) " +
+                   "VALUES (:userId, :questionId, :answered, :correct, :answeredAt) " +
+                   "ON CONFLICT (user_id, question_id) DO UPDATE SET " +
+                   "times_answered = user_question_stats.times_answered + EXCLUDED.times_answered, " +
+                   "times_correct = user_question_stats.times_correct + EXCLUDED.times_correct, " +
+                   "last_answered_at = GREATEST(user_question_stats.last_answered_at, EXCLUDED.last_answered_at)",
+           nativeQuery = true)
+    void upsert(@Param("userId") Long userId,
+                @Param("questionId") Long questionId,
+                @Param("answered") int answered,
+                @Param("correct") int correct,
+                @Param("answeredAt") LocalDateTime answeredAt);
+
+    @Modifying
+    @Query("DELETE FROM UserQuestionStats s WHERE s.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
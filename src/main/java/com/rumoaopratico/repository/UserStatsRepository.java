@@ -0,0 +1,48 @@
+package com.rumoaopratico.repository;
+
+import com.rumoaopratico.model.UserStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, UserStats.Key> {
+
+    List<UserStats> findByUserIdOrderByMode(Long userId);
+
+    // Leaderboard scores: user id, mode, correct answers
+    @Query("SELECT s.userId, s.mode, s.correct FROM UserStats s")
+    List<Object[]> findAllScores();
+
+    @Modifying
+    @Query(value = "INSERT INTO user_stats (user_id, mode, quizzes, questions, correct, time_seconds) " +
+                   "VALUES (:userId, :mode, 1, :questions, :correct, :timeSeconds) " +
+                   "ON CONFLICT (user_id, mode) DO UPDATE SET " +
+                   "quizzes = user_stats.quizzes + 1, " +
+                   "questions = user_stats.questions + EXCLUDED.questions, " +
+                   "correct = user_stats.correct + EXCLUDED.correct, " +
+                   "time_seconds = user_stats.time_seconds + EXCLUDED.time_seconds",
+           nativeQuery = true)
+    void addAttempt(@Param("userId") Long userId,
+                    @Param("mode") String mode,
+                    @Param("questions") long questions,
+                    @Param("correct") long correct,
+                    @Param("timeSeconds") long timeSeconds);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_stats (user_id, mode, quizzes, questions, correct, time_seconds) " +
+                   "SELECT user_id, mode, COUNT(*), COALESCE(SUM(total_questions), 0), COALESCE(SUM(correct_count), 0), " +
+                   "COALESCE(SUM(FLOOR(EXTRACT(EPOCH FROM (finished_at - started_at)))), 0) " +
+                   "FROM quiz_attempts WHERE user_id = :userId AND finished_at IS NOT NULL AND mode IS NOT NULL " +
+                   "GROUP BY user_id, mode",
+           nativeQuery = true)
+    void insertFromAttempts(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM UserStats s WHERE s.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
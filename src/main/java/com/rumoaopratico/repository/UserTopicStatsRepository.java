@@ -0,0 +1,54 @@
+package com.rumoaopratico.repository;
+
+import com.rumoaopratico.model.UserTopicStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserTopicStatsRepository extends JpaRepository<UserTopicStats, UserTopicStats.Key> {
+
+    List<UserTopicStats> findByUserId(Long userId);
+
+    // Leaderboard scores: user id, topic id, correct answers
+    @Query("SELECT s.userId, s.topicId, s.correct FROM UserTopicStats s")
+    List<Object[]> findAllScores();
+
+    // topic name, attempts that touched the topic, correct answers, answers, topic id
+    @Query("SELECT t.name, s.attempts, s.correct, s.answered, t.id FROM UserTopicStats s JOIN Topic t ON t.id = s.topicId " +
+           "WHERE s.userId = :userId ORDER BY t.name")
+    List<Object[]> findTopicTotalsByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_topic_stats (user_id, topic_id, attempts, answered, correct) " +
+                   "VALUES (:userId, :topicId, 1, :answered, :correct) " +
+                   "ON CONFLICT (user_id, topic_id) DO UPDATE SET " +
+                   "attempts = user_topic_stats.attempts + 1, " +
+                   "answered = user_topic_stats.answered + EXCLUDED.answered, " +
+                   "correct = user_topic_stats.correct + EXCLUDED.correct",
+           nativeQuery = true)
+    void addAttempt(@Param("userId") Long userId,
+                    @Param("topicId") Long topicId,
+                    @Param("answered") long answered,
+                    @Param("correct") long correct);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_topic_stats (user_id, topic_id, attempts, answered, correct) " +
+                   "SELECT ans.user_id, q.topic_id, COUNT(DISTINCT ans.attempt_id), COUNT(*), " +
+                   "COUNT(*) FILTER (WHERE ans.is_correct) " +
+                   "FROM quiz_answers ans " +
+                   "JOIN quiz_attempts a ON a.id = ans.attempt_id " +
+                   "JOIN questions q ON q.id = ans.question_id " +
+                   "WHERE ans.user_id = :userId AND a.finished_at IS NOT NULL " +
+                   "GROUP BY ans.user_id, q.topic_id",
+           nativeQuery = true)
+    void insertFromAnswers(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM UserTopicStats s WHERE s.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
@@ -13,8 +13,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Slf4j
 @Service
@@ -24,6 +26,11 @@ public class AdminService {
     private final UserRepository userRepository;
     private final QuizAttemptRepository quizAttemptRepository;
     private final QuizAnswerRepository quizAnswerRepository;
+    private final MasteryCache masteryCache;
+    private final AttemptStateCache attemptStateCache;
+    private final AnswerStatsRecorder answerStatsRecorder;
+    private final UserStatsService userStatsService;
+    private final HistoryExportService historyExportService;
 
     public Page<UserResponse> listAllUsers(Pageable pageable) {
         return userRepository.findAll(pageable).map(UserResponse::from);
@@ -34,12 +41,34 @@ public class AdminService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", userId));
 
-        quizAnswerRepository.deleteByAttemptUserId(userId);
+        quizAnswerRepository.deleteByUserId(userId);
         quizAttemptRepository.deleteByUserId(userId);
+        answerStatsRecorder.deleteForUser(userId);
+        userStatsService.deleteForUser(userId);
+        masteryCache.invalidate(userId);
+        attemptStateCache.invalidateUser(userId);
 
         log.info("Cleared all quiz history for user: {} (id={})", user.getEmail(), userId);
     }
 
+    public ResponseEntity<StreamingResponseBody> exportUserHistory(Long userId, String format, Long fromAttemptId,
+                                                                   boolean gzip) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", userId);
+        }
+        log.info("Exporting quiz history of user id={} from attempt {}", userId, fromAttemptId);
+        return historyExportService.download(userId, format, fromAttemptId, gzip);
+    }
+
+    @Transactional
+    public void rebuildUserStats(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", userId);
+        }
+        userStatsService.rebuild(userId);
+        log.info("Rebuilt stats aggregates of user id={}", userId);
+    }
+
     @Transactional
     public UserResponse updateUser(Long currentUserId, Long targetUserId, AdminUpdateUserRequest request) {
         if (currentUserId.equals(targetUserId)) {
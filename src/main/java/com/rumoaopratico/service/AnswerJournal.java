@@ -0,0 +1,418 @@
+package com.rumoaopratico.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rumoaopratico.model.Question;
+import com.rumoaopratico.model.QuizAnswer;
+import com.rumoaopratico.model.QuizAttempt;
+import com.rumoaopratico.repository.QuizAnswerBatchWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Optional write-behind path for quiz answers. Submitted answers are appended to a local
+ * append-only journal and fsynced before the request is acknowledged; a background flusher
+ * then writes them to quiz_answers in JDBC batches and recomputes the attempts' correct
+ * counts. Answers of attempts that were finished meanwhile are dropped by the flush.
+ * Segments left over from a previous run are replayed on startup.
+ *
+ * <p>Reads that need the database to reflect an attempt's answers (finish, abandon, results)
+ * call {@link #flushAttempt(Long)} before opening their transaction: the flush writes through
+ * a connection of its own, so a caller holding one while waiting for it could exhaust the
+ * pool. Attempt state rebuilds merge {@link #unflushedAnswers(Long)} instead. The journal is
+ * node-local, so this mode assumes an attempt's answers are submitted through a single node.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnswerJournal {
+
+    private static final String SEGMENT_PREFIX = "answers-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final QuizAnswerBatchWriter quizAnswerBatchWriter;
+    private final AnswerStatsRecorder answerStatsRecorder;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${quiz.answers.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${quiz.answers.write-behind.journal-dir:./data/answer-journal}")
+    private String journalDir;
+
+    @Value("${quiz.answers.write-behind.batch-size:500}")
+    private int batchSize;
+
+    private final Object flushLock = new Object();
+    private Path directory;
+    private TransactionTemplate transactionTemplate;
+    private long segmentSequence;
+
+    // Guarded by this
+    private FileChannel channel;
+    private Path currentSegment;
+    private final List<Entry> pending = new ArrayList<>();
+    private final List<Entry> sealedEntries = new ArrayList<>();
+    private final List<Path> sealedSegments = new ArrayList<>();
+    private final Map<Long, Integer> unflushedByAttempt = new HashMap<>();
+    private final Map<Long, Integer> unflushedByUser = new HashMap<>();
+
+    private final BlockingQueue<Append> appendQueue = new LinkedBlockingQueue<>();
+    private Thread writer;
+    // Guarded by appendQueue, so nothing is queued once the writer may have exited
+    private boolean accepting;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) return;
+        directory = Paths.get(journalDir);
+        Files.createDirectories(directory);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // Flushes may be triggered from read-only transactions
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        List<Path> leftover;
+        try (Stream<Path> files = Files.list(directory)) {
+            leftover = files.filter(AnswerJournal::isSegment).sorted().collect(Collectors.toList());
+        }
+        for (Path segment : leftover) {
+            List<Entry> entries = readSegment(segment);
+            sealedEntries.addAll(entries);
+            sealedSegments.add(segment);
+            entries.forEach(this::countUnflushed);
+        }
+        if (!leftover.isEmpty()) {
+            log.info("Replaying {} journaled answers from {} segments", sealedEntries.size(), leftover.size());
+        }
+
+        accepting = true;
+        writer = new Thread(this::writeLoop, "answer-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Durably appends the answers to the journal. Returns once they are fsynced. Concurrent
+     * callers are group-committed: the writer thread appends everything queued meanwhile and
+     * covers it with a single fsync.
+     */
+    public void append(Long userId, List<QuizAnswer> answers) {
+        StringBuilder lines = new StringBuilder();
+        List<Entry> entries = new ArrayList<>(answers.size());
+        for (QuizAnswer answer : answers) {
+            Entry entry = Entry.of(userId, answer);
+            entries.add(entry);
+            try {
+                lines.append(objectMapper.writeValueAsString(entry)).append('\n');
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not encode journal entry", e);
+            }
+        }
+
+        Append request = new Append(lines.toString().getBytes(StandardCharsets.UTF_8), entries, new CompletableFuture<>());
+        synchronized (appendQueue) {
+            if (!accepting) {
+                throw new IllegalStateException("Answer journal is closed");
+            }
+            appendQueue.add(request);
+        }
+        try {
+            request.done().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private void writeLoop() {
+        List<Append> batch = new ArrayList<>();
+        while (true) {
+            try {
+                Append first = appendQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    synchronized (appendQueue) {
+                        if (!accepting && appendQueue.isEmpty()) return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                appendQueue.drainTo(batch);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<Append> batch) {
+        RuntimeException failure = null;
+        synchronized (this) {
+            try {
+                if (channel == null) {
+                    openSegment();
+                }
+                for (Append request : batch) {
+                    ByteBuffer buffer = ByteBuffer.wrap(request.bytes());
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+                // One fsync acknowledges every caller in the batch
+                channel.force(false);
+                for (Append request : batch) {
+                    pending.addAll(request.entries());
+                    request.entries().forEach(this::countUnflushed);
+                }
+            } catch (IOException | RuntimeException e) {
+                // The segment may now end with a partial line; never append after it
+                sealCurrent();
+                failure = e instanceof IOException io
+                        ? new UncheckedIOException("Could not append to answer journal", io)
+                        : (RuntimeException) e;
+            }
+        }
+
+        for (Append request : batch) {
+            if (failure == null) {
+                request.done().complete(null);
+            } else {
+                request.done().completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * Flushes the journal if it holds answers of the given attempt that are not yet in the
+     * database. Must not be called inside a transaction.
+     */
+    public void flushAttempt(Long attemptId) {
+        if (!enabled) return;
+        synchronized (this) {
+            if (!unflushedByAttempt.containsKey(attemptId)) return;
+        }
+        if (!flush()) {
+            throw new IllegalStateException("Could not flush journaled answers of attempt " + attemptId);
+        }
+    }
+
+    /**
+     * Same as {@link #flushAttempt(Long)} for every attempt of the user.
+     */
+    public void flushUser(Long userId) {
+        if (!enabled) return;
+        synchronized (this) {
+            if (!unflushedByUser.containsKey(userId)) return;
+        }
+        if (!flush()) {
+            throw new IllegalStateException("Could not flush journaled answers of user " + userId);
+        }
+    }
+
+    /**
+     * Answers of the attempt that are journaled but not yet committed to the database. Entries
+     * leave the journal only after their flush commits, so reading these before the database
+     * misses none.
+     */
+    public synchronized List<QuizAnswer> unflushedAnswers(Long attemptId) {
+        if (!enabled || !unflushedByAttempt.containsKey(attemptId)) return List.of();
+        return Stream.concat(sealedEntries.stream(), pending.stream())
+                .filter(entry -> entry.attemptId().equals(attemptId))
+                .map(Entry::toAnswer)
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(fixedDelayString = "${quiz.answers.write-behind.flush-interval-ms:200}")
+    public void scheduledFlush() {
+        if (!enabled) return;
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!enabled) return;
+        synchronized (appendQueue) {
+            accepting = false;
+        }
+        // The writer drains what is already queued before exiting
+        writer.join();
+        flush();
+        synchronized (this) {
+            closeChannel();
+        }
+    }
+
+    /**
+     * Writes every journaled answer to the database and deletes the flushed segments.
+     * Returns false if the write failed; the answers stay journaled and are retried.
+     */
+    public boolean flush() {
+        synchronized (flushLock) {
+            List<Entry> batch;
+            List<Path> segments;
+            synchronized (this) {
+                sealCurrent();
+                if (sealedEntries.isEmpty() && sealedSegments.isEmpty()) return true;
+                batch = new ArrayList<>(sealedEntries);
+                segments = new ArrayList<>(sealedSegments);
+            }
+
+            try {
+                List<QuizAnswer> answers = batch.stream().map(Entry::toAnswer).collect(Collectors.toList());
+                Set<Long> attemptIds = batch.stream().map(Entry::attemptId).collect(Collectors.toSet());
+                Map<QuizAnswer, Long> userByAnswer = new IdentityHashMap<>();
+                for (int i = 0; i < batch.size(); i++) {
+                    userByAnswer.put(answers.get(i), batch.get(i).userId());
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<QuizAnswer> inserted = quizAnswerBatchWriter.insertAllIgnoringConflicts(answers, batchSize);
+                    quizAnswerBatchWriter.recountCorrect(attemptIds);
+                    if (inserted.size() < answers.size()) {
+                        log.info("Dropped {} journaled answers already stored or whose attempt is finished or gone",
+                                answers.size() - inserted.size());
+                    }
+
+                    // Derived stats only for rows actually inserted, so replaying a segment does not double count
+                    Map<Long, List<QuizAnswer>> insertedByUser = new LinkedHashMap<>();
+                    for (QuizAnswer answer : inserted) {
+                        Long userId = userByAnswer.get(answer);
+                        if (userId != null) {
+                            insertedByUser.computeIfAbsent(userId, id -> new ArrayList<>()).add(answer);
+                        }
+                    }
+                    insertedByUser.forEach(answerStatsRecorder::recordAnswers);
+                });
+            } catch (RuntimeException e) {
+                log.error("Failed to flush {} journaled answers, will retry", batch.size(), e);
+                return false;
+            }
+
+            synchronized (this) {
+                // Entries sealed while writing were appended after the batch
+                sealedEntries.subList(0, batch.size()).clear();
+                sealedSegments.removeAll(segments);
+                for (Entry entry : batch) {
+                    unflushedByAttempt.computeIfPresent(entry.attemptId(), (id, n) -> n > 1 ? n - 1 : null);
+                    unflushedByUser.computeIfPresent(entry.userId(), (id, n) -> n > 1 ? n - 1 : null);
+                }
+            }
+            for (Path segment : segments) {
+                try {
+                    Files.deleteIfExists(segment);
+                } catch (IOException e) {
+                    // Replaying it later is harmless, the insert skips existing answers
+                    log.warn("Could not delete flushed journal segment {}", segment, e);
+                }
+            }
+            return true;
+        }
+    }
+
+    private void countUnflushed(Entry entry) {
+        unflushedByAttempt.merge(entry.attemptId(), 1, Integer::sum);
+        unflushedByUser.merge(entry.userId(), 1, Integer::sum);
+    }
+
+    private void openSegment() throws IOException {
+        currentSegment = directory.resolve(String.format("%s%013d-%06d%s",
+                SEGMENT_PREFIX, System.currentTimeMillis(), segmentSequence++ % 1_000_000, SEGMENT_SUFFIX));
+        channel = FileChannel.open(currentSegment,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void sealCurrent() {
+        closeChannel();
+        if (currentSegment != null) {
+            sealedSegments.add(currentSegment);
+            currentSegment = null;
+        }
+        sealedEntries.addAll(pending);
+        pending.clear();
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close journal segment {}", currentSegment, e);
+        }
+        channel = null;
+    }
+
+    private List<Entry> readSegment(Path segment) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (String line : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) continue;
+            try {
+                entries.add(objectMapper.readValue(line, Entry.class));
+            } catch (JsonProcessingException e) {
+                // A crash mid-append leaves a truncated last line that was never acknowledged
+                log.warn("Skipping unreadable entry in journal segment {}", segment);
+            }
+        }
+        return entries;
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private record Append(byte[] bytes, List<Entry> entries, CompletableFuture<Void> done) {
+    }
+
+    record Entry(Long userId, Long attemptId, Long questionId, Map<String, Object> answer, boolean correct,
+                 LocalDateTime answeredAt) {
+
+        static Entry of(Long userId, QuizAnswer answer) {
+            return new Entry(userId, answer.getAttempt().getId(), answer.getQuestion().getId(),
+                    answer.getUserAnswerJson(), Boolean.TRUE.equals(answer.getIsCorrect()), answer.getAnsweredAt());
+        }
+
+        QuizAnswer toAnswer() {
+            return QuizAnswer.builder()
+                    .attempt(QuizAttempt.builder().id(attemptId).build())
+                    .userId(userId)
+                    .question(Question.builder().id(questionId).build())
+                    .userAnswerJson(answer)
+                    .isCorrect(correct)
+                    .answeredAt(answeredAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.model.QuizAnswer;
+import com.rumoaopratico.repository.UserQuestionStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Updates the per-user state derived from answers (question stats and review cards) for
+ * answers that were just stored. Must run inside the transaction that stores them, and
+ * only once per stored answer.
+ */
+@Service
+@RequiredArgsConstructor
+public class AnswerStatsRecorder {
+
+    private final UserQuestionStatsRepository userQuestionStatsRepository;
+    private final ReviewCardService reviewCardService;
+
+    public void recordAnswers(Long userId, List<QuizAnswer> answers) {
+        if (answers.isEmpty()) return;
+
+        Map<Long, int[]> countsByQuestion = new LinkedHashMap<>();
+        Map<Long, LocalDateTime> lastAnsweredAt = new LinkedHashMap<>();
+        for (QuizAnswer answer : answers) {
+            Long questionId = answer.getQuestion().getId();
+            int[] counts = countsByQuestion.computeIfAbsent(questionId, id -> new int[2]);
+            counts[0]++;
+            if (Boolean.TRUE.equals(answer.getIsCorrect())) counts[1]++;
+            LocalDateTime answeredAt = answer.getAnsweredAt() != null ? answer.getAnsweredAt() : LocalDateTime.now();
+            lastAnsweredAt.merge(questionId, answeredAt, (a, b) -> a.isAfter(b) ? a : b);
+        }
+        countsByQuestion.forEach((questionId, counts) -> userQuestionStatsRepository.upsert(
+                userId, questionId, counts[0], counts[1], lastAnsweredAt.get(questionId)));
+
+        reviewCardService.recordAnswers(userId, answers);
+    }
+
+    public void deleteForUser(Long userId) {
+        userQuestionStatsRepository.deleteByUserId(userId);
+        reviewCardService.deleteForUser(userId);
+    }
+}
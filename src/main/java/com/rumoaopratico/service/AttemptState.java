@@ -0,0 +1,158 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.dto.response.QuestionOptionResponse;
+import com.rumoaopratico.dto.response.QuestionResponse;
+import com.rumoaopratico.dto.response.QuizAnswerDeltaResponse;
+import com.rumoaopratico.dto.response.QuizAttemptResponse;
+import com.rumoaopratico.model.QuizAnswer;
+import com.rumoaopratico.model.QuizAttempt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory view of an in-progress attempt: the ordered snapshot questions, the answers
+ * recorded so far and the running correct count. Not thread-safe; callers synchronize on
+ * the instance while reading or mutating it.
+ */
+class AttemptState {
+
+    private final QuizAttempt attempt;
+    private final Long userId;
+    private final List<QuestionResponse> questions;
+    private final Map<Long, Integer> positions = new HashMap<>();
+    private final Map<Long, QuizAnswer> answers = new LinkedHashMap<>();
+    private int correctCount;
+    private int currentIndex;
+    private long version;
+
+    AttemptState(QuizAttempt attempt, Long userId, List<QuestionResponse> questions, List<QuizAnswer> answers) {
+        this.attempt = attempt;
+        this.userId = userId;
+        this.questions = questions;
+        for (int i = 0; i < questions.size(); i++) {
+            positions.put(questions.get(i).getId(), i);
+        }
+        for (QuizAnswer answer : answers) {
+            this.answers.put(answer.getQuestion().getId(), answer);
+            if (Boolean.TRUE.equals(answer.getIsCorrect())) correctCount++;
+        }
+        this.version = answers.size();
+        advance();
+    }
+
+    Long getUserId() {
+        return userId;
+    }
+
+    QuizAttempt getAttempt() {
+        return attempt;
+    }
+
+    boolean isFinished() {
+        return attempt.getFinishedAt() != null;
+    }
+
+    /**
+     * The first unanswered question in attempt order, or null when all are answered.
+     */
+    QuestionResponse currentQuestion() {
+        return currentIndex < questions.size() ? questions.get(currentIndex) : null;
+    }
+
+    int getCurrentIndex() {
+        return currentIndex;
+    }
+
+    int getCorrectCount() {
+        return correctCount;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    int getTotalQuestions() {
+        return questions.size();
+    }
+
+    QuestionResponse questionAt(int index) {
+        return questions.get(index);
+    }
+
+    /**
+     * Position of the first question after {@code index} that is neither answered nor in
+     * {@code pending}, or the question count when there is none.
+     */
+    int nextUnansweredAfter(int index, Set<Long> pending) {
+        int next = index + 1;
+        while (next < questions.size()) {
+            Long id = questions.get(next).getId();
+            if (!answers.containsKey(id) && !pending.contains(id)) break;
+            next++;
+        }
+        return next;
+    }
+
+    Integer positionOf(Long questionId) {
+        return positions.get(questionId);
+    }
+
+    boolean isAnswered(Long questionId) {
+        return answers.containsKey(questionId);
+    }
+
+    void recordAnswer(QuizAnswer answer) {
+        answers.put(answer.getQuestion().getId(), answer);
+        if (Boolean.TRUE.equals(answer.getIsCorrect())) {
+            correctCount++;
+            attempt.setCorrectCount(correctCount);
+        }
+        version++;
+        advance();
+    }
+
+    QuizAnswerDeltaResponse toDeltaResponse(QuizAnswer answer) {
+        Long questionId = answer.getQuestion().getId();
+        Integer position = positions.get(questionId);
+        QuestionResponse question = position != null ? questions.get(position) : null;
+        List<Long> correctOptionIds = question != null && question.getOptions() != null
+                ? question.getOptions().stream()
+                    .filter(opt -> Boolean.TRUE.equals(opt.getIsCorrect()))
+                    .map(QuestionOptionResponse::getId)
+                    .collect(Collectors.toList())
+                : List.of();
+
+        return QuizAnswerDeltaResponse.builder()
+                .attemptId(attempt.getId())
+                .questionId(questionId)
+                .index(position)
+                .userAnswer(QuizAttemptResponse.userAnswerOf(answer))
+                .correct(answer.getIsCorrect())
+                .correctOptionIds(correctOptionIds)
+                .correctCount(correctCount)
+                .currentQuestionIndex(currentIndex)
+                .totalQuestions(questions.size())
+                .status(isFinished() ? "COMPLETED" : "IN_PROGRESS")
+                .version(version)
+                .build();
+    }
+
+    QuizAttemptResponse toResponse() {
+        QuizAttemptResponse response = QuizAttemptResponse.fromWithQuestions(attempt, questions, new ArrayList<>(answers.values()));
+        // The stored count lags behind answers still in the answer journal
+        response.setCorrectCount(correctCount);
+        return response;
+    }
+
+    private void advance() {
+        while (currentIndex < questions.size() && answers.containsKey(questions.get(currentIndex).getId())) {
+            currentIndex++;
+        }
+    }
+}
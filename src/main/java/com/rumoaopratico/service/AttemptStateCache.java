@@ -0,0 +1,55 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.util.LruCache;
+import com.rumoaopratico.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded cache of in-progress attempts so that answer submission does not reload the
+ * questions and answers of the whole quiz on every click. Entries are dropped when the
+ * attempt is finished or abandoned, and rebuilt from the database on a miss.
+ */
+@Component
+public class AttemptStateCache {
+
+    @Value("${quiz.attempt-cache.max-entries:5000}")
+    private int maxEntries;
+
+    @Value("${quiz.attempt-cache.ttl-minutes:120}")
+    private long ttlMinutes;
+
+    private LruCache<Long, AttemptState> states;
+
+    @PostConstruct
+    public void init() {
+        this.states = new LruCache<>(maxEntries, Duration.ofMinutes(ttlMinutes));
+    }
+
+    AttemptState get(Long attemptId) {
+        return states.get(attemptId);
+    }
+
+    void put(Long attemptId, AttemptState state) {
+        states.put(attemptId, state);
+    }
+
+    public void invalidate(Long attemptId) {
+        TransactionUtils.afterCompletion(() -> states.invalidate(attemptId));
+    }
+
+    public void invalidateUser(Long userId) {
+        TransactionUtils.afterCompletion(() -> states.invalidateIf(state -> state.getUserId().equals(userId)));
+    }
+
+    /**
+     * Drops the entry if the current transaction rolls back, since the state was already
+     * updated optimistically.
+     */
+    void invalidateOnRollback(Long attemptId) {
+        TransactionUtils.afterRollback(() -> states.invalidate(attemptId));
+    }
+}
@@ -0,0 +1,115 @@
+package com.rumoaopratico.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rumoaopratico.util.LruCache;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized JSON bodies of catalog responses that are the same for every user (topic lists,
+ * question details). Entries are keyed by resource and {@link CatalogVersion}, hold the UTF-8
+ * bytes plus a gzip copy for larger bodies, and are written to the response as-is.
+ * The TTL bounds how long edits made on other application nodes stay invisible.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final CatalogVersion catalogVersion;
+
+    @Value("${quiz.catalog-cache.max-entries:2000}")
+    private int maxEntries;
+
+    @Value("${quiz.catalog-cache.ttl-minutes:10}")
+    private long ttlMinutes;
+
+    @Value("${quiz.catalog-cache.gzip-min-bytes:1024}")
+    private int gzipMinBytes;
+
+    private LruCache<String, Body> bodies;
+
+    @PostConstruct
+    public void init() {
+        this.bodies = new LruCache<>(maxEntries, Duration.ofMinutes(ttlMinutes));
+    }
+
+    /**
+     * Returns the cached body of {@code resource}, serializing the loader's value on a miss.
+     * The version is read before loading, so a body built from data older than a concurrent
+     * change is stored under a key that the change has already retired.
+     */
+    public Body get(String resource, Supplier<?> loader) {
+        String key = resource + "@" + catalogVersion.current();
+        return bodies.computeIfAbsent(key, k -> serialize(loader.get()));
+    }
+
+    private Body serialize(Object value) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize catalog response", e);
+        }
+        byte[] gzip = json.length >= gzipMinBytes ? gzip(json) : null;
+        return new Body(json, gzip, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4);
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not compress catalog response", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public record Body(byte[] json, byte[] gzip, String etag) {
+
+        /**
+         * 304 when the client already holds this body, otherwise the bytes, compressed
+         * when the client accepts gzip and a compressed copy exists.
+         */
+        public ResponseEntity<byte[]> toResponse(String ifNoneMatch, String acceptEncoding) {
+            if (matches(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .eTag(etag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (gzip != null && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip);
+            }
+            return builder.body(json);
+        }
+
+        // If-None-Match may list several validators and uses the weak comparison, so the W/ form
+        // a proxy sends after re-encoding the body still matches
+        private boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+            String tag = etag.substring(1, etag.length() - 1);
+            for (ETag candidate : ETag.parse(ifNoneMatch)) {
+                if (candidate.isWildcard() || candidate.tag().equals(tag)) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.util.TransactionUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-local counter of catalog (topic and question) changes. Caches key their entries by
+ * it, so bumping it retires every entry built from the previous catalog at once.
+ */
+@Component
+public class CatalogVersion {
+
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Moves to a new version once the surrounding transaction commits.
+     */
+    public void bump() {
+        TransactionUtils.afterCommit(version::incrementAndGet);
+    }
+}
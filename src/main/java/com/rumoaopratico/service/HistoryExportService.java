@@ -0,0 +1,195 @@
+package com.rumoaopratico.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rumoaopratico.exception.BadRequestException;
+import com.rumoaopratico.model.enums.ExportFormat;
+import com.rumoaopratico.repository.HistoryExportReader;
+import com.rumoaopratico.repository.HistoryExportReader.Row;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a user's full quiz history (attempts, answers, questions and results) as NDJSON or
+ * CSV, one line per answer, straight from a database cursor to the response. Lines are ordered
+ * by attempt id, so an interrupted download resumes from the last attempt id received.
+ */
+@Service
+@RequiredArgsConstructor
+public class HistoryExportService {
+
+    private static final String[] COLUMNS = {
+            "attemptId", "mode", "startedAt", "finishedAt", "totalQuestions", "correctCount", "score",
+            "answerId", "questionId", "topicId", "topicName", "questionType", "difficulty", "statement",
+            "userAnswer", "isCorrect", "answeredAt"
+    };
+    private static final int USER_ANSWER_COLUMN = 14;
+
+    private final HistoryExportReader historyExportReader;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${quiz.history-export.fetch-size:500}")
+    private int fetchSize;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Builds the download response. The body runs after the controller returns, on the async
+     * request thread, inside its own read-only transaction so the cursor is fetched in chunks.
+     */
+    public ResponseEntity<StreamingResponseBody> download(Long userId, String format, Long fromAttemptId,
+                                                          boolean gzip) {
+        ExportFormat exportFormat = parseFormat(format);
+        long from = fromAttemptId != null ? fromAttemptId : 0L;
+
+        StreamingResponseBody body = out -> {
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> write(userId, exportFormat, from, gzip, out));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+
+        String filename = "history-" + userId + "." + exportFormat.extension() + (gzip ? ".gz" : "");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, gzip ? "application/gzip" : exportFormat.contentType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    void write(Long userId, ExportFormat format, long fromAttemptId, boolean gzip, OutputStream out) {
+        try {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 8192);
+            RowWriter rowWriter = format == ExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+            historyExportReader.stream(userId, fromAttemptId, fetchSize, row -> {
+                try {
+                    rowWriter.write(row);
+                } catch (IOException e) {
+                    // Typically the client went away; aborts the cursor
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            writer.flush();
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ExportFormat parseFormat(String format) {
+        try {
+            return ExportFormat.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported export format: " + format + " (expected ndjson or csv)");
+        }
+    }
+
+    private static double score(Row row) {
+        if (row.totalQuestions() == null || row.totalQuestions() == 0) return 0.0;
+        int correct = row.correctCount() != null ? row.correctCount() : 0;
+        return Math.round((double) correct / row.totalQuestions() * 10000.0) / 100.0;
+    }
+
+    private static Object[] values(Row row) {
+        return new Object[]{
+                row.attemptId(), row.mode(), row.startedAt(), row.finishedAt(), row.totalQuestions(),
+                row.correctCount(), score(row), row.answerId(), row.questionId(), row.topicId(), row.topicName(),
+                row.questionType(), row.difficulty(), row.statement(), row.userAnswerJson(), row.isCorrect(),
+                row.answeredAt()
+        };
+    }
+
+    private interface RowWriter {
+        void write(Row row) throws IOException;
+    }
+
+    private final class NdjsonRowWriter implements RowWriter {
+        private final Writer writer;
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            this.generator = objectMapper.getFactory().createGenerator(writer)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(Row row) throws IOException {
+            Object[] values = values(row);
+            generator.writeStartObject();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                generator.writeFieldName(COLUMNS[i]);
+                Object value = values[i];
+                if (value == null) {
+                    generator.writeNull();
+                } else if (i == USER_ANSWER_COLUMN) {
+                    // Stored as jsonb, so already valid JSON
+                    generator.writeRawValue((String) value);
+                } else if (value instanceof Number || value instanceof Boolean) {
+                    generator.writeObject(value);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.flush();
+            writer.write('\n');
+        }
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer) throws IOException {
+            this.writer = writer;
+            writeLine(COLUMNS);
+        }
+
+        @Override
+        public void write(Row row) throws IOException {
+            writeLine(values(row));
+        }
+
+        private void writeLine(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) writer.write(',');
+                if (values[i] != null) writer.write(escape(values[i].toString()));
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -1,14 +1,16 @@
 package com.rumoaopratico.service;
 
+import com.rumoaopratico.dto.response.CursorSliceResponse;
 import com.rumoaopratico.dto.response.HistoryEntryResponse;
 import com.rumoaopratico.dto.response.QuizResultResponse;
 import com.rumoaopratico.model.QuizAttempt;
-import com.rumoaopratico.model.Topic;
 import com.rumoaopratico.repository.QuizAttemptRepository;
-import com.rumoaopratico.repository.TopicRepository;
+import com.rumoaopratico.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,49 +24,64 @@ public class HistoryService {
 
     private final QuizAttemptRepository quizAttemptRepository;
     private final QuizService quizService;
-    private final TopicRepository topicRepository;
 
     @Transactional(readOnly = true)
     public Page<HistoryEntryResponse> getHistory(Long userId, LocalDateTime startDate,
-                                                  LocalDateTime endDate, Pageable pageable) {
-        Page<QuizAttempt> attempts = quizAttemptRepository.findByUserIdFiltered(userId, startDate, endDate, pageable);
+                                                  LocalDateTime endDate, Long topicId, Pageable pageable) {
+        Page<QuizAttempt> attempts = quizAttemptRepository.findByUserIdFiltered(
+                userId, startDate, endDate, topicId, pageable);
 
-        // Collect all topic IDs from all attempts' configJson
-        Set<Long> allTopicIds = new HashSet<>();
-        for (QuizAttempt attempt : attempts.getContent()) {
-            allTopicIds.addAll(extractTopicIds(attempt));
+        Map<Long, List<String>> topicNames = loadTopicNames(attempts.getContent());
+        return attempts.map(attempt -> toEntry(attempt, topicNames));
+    }
+
+    /**
+     * Keyset-paginated history, newest first. Skips the count query of {@link #getHistory}
+     * and keeps a constant cost per page however deep the client scrolls.
+     */
+    @Transactional(readOnly = true)
+    public CursorSliceResponse<HistoryEntryResponse> scrollHistory(Long userId, LocalDateTime startDate,
+                                                                   LocalDateTime endDate, Long topicId,
+                                                                   String cursor, int size) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        Slice<QuizAttempt> attempts = quizAttemptRepository.scrollByUserIdFiltered(
+                userId, position.timestamp(), position.id(), startDate, endDate, topicId, PageRequest.of(0, size));
+
+        Map<Long, List<String>> topicNames = loadTopicNames(attempts.getContent());
+        List<HistoryEntryResponse> content = attempts.getContent().stream()
+                .map(attempt -> toEntry(attempt, topicNames))
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (attempts.hasNext()) {
+            QuizAttempt last = attempts.getContent().get(attempts.getNumberOfElements() - 1);
+            nextCursor = new KeysetCursor(last.getStartedAt(), last.getId()).encode();
         }
+        return CursorSliceResponse.<HistoryEntryResponse>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(attempts.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
 
-        // Batch-load topic names
-        Map<Long, String> topicNameMap = allTopicIds.isEmpty()
-                ? Collections.emptyMap()
-                : topicRepository.findAllById(allTopicIds).stream()
-                    .collect(Collectors.toMap(Topic::getId, Topic::getName));
+    // Topic names of every attempt on the page, in one join over quiz_attempt_topics
+    private Map<Long, List<String>> loadTopicNames(List<QuizAttempt> attempts) {
+        if (attempts.isEmpty()) return Collections.emptyMap();
+        List<Long> attemptIds = attempts.stream().map(QuizAttempt::getId).collect(Collectors.toList());
+        Map<Long, List<String>> names = new HashMap<>();
+        for (Object[] row : quizAttemptRepository.findTopicNamesByAttemptIdIn(attemptIds)) {
+            names.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        return names;
+    }
 
-        return attempts.map(attempt -> {
-            List<String> topicNames = extractTopicIds(attempt).stream()
-                    .map(topicNameMap::get)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
-            return HistoryEntryResponse.from(attempt, topicNames);
-        });
+    private HistoryEntryResponse toEntry(QuizAttempt attempt, Map<Long, List<String>> topicNames) {
+        return HistoryEntryResponse.from(attempt, topicNames.getOrDefault(attempt.getId(), List.of()));
     }
 
-    @Transactional(readOnly = true)
+    // Not transactional: getResult may flush the answer journal before opening its own
     public QuizResultResponse getHistoryDetail(Long userId, Long attemptId) {
         return quizService.getResult(userId, attemptId);
     }
-
-    @SuppressWarnings("unchecked")
-    private List<Long> extractTopicIds(QuizAttempt attempt) {
-        if (attempt.getConfigJson() != null && attempt.getConfigJson().containsKey("topicIds")) {
-            Object raw = attempt.getConfigJson().get("topicIds");
-            if (raw instanceof List) {
-                return ((List<Number>) raw).stream()
-                        .map(Number::longValue)
-                        .collect(Collectors.toList());
-            }
-        }
-        return List.of();
-    }
 }
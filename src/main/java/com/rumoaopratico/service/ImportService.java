@@ -33,6 +33,9 @@ public class ImportService {
     private final QuestionRepository questionRepository;
     private final TopicRepository topicRepository;
     private final UserRepository userRepository;
+    private final QuestionPoolIndex questionPoolIndex;
+    private final QuestionResponseCache questionResponseCache;
+    private final CatalogVersion catalogVersion;
 
     private static final Pattern OPTION_LETTER_PATTERN = Pattern.compile("^([a-e])\\)\\s*(.+)$", Pattern.CASE_INSENSITIVE);
     private static final Pattern CORRECT_LETTER_PATTERN = Pattern.compile("^([a-e])\\)", Pattern.CASE_INSENSITIVE);
@@ -60,7 +63,9 @@ public class ImportService {
             ImportQuestionItem item = request.getResults().get(i);
             try {
                 Question question = parseAndCreateQuestion(user, topic, item);
-                questionRepository.save(question);
+                Question saved = questionRepository.save(question);
+                questionPoolIndex.onQuestionSaved(saved);
+                questionResponseCache.onQuestionSaved(saved);
                 imported++;
             } catch (Exception e) {
                 String errorMsg = String.format("Error importing question %d: %s", i + 1, e.getMessage());
@@ -69,6 +74,8 @@ public class ImportService {
             }
         }
 
+        catalogVersion.bump();
+
         log.info("Import complete for topic '{}': {}/{} imported, {} errors",
                 topicName, imported, request.getResults().size(), errors.size());
 
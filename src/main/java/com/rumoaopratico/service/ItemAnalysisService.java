@@ -0,0 +1,220 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.dto.response.QuestionItemStatsResponse;
+import com.rumoaopratico.model.ItemAnalysisState;
+import com.rumoaopratico.model.Question;
+import com.rumoaopratico.model.QuestionItemStats;
+import com.rumoaopratico.model.enums.Difficulty;
+import com.rumoaopratico.repository.*;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Background item analysis: p-value and discrimination index per question, accumulated from
+ * finished attempts in (finishedAt, id) order past a stored high-water mark. Each chunk is a
+ * short transaction that only writes question_item_stats and the mark, so answer traffic is
+ * never blocked; the mark row lock keeps nodes from processing the same chunk twice. Attempts
+ * finished within the settle window are left for the next run, so an attempt whose finish
+ * commits late cannot fall behind the mark.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItemAnalysisService {
+
+    private final ItemAnalysisStateRepository itemAnalysisStateRepository;
+    private final QuestionItemStatsRepository questionItemStatsRepository;
+    private final QuizAttemptRepository quizAttemptRepository;
+    private final QuizAnswerRepository quizAnswerRepository;
+    private final QuestionRepository questionRepository;
+    private final QuestionPoolIndex questionPoolIndex;
+    private final QuestionResponseCache questionResponseCache;
+    private final CatalogVersion catalogVersion;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${quiz.item-analysis.enabled:true}")
+    private boolean enabled;
+
+    @Value("${quiz.item-analysis.batch-size:500}")
+    private int batchSize;
+
+    @Value("${quiz.item-analysis.settle-seconds:300}")
+    private long settleSeconds;
+
+    @Value("${quiz.item-analysis.auto-difficulty.enabled:false}")
+    private boolean autoDifficulty;
+
+    @Value("${quiz.item-analysis.auto-difficulty.min-responses:30}")
+    private long minResponses;
+
+    @Value("${quiz.item-analysis.auto-difficulty.easy-above:0.75}")
+    private double easyAbove;
+
+    @Value("${quiz.item-analysis.auto-difficulty.hard-below:0.4}")
+    private double hardBelow;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Scheduled(fixedDelayString = "${quiz.item-analysis.interval-ms:600000}",
+               initialDelayString = "${quiz.item-analysis.interval-ms:600000}")
+    public void scheduledRun() {
+        if (!enabled) return;
+        run();
+    }
+
+    /**
+     * Processes every settled attempt past the mark, then recalibrates difficulties if enabled.
+     * Returns the number of attempts processed.
+     */
+    public int run() {
+        int processed = 0;
+        int chunk;
+        do {
+            chunk = Objects.requireNonNull(transactionTemplate.execute(status -> processChunk()));
+            processed += chunk;
+        } while (chunk == batchSize);
+        if (processed > 0) {
+            log.info("Item analysis processed {} attempts", processed);
+        }
+        if (autoDifficulty) {
+            calibrateDifficulties();
+        }
+        return processed;
+    }
+
+    @Transactional(readOnly = true)
+    public Page<QuestionItemStatsResponse> getItemStats(Long topicId, long minResponses, Pageable pageable) {
+        return questionItemStatsRepository.findWithQuestion(topicId, minResponses, pageable).map(row -> {
+            QuestionItemStats stats = (QuestionItemStats) row[0];
+            return QuestionItemStatsResponse.builder()
+                    .questionId(stats.getQuestionId())
+                    .statement((String) row[1])
+                    .topicId((Long) row[2])
+                    .difficulty((Difficulty) row[3])
+                    .responses(stats.getResponses())
+                    .correctRate(stats.pValue())
+                    .discrimination(stats.discrimination())
+                    .suggestedDifficulty(stats.pValue() != null ? difficultyFor(stats.pValue()) : null)
+                    .build();
+        });
+    }
+
+    private int processChunk() {
+        ItemAnalysisState state = itemAnalysisStateRepository.findByIdForUpdate(ItemAnalysisState.ID)
+                .orElseThrow(() -> new IllegalStateException("item_analysis_state row is missing"));
+        List<Object[]> attempts = quizAttemptRepository.findFinishedAfter(
+                state.getLastFinishedAt(), state.getLastAttemptId(),
+                LocalDateTime.now().minusSeconds(settleSeconds), PageRequest.of(0, batchSize));
+        if (attempts.isEmpty()) return 0;
+
+        List<Long> attemptIds = attempts.stream().map(row -> (Long) row[0]).toList();
+        Map<Long, List<long[]>> outcomesByAttempt = new HashMap<>();
+        for (Object[] row : quizAnswerRepository.findOutcomesByAttemptIdIn(attemptIds)) {
+            outcomesByAttempt.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                    .add(new long[]{(Long) row[1], Boolean.TRUE.equals(row[2]) ? 1 : 0});
+        }
+
+        Map<Long, Sums> sumsByQuestion = new HashMap<>();
+        for (List<long[]> outcomes : outcomesByAttempt.values()) {
+            int answered = outcomes.size();
+            int correct = 0;
+            for (long[] outcome : outcomes) {
+                correct += (int) outcome[1];
+            }
+            for (long[] outcome : outcomes) {
+                Sums sums = sumsByQuestion.computeIfAbsent(outcome[0], id -> new Sums());
+                int itemCorrect = (int) outcome[1];
+                sums.responses++;
+                sums.correct += itemCorrect;
+                if (answered > 1) {
+                    double rest = (double) (correct - itemCorrect) / (answered - 1);
+                    sums.pairedResponses++;
+                    sums.pairedCorrect += itemCorrect;
+                    sums.sumRest += rest;
+                    sums.sumRestSq += rest * rest;
+                    sums.sumCorrectRest += itemCorrect * rest;
+                }
+            }
+        }
+        sumsByQuestion.forEach((questionId, sums) -> questionItemStatsRepository.add(questionId,
+                sums.responses, sums.correct, sums.pairedResponses, sums.pairedCorrect,
+                sums.sumRest, sums.sumRestSq, sums.sumCorrectRest));
+
+        Object[] last = attempts.get(attempts.size() - 1);
+        state.setLastAttemptId((Long) last[0]);
+        state.setLastFinishedAt((LocalDateTime) last[1]);
+        return attempts.size();
+    }
+
+    private void calibrateDifficulties() {
+        Map<Long, Difficulty> changes = new LinkedHashMap<>();
+        for (Object[] row : questionItemStatsRepository.findCalibrationCandidates(minResponses)) {
+            Difficulty target = difficultyFor((double) ((Long) row[2]) / (Long) row[1]);
+            if (target != row[3]) {
+                changes.put((Long) row[0], target);
+            }
+        }
+        if (changes.isEmpty()) return;
+
+        // Same path as an edit, so the pool index, response cache and catalog pick up the change
+        List<Long> ids = new ArrayList<>(changes.keySet());
+        for (int from = 0; from < ids.size(); from += 100) {
+            List<Long> chunk = ids.subList(from, Math.min(from + 100, ids.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (Long questionId : chunk) {
+                        questionRepository.findByIdForUpdate(questionId)
+                                .filter(q -> Boolean.TRUE.equals(q.getIsActive()))
+                                .ifPresent(question -> {
+                                    question.setDifficulty(changes.get(questionId));
+                                    Question saved = questionRepository.save(question);
+                                    questionPoolIndex.onQuestionSaved(saved);
+                                    questionResponseCache.onQuestionSaved(saved);
+                                });
+                    }
+                    catalogVersion.bump();
+                });
+            } catch (RuntimeException e) {
+                // Typically a concurrent edit; the next run retries these questions
+                log.warn("Difficulty recalibration of {} questions failed", chunk.size(), e);
+            }
+        }
+        log.info("Item analysis recalibrated the difficulty of {} questions", changes.size());
+    }
+
+    private Difficulty difficultyFor(double pValue) {
+        if (pValue >= easyAbove) return Difficulty.EASY;
+        if (pValue < hardBelow) return Difficulty.HARD;
+        return Difficulty.MEDIUM;
+    }
+
+    private static final class Sums {
+        long responses;
+        long correct;
+        long pairedResponses;
+        long pairedCorrect;
+        double sumRest;
+        double sumRestSq;
+        double sumCorrectRest;
+    }
+}
@@ -0,0 +1,283 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.model.UserStats;
+import com.rumoaopratico.model.UserTopicStats;
+import com.rumoaopratico.model.enums.QuizMode;
+import com.rumoaopratico.repository.UserStatsRepository;
+import com.rumoaopratico.repository.UserTopicStatsRepository;
+import com.rumoaopratico.util.RankedScores;
+import com.rumoaopratico.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process leaderboards ranking users by correct answers: overall, per quiz mode and per
+ * topic. Scores are derived from user_stats and user_topic_stats, so nothing is persisted
+ * here: boards are rebuilt from those tables on startup and periodically (to converge with
+ * other nodes), and updated in place once an attempt's aggregates commit.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LeaderboardIndex {
+
+    private static final int MAX_REREAD_ROUNDS = 3;
+
+    private final UserStatsRepository userStatsRepository;
+    private final UserTopicStatsRepository userTopicStatsRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object rebuildLock = new Object();
+    private Map<BoardKey, RankedScores> boards = new HashMap<>();
+    // Users updated while a rebuild runs, re-read once the new boards are in. Guarded by lock
+    private Set<Long> touchedDuringRebuild;
+    private volatile boolean loaded;
+
+    public List<RankedScores.Entry> top(BoardKey key, int n) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            RankedScores board = boards.get(key);
+            return board != null ? board.top(n) : List.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The user's entry and rank on a board, or empty if the user has no score there.
+     */
+    public Optional<Ranked> find(BoardKey key, long userId) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            RankedScores board = boards.get(key);
+            if (board == null) return Optional.empty();
+            OptionalInt score = board.score(userId);
+            if (score.isEmpty()) return Optional.empty();
+            return Optional.of(new Ranked(board.rank(userId).getAsInt(), new RankedScores.Entry(userId, score.getAsInt())));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size(BoardKey key) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            RankedScores board = boards.get(key);
+            return board != null ? board.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a finished attempt's correct answers once the surrounding transaction commits.
+     */
+    public void recordFinished(Long userId, QuizMode mode, long correct, Map<Long, Long> correctByTopic) {
+        TransactionUtils.afterCommit(() -> write(userId, () -> {
+            add(boards, BoardKey.OVERALL, userId, correct);
+            add(boards, BoardKey.ofMode(mode), userId, correct);
+            correctByTopic.forEach((topicId, topicCorrect) ->
+                    add(boards, BoardKey.ofTopic(topicId), userId, topicCorrect));
+        }));
+    }
+
+    /**
+     * Replaces the user's scores with the aggregates visible to the current transaction,
+     * once it commits.
+     */
+    public void reloadUser(Long userId) {
+        List<UserStats> modeStats = userStatsRepository.findByUserIdOrderByMode(userId);
+        List<UserTopicStats> topicStats = userTopicStatsRepository.findByUserId(userId);
+        TransactionUtils.afterCommit(() -> write(userId, () -> replaceScores(boards, userId, modeStats, topicStats)));
+    }
+
+    public void removeUser(Long userId) {
+        TransactionUtils.afterCommit(() -> write(userId, () -> boards.values().forEach(board -> board.remove(userId))));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensureLoaded();
+    }
+
+    /**
+     * Periodic full rebuild so that attempts finished on other application nodes converge.
+     */
+    @Scheduled(fixedDelayString = "${quiz.leaderboard.refresh-interval-ms:300000}",
+               initialDelayString = "${quiz.leaderboard.refresh-interval-ms:300000}")
+    public void refresh() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds every board from the aggregate tables. An attempt that commits while the tables
+     * are being read may or may not be in what was read, so its increment can be neither
+     * replayed nor dropped: the users updated meanwhile are re-read once the new boards are in.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                touchedDuringRebuild = new HashSet<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            int reread = 0;
+            try {
+                Map<BoardKey, RankedScores> newBoards = readBoards();
+                Set<Long> stale = swap(newBoards);
+                // Users updated again while being re-read get another round; past the last one they
+                // are left to the next refresh
+                for (int round = 0; !stale.isEmpty() && round < MAX_REREAD_ROUNDS; round++) {
+                    reread += stale.size();
+                    stale = reread(stale);
+                }
+                log.info("Leaderboards rebuilt: {} users in {} boards ({} re-read)",
+                        size(newBoards, BoardKey.OVERALL), newBoards.size(), reread);
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    touchedDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    private Map<BoardKey, RankedScores> readBoards() {
+        Map<BoardKey, RankedScores> newBoards = new HashMap<>();
+        Map<Long, Long> overall = new HashMap<>();
+        for (Object[] row : userStatsRepository.findAllScores()) {
+            long userId = ((Number) row[0]).longValue();
+            long correct = ((Number) row[2]).longValue();
+            set(newBoards, BoardKey.ofMode((QuizMode) row[1]), userId, correct);
+            overall.merge(userId, correct, Long::sum);
+        }
+        overall.forEach((userId, correct) -> set(newBoards, BoardKey.OVERALL, userId, correct));
+        for (Object[] row : userTopicStatsRepository.findAllScores()) {
+            set(newBoards, BoardKey.ofTopic(((Number) row[1]).longValue()),
+                    ((Number) row[0]).longValue(), ((Number) row[2]).longValue());
+        }
+        return newBoards;
+    }
+
+    // Swaps the boards in and returns the users updated since the rebuild started
+    private Set<Long> swap(Map<BoardKey, RankedScores> newBoards) {
+        lock.writeLock().lock();
+        try {
+            boards = newBoards;
+            loaded = true;
+            return drainTouched();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Replaces the users' scores with their current aggregates and returns the users updated meanwhile
+    private Set<Long> reread(Set<Long> userIds) {
+        Map<Long, List<UserStats>> modeStats = new HashMap<>();
+        Map<Long, List<UserTopicStats>> topicStats = new HashMap<>();
+        for (Long userId : userIds) {
+            modeStats.put(userId, userStatsRepository.findByUserIdOrderByMode(userId));
+            topicStats.put(userId, userTopicStatsRepository.findByUserId(userId));
+        }
+
+        lock.writeLock().lock();
+        try {
+            userIds.forEach(userId -> replaceScores(boards, userId, modeStats.get(userId), topicStats.get(userId)));
+            return drainTouched();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Set<Long> drainTouched() {
+        Set<Long> touched = touchedDuringRebuild;
+        touchedDuringRebuild = new HashSet<>();
+        return touched;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (!loaded) {
+                rebuild();
+            }
+        }
+    }
+
+    private void write(Long userId, Runnable update) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringRebuild != null) {
+                touchedDuringRebuild.add(userId);
+            }
+            // Not loaded yet: the first rebuild reads the committed aggregates, or re-reads the user
+            if (!loaded) return;
+            update.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void replaceScores(Map<BoardKey, RankedScores> target, Long userId,
+                                      List<UserStats> modeStats, List<UserTopicStats> topicStats) {
+        target.values().forEach(board -> board.remove(userId));
+        long overall = 0;
+        for (UserStats stats : modeStats) {
+            overall += stats.getCorrect();
+            set(target, BoardKey.ofMode(stats.getMode()), userId, stats.getCorrect());
+        }
+        if (!modeStats.isEmpty()) {
+            set(target, BoardKey.OVERALL, userId, overall);
+        }
+        topicStats.forEach(stats -> set(target, BoardKey.ofTopic(stats.getTopicId()), userId, stats.getCorrect()));
+    }
+
+    private static void add(Map<BoardKey, RankedScores> target, BoardKey key, long userId, long delta) {
+        target.computeIfAbsent(key, k -> new RankedScores()).add(userId, clamp(delta));
+    }
+
+    private static void set(Map<BoardKey, RankedScores> target, BoardKey key, long userId, long score) {
+        target.computeIfAbsent(key, k -> new RankedScores()).set(userId, clamp(score));
+    }
+
+    private static int size(Map<BoardKey, RankedScores> target, BoardKey key) {
+        RankedScores board = target.get(key);
+        return board != null ? board.size() : 0;
+    }
+
+    private static int clamp(long value) {
+        return (int) Math.min(value, Integer.MAX_VALUE);
+    }
+
+    /**
+     * A board: overall when both fields are null, otherwise one quiz mode or one topic.
+     */
+    public record BoardKey(Long topicId, QuizMode mode) {
+        public static final BoardKey OVERALL = new BoardKey(null, null);
+
+        public static BoardKey ofMode(QuizMode mode) {
+            return new BoardKey(null, mode);
+        }
+
+        public static BoardKey ofTopic(Long topicId) {
+            return new BoardKey(topicId, null);
+        }
+    }
+
+    public record Ranked(int rank, RankedScores.Entry entry) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.dto.response.LeaderboardResponse;
+import com.rumoaopratico.exception.BadRequestException;
+import com.rumoaopratico.exception.ResourceNotFoundException;
+import com.rumoaopratico.model.User;
+import com.rumoaopratico.model.enums.QuizMode;
+import com.rumoaopratico.repository.TopicRepository;
+import com.rumoaopratico.repository.UserRepository;
+import com.rumoaopratico.service.LeaderboardIndex.BoardKey;
+import com.rumoaopratico.util.RankedScores;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class LeaderboardService {
+
+    private final LeaderboardIndex leaderboardIndex;
+    private final UserRepository userRepository;
+    private final TopicRepository topicRepository;
+
+    @Transactional(readOnly = true)
+    public LeaderboardResponse getLeaderboard(Long userId, Long topicId, QuizMode mode, int limit) {
+        if (topicId != null && mode != null) {
+            throw new BadRequestException("Leaderboards are per topic or per mode, not both");
+        }
+        if (topicId != null && !topicRepository.existsById(topicId)) {
+            throw new ResourceNotFoundException("Topic", topicId);
+        }
+        BoardKey key = topicId != null ? BoardKey.ofTopic(topicId)
+                : mode != null ? BoardKey.ofMode(mode)
+                : BoardKey.OVERALL;
+
+        List<RankedScores.Entry> top = leaderboardIndex.top(key, limit);
+        Optional<LeaderboardIndex.Ranked> me = leaderboardIndex.find(key, userId);
+
+        Set<Long> userIds = top.stream().map(RankedScores.Entry::userId).collect(Collectors.toSet());
+        userIds.add(userId);
+        Map<Long, String> names = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, User::getName));
+
+        // Entries are in rank order, so the rank only changes when the score drops
+        List<LeaderboardResponse.Entry> entries = new ArrayList<>(top.size());
+        int rank = 0;
+        for (int i = 0; i < top.size(); i++) {
+            RankedScores.Entry entry = top.get(i);
+            if (i == 0 || entry.score() < top.get(i - 1).score()) {
+                rank = i + 1;
+            }
+            entries.add(toEntry(rank, entry, names::get));
+        }
+
+        return LeaderboardResponse.builder()
+                .topicId(topicId)
+                .mode(mode)
+                .totalUsers(leaderboardIndex.size(key))
+                .top(entries)
+                .me(me.map(ranked -> toEntry(ranked.rank(), ranked.entry(), names::get)).orElse(null))
+                .build();
+    }
+
+    private static LeaderboardResponse.Entry toEntry(int rank, RankedScores.Entry entry, Function<Long, String> names) {
+        return LeaderboardResponse.Entry.builder()
+                .rank(rank)
+                .userId(entry.userId())
+                .name(names.apply(entry.userId()))
+                .score(entry.score())
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.repository.UserQuestionStatsRepository;
+import com.rumoaopratico.util.CompactBitmap;
+import com.rumoaopratico.util.LruCache;
+import com.rumoaopratico.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.LongPredicate;
+
+/**
+ * Per-user bitmaps of correctly answered ("mastered") question ids, used by quiz selection
+ * to push mastered questions behind the others without a per-quiz lookup in user_question_stats.
+ * Bitmaps are rebuilt lazily on a cache miss and updated in place as answers are submitted.
+ */
+@Component
+@RequiredArgsConstructor
+public class MasteryCache {
+
+    private final UserQuestionStatsRepository userQuestionStatsRepository;
+
+    @Value("${quiz.mastery-cache.max-users:10000}")
+    private int maxUsers;
+
+    @Value("${quiz.mastery-cache.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    private LruCache<Long, CompactBitmap> bitmaps;
+
+    @PostConstruct
+    public void init() {
+        this.bitmaps = new LruCache<>(maxUsers, Duration.ofMinutes(ttlMinutes));
+    }
+
+    /**
+     * Predicate telling whether the user has already answered a question correctly.
+     */
+    public LongPredicate masteredBy(Long userId) {
+        CompactBitmap bitmap = bitmaps.computeIfAbsent(userId, this::load);
+        return questionId -> {
+            synchronized (bitmap) {
+                return bitmap.contains(questionId);
+            }
+        };
+    }
+
+    public void recordCorrect(Long userId, Long questionId) {
+        TransactionUtils.afterCommit(() -> {
+            CompactBitmap bitmap = bitmaps.get(userId);
+            if (bitmap != null) {
+                synchronized (bitmap) {
+                    bitmap.add(questionId);
+                }
+            }
+        });
+    }
+
+    public void invalidate(Long userId) {
+        TransactionUtils.afterCommit(() -> bitmaps.invalidate(userId));
+    }
+
+    private CompactBitmap load(Long userId) {
+        return CompactBitmap.of(userQuestionStatsRepository.findCorrectlyAnsweredQuestionIds(userId));
+    }
+}
@@ -0,0 +1,113 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.dto.response.QuestionFacetsResponse;
+import com.rumoaopratico.model.enums.Difficulty;
+import com.rumoaopratico.model.enums.QuestionType;
+import com.rumoaopratico.repository.QuestionRepository;
+import com.rumoaopratico.repository.UserQuestionStatsRepository;
+import com.rumoaopratico.service.QuestionPoolIndex.BucketKey;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Facet counts for the question browser and quiz builder. Catalog counts come from the
+ * per-bucket sizes of the question pool index, or from one grouped query cached per
+ * {@link CatalogVersion} when the index is disabled. The per-user answer status is one
+ * grouped query over user_question_stats layered on the same buckets.
+ */
+@Service
+@RequiredArgsConstructor
+public class QuestionFacetService {
+
+    static final String UNSPECIFIED_DIFFICULTY = "UNSPECIFIED";
+
+    private final QuestionRepository questionRepository;
+    private final UserQuestionStatsRepository userQuestionStatsRepository;
+    private final QuestionPoolIndex questionPoolIndex;
+    private final CatalogVersion catalogVersion;
+
+    private volatile CachedBuckets cachedBuckets;
+
+    @Transactional(readOnly = true)
+    public QuestionFacetsResponse getFacets(Long userId, Collection<Long> topicIds, QuestionType type,
+                                            Difficulty difficulty) {
+        Map<BucketKey, Integer> sizes = bucketSizes();
+
+        long total = 0;
+        Map<Long, Long> byTopic = new TreeMap<>();
+        Map<QuestionType, Long> byType = new EnumMap<>(QuestionType.class);
+        Map<String, Long> byDifficulty = new TreeMap<>();
+        for (Map.Entry<BucketKey, Integer> entry : sizes.entrySet()) {
+            BucketKey key = entry.getKey();
+            long count = entry.getValue();
+            boolean topicMatches = topicIds == null || topicIds.isEmpty() || topicIds.contains(key.topicId());
+            boolean typeMatches = type == null || type == key.type();
+            boolean difficultyMatches = difficulty == null || difficulty == key.difficulty();
+
+            if (typeMatches && difficultyMatches) byTopic.merge(key.topicId(), count, Long::sum);
+            if (topicMatches && difficultyMatches) byType.merge(key.type(), count, Long::sum);
+            if (topicMatches && typeMatches) byDifficulty.merge(difficultyFacet(key.difficulty()), count, Long::sum);
+            if (topicMatches && typeMatches && difficultyMatches) total += count;
+        }
+
+        return QuestionFacetsResponse.builder()
+                .total(total)
+                .byTopic(byTopic)
+                .byType(byType)
+                .byDifficulty(byDifficulty)
+                .byAnswerStatus(userId != null ? answerStatusCounts(userId, total, topicIds, type, difficulty) : null)
+                .build();
+    }
+
+    // Difficulty is optional on questions
+    private static String difficultyFacet(Difficulty difficulty) {
+        return difficulty != null ? difficulty.name() : UNSPECIFIED_DIFFICULTY;
+    }
+
+    private Map<String, Long> answerStatusCounts(Long userId, long total, Collection<Long> topicIds,
+                                                 QuestionType type, Difficulty difficulty) {
+        long correct = 0;
+        long incorrect = 0;
+        for (Object[] row : userQuestionStatsRepository.countAnsweredByBucket(userId)) {
+            BucketKey key = new BucketKey(((Number) row[0]).longValue(), (QuestionType) row[1], (Difficulty) row[2]);
+            if (!key.matches(topicIds, type != null ? List.of(type) : null, difficulty)) continue;
+            long count = ((Number) row[4]).longValue();
+            if (Boolean.TRUE.equals(row[3])) {
+                correct += count;
+            } else {
+                incorrect += count;
+            }
+        }
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        // The index may briefly lag a concurrent edit, so never report a negative remainder
+        counts.put("UNANSWERED", Math.max(0, total - correct - incorrect));
+        counts.put("CORRECT", correct);
+        counts.put("INCORRECT", incorrect);
+        return counts;
+    }
+
+    private Map<BucketKey, Integer> bucketSizes() {
+        if (questionPoolIndex.isEnabled()) {
+            return questionPoolIndex.bucketSizes();
+        }
+        long version = catalogVersion.current();
+        CachedBuckets cached = cachedBuckets;
+        if (cached != null && cached.version() == version) {
+            return cached.sizes();
+        }
+        Map<BucketKey, Integer> sizes = new HashMap<>();
+        for (Object[] row : questionRepository.countActiveByBucket()) {
+            BucketKey key = new BucketKey(((Number) row[0]).longValue(), (QuestionType) row[1], (Difficulty) row[2]);
+            sizes.put(key, ((Number) row[3]).intValue());
+        }
+        cachedBuckets = new CachedBuckets(version, sizes);
+        return sizes;
+    }
+
+    private record CachedBuckets(long version, Map<BucketKey, Integer> sizes) {
+    }
+}
@@ -0,0 +1,314 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.model.Question;
+import com.rumoaopratico.model.enums.Difficulty;
+import com.rumoaopratico.model.enums.QuestionType;
+import com.rumoaopratico.repository.QuestionRepository;
+import com.rumoaopratico.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * In-process index of active question ids used to pick quiz questions without
+ * {@code ORDER BY RANDOM()}. Ids are kept in primitive arrays bucketed by
+ * (topic, type, difficulty); sampling walks a lazy Fisher-Yates permutation over the
+ * matching buckets, so drawing k ids costs O(k) regardless of the bank size.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QuestionPoolIndex {
+
+    // Candidates drawn per requested slot before the walk stops looking for preferred ids
+    private static final int MAX_DRAWS_PER_SLOT = 4;
+
+    private final QuestionRepository questionRepository;
+
+    @Value("${quiz.selection.index.enabled:true}")
+    private boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<BucketKey, LongBucket> buckets = new HashMap<>();
+    private Map<Long, BucketKey> keyById = new HashMap<>();
+    // Questions saved or removed while a rebuild reads the bank (null key: removed). Guarded by lock
+    private Map<Long, BucketKey> changedDuringRebuild;
+    private final Object rebuildLock = new Object();
+    private volatile boolean loaded;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Draws up to {@code count} distinct random ids matching the criteria. Ids accepted by
+     * {@code deprioritized} are only used to fill the result once the other candidates run out.
+     * At most {@value #MAX_DRAWS_PER_SLOT} candidates per requested id are drawn, so the cost
+     * stays O(count) even when nearly every match is deprioritized; in that case preferred ids
+     * beyond the walk are not looked for and the result is filled from the deprioritized ones.
+     */
+    public long[] sample(Collection<Long> topicIds, Collection<QuestionType> types, Difficulty difficulty,
+                         int count, LongPredicate deprioritized) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            List<LongBucket> matching = new ArrayList<>();
+            for (Map.Entry<BucketKey, LongBucket> entry : buckets.entrySet()) {
+                if (entry.getKey().matches(topicIds, types, difficulty) && entry.getValue().size > 0) {
+                    matching.add(entry.getValue());
+                }
+            }
+
+            int[] offsets = new int[matching.size() + 1];
+            for (int i = 0; i < matching.size(); i++) {
+                offsets[i + 1] = offsets[i] + matching.get(i).size;
+            }
+            int total = offsets[matching.size()];
+            int limit = Math.min(count, total);
+
+            long[] preferred = new long[limit];
+            long[] fallback = new long[limit];
+            int preferredCount = 0;
+            int fallbackCount = 0;
+
+            SparsePermutation permutation = new SparsePermutation(total);
+            int draws = 0;
+            int maxDraws = limit * MAX_DRAWS_PER_SLOT;
+            while (preferredCount < limit && draws++ < maxDraws && permutation.hasNext()) {
+                long id = idAt(matching, offsets, permutation.next());
+                if (deprioritized != null && deprioritized.test(id)) {
+                    if (fallbackCount < limit) fallback[fallbackCount++] = id;
+                } else {
+                    preferred[preferredCount++] = id;
+                }
+            }
+
+            int fill = Math.min(limit - preferredCount, fallbackCount);
+            System.arraycopy(fallback, 0, preferred, preferredCount, fill);
+            return preferredCount + fill == limit ? preferred : Arrays.copyOf(preferred, preferredCount + fill);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reflects a created or updated question once the surrounding transaction commits.
+     * Inactive questions are removed from the index.
+     */
+    public void onQuestionSaved(Question question) {
+        long id = question.getId();
+        BucketKey key = new BucketKey(question.getTopic().getId(), question.getType(), question.getDifficulty());
+        boolean active = Boolean.TRUE.equals(question.getIsActive());
+        TransactionUtils.afterCommit(() -> {
+            if (active) {
+                put(id, key);
+            } else {
+                remove(id);
+            }
+        });
+    }
+
+    public void onQuestionRemoved(Long questionId) {
+        TransactionUtils.afterCommit(() -> remove(questionId));
+    }
+
+    /**
+     * Number of active questions per (topic, type, difficulty) bucket.
+     */
+    public Map<BucketKey, Integer> bucketSizes() {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            Map<BucketKey, Integer> sizes = new HashMap<>();
+            for (Map.Entry<BucketKey, LongBucket> entry : buckets.entrySet()) {
+                if (entry.getValue().size > 0) {
+                    sizes.put(entry.getKey(), entry.getValue().size);
+                }
+            }
+            return sizes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return keyById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Periodic full rebuild so that edits made on other application nodes converge.
+     */
+    @Scheduled(fixedDelayString = "${quiz.selection.index.refresh-interval-ms:300000}",
+               initialDelayString = "${quiz.selection.index.refresh-interval-ms:300000}")
+    public void refresh() {
+        if (!enabled) return;
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the index from the active questions. Questions saved or removed while the bank
+     * is being read are recorded and applied again to the new buckets, so the swap does not
+     * drop them.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = new HashMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Map<BucketKey, LongBucket> newBuckets = new HashMap<>();
+            Map<Long, BucketKey> newKeyById = new HashMap<>();
+            int replayed;
+            try {
+                for (Object[] row : questionRepository.findActiveSelectionKeys()) {
+                    long id = ((Number) row[0]).longValue();
+                    BucketKey key = new BucketKey(((Number) row[1]).longValue(), (QuestionType) row[2], (Difficulty) row[3]);
+                    newBuckets.computeIfAbsent(key, k -> new LongBucket()).add(id);
+                    newKeyById.put(id, key);
+                }
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    changedDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                replayed = changedDuringRebuild.size();
+                changedDuringRebuild.forEach((id, key) -> apply(newBuckets, newKeyById, id, key));
+                changedDuringRebuild = null;
+                buckets = newBuckets;
+                keyById = newKeyById;
+                loaded = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Question pool index rebuilt: {} active questions in {} buckets ({} changes replayed)",
+                    newKeyById.size(), newBuckets.size(), replayed);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+        synchronized (this) {
+            if (!loaded) {
+                rebuild();
+            }
+        }
+    }
+
+    private void put(long id, BucketKey key) {
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(id, key);
+            }
+            if (!loaded) return;
+            apply(buckets, keyById, id, key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(long id) {
+        put(id, null);
+    }
+
+    /**
+     * Moves the id into the key's bucket, or drops it from the index when the key is null.
+     */
+    private static void apply(Map<BucketKey, LongBucket> buckets, Map<Long, BucketKey> keyById, long id, BucketKey key) {
+        BucketKey previous = key != null ? keyById.put(id, key) : keyById.remove(id);
+        if (Objects.equals(key, previous)) return;
+        if (previous != null) {
+            buckets.get(previous).remove(id);
+        }
+        if (key != null) {
+            buckets.computeIfAbsent(key, k -> new LongBucket()).add(id);
+        }
+    }
+
+    private static long idAt(List<LongBucket> matching, int[] offsets, int position) {
+        // Buckets are non-empty, so offsets are strictly increasing
+        int idx = Arrays.binarySearch(offsets, position);
+        if (idx < 0) {
+            idx = -idx - 2;
+        }
+        return matching.get(idx).ids[position - offsets[idx]];
+    }
+
+    record BucketKey(Long topicId, QuestionType type, Difficulty difficulty) {
+        boolean matches(Collection<Long> topicIds, Collection<QuestionType> types, Difficulty wanted) {
+            return (topicIds == null || topicIds.isEmpty() || topicIds.contains(topicId))
+                    && (types == null || types.isEmpty() || types.contains(type))
+                    && (wanted == null || wanted == difficulty);
+        }
+    }
+
+    private static final class LongBucket {
+        private long[] ids = new long[16];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fisher-Yates shuffle over [0, n) that only materializes the swapped positions,
+     * yielding each next distinct random position in O(1).
+     */
+    private static final class SparsePermutation {
+        private final int n;
+        private final Map<Integer, Integer> swapped = new HashMap<>();
+        private int next;
+
+        SparsePermutation(int n) {
+            this.n = n;
+        }
+
+        boolean hasNext() {
+            return next < n;
+        }
+
+        int next() {
+            int j = next + ThreadLocalRandom.current().nextInt(n - next);
+            int valueAtJ = swapped.getOrDefault(j, j);
+            swapped.put(j, swapped.getOrDefault(next, next));
+            swapped.remove(next);
+            next++;
+            return valueAtJ;
+        }
+    }
+}
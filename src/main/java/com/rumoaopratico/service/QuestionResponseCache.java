@@ -0,0 +1,116 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.dto.response.QuestionResponse;
+import com.rumoaopratico.model.Question;
+import com.rumoaopratico.repository.QuestionRepository;
+import com.rumoaopratico.util.LruCache;
+import com.rumoaopratico.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Read-through cache of {@link QuestionResponse} by question id. Entries carry the question
+ * version, and an entry is only replaced by one at least as new, so a load that raced with
+ * an edit cannot overwrite the edited question. Soft-deleted questions stay cached as inactive.
+ * Cached responses are shared and must not be mutated by callers.
+ */
+@Component
+@RequiredArgsConstructor
+public class QuestionResponseCache {
+
+    private final QuestionRepository questionRepository;
+
+    @Value("${quiz.question-cache.max-entries:20000}")
+    private int maxEntries;
+
+    @Value("${quiz.question-cache.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    private LruCache<Long, Versioned> responses;
+
+    @PostConstruct
+    public void init() {
+        this.responses = new LruCache<>(maxEntries, Duration.ofMinutes(ttlMinutes));
+    }
+
+    /**
+     * The active question with the given id, if any.
+     */
+    public Optional<QuestionResponse> get(Long questionId) {
+        return Optional.ofNullable(getAll(List.of(questionId)).get(questionId))
+                .filter(response -> Boolean.TRUE.equals(response.getIsActive()));
+    }
+
+    /**
+     * Responses for the given ids, active or not, keyed by id. Misses are loaded in one query;
+     * ids that do not exist are absent from the result.
+     */
+    public Map<Long, QuestionResponse> getAll(Collection<Long> questionIds) {
+        Map<Long, QuestionResponse> result = new HashMap<>();
+        Set<Long> misses = new HashSet<>();
+        for (Long id : questionIds) {
+            Versioned cached = responses.get(id);
+            if (cached != null) {
+                result.put(id, cached.response());
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (Question question : questionRepository.findByIdIn(misses)) {
+                QuestionResponse response = QuestionResponse.from(question);
+                store(question.getId(), new Versioned(versionOf(question), response));
+                result.put(question.getId(), response);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Responses in the order of {@code questionIds}, skipping ids that do not exist.
+     */
+    public List<QuestionResponse> getAllInOrder(List<Long> questionIds) {
+        Map<Long, QuestionResponse> byId = getAll(questionIds);
+        List<QuestionResponse> ordered = new ArrayList<>(questionIds.size());
+        for (Long id : questionIds) {
+            QuestionResponse response = byId.get(id);
+            if (response != null) {
+                ordered.add(response);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Writes a created, updated or soft-deleted question through once the surrounding
+     * transaction commits. The version is read after commit, when the flush has bumped it.
+     */
+    public void onQuestionSaved(Question question) {
+        Long id = question.getId();
+        QuestionResponse response = QuestionResponse.from(question);
+        TransactionUtils.afterCommit(() -> store(id, new Versioned(versionOf(question), response)));
+    }
+
+    /**
+     * Drops the questions of a topic, whose responses embed the topic name.
+     */
+    public void invalidateTopic(Long topicId) {
+        TransactionUtils.afterCommit(() -> responses.invalidateIf(cached -> topicId.equals(cached.response().getTopicId())));
+    }
+
+    private void store(Long id, Versioned entry) {
+        responses.merge(id, entry, (current, candidate) -> candidate.version() >= current.version() ? candidate : current);
+    }
+
+    private static long versionOf(Question question) {
+        return question.getVersion() != null ? question.getVersion() : 0L;
+    }
+
+    private record Versioned(long version, QuestionResponse response) {
+    }
+}
@@ -1,23 +1,32 @@
 package com.rumoaopratico.service;
 
 import com.rumoaopratico.dto.request.QuestionRequest;
+import com.rumoaopratico.dto.response.CursorSliceResponse;
 import com.rumoaopratico.dto.response.QuestionResponse;
+import com.rumoaopratico.dto.response.TagCountResponse;
 import com.rumoaopratico.exception.ResourceNotFoundException;
 import com.rumoaopratico.model.Question;
 import com.rumoaopratico.model.QuestionOption;
 import com.rumoaopratico.model.Topic;
 import com.rumoaopratico.model.User;
+import com.rumoaopratico.model.UserQuestionStats;
 import com.rumoaopratico.model.enums.Difficulty;
 import com.rumoaopratico.model.enums.QuestionType;
+import com.rumoaopratico.model.enums.SearchMode;
 import com.rumoaopratico.repository.QuestionRepository;
-import com.rumoaopratico.repository.QuizAnswerRepository;
 import com.rumoaopratico.repository.TopicRepository;
+import com.rumoaopratico.repository.UserQuestionStatsRepository;
 import com.rumoaopratico.repository.UserRepository;
+import com.rumoaopratico.util.KeysetCursor;
+import com.rumoaopratico.util.Tags;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -30,81 +39,149 @@ import java.util.stream.Collectors;
 public class QuestionService {
 
     private final QuestionRepository questionRepository;
-    private final QuizAnswerRepository quizAnswerRepository;
+    private final UserQuestionStatsRepository userQuestionStatsRepository;
     private final TopicRepository topicRepository;
     private final UserRepository userRepository;
+    private final QuestionPoolIndex questionPoolIndex;
+    private final QuestionResponseCache questionResponseCache;
+    private final CatalogVersion catalogVersion;
 
+    @Transactional(readOnly = true)
     public Page<QuestionResponse> getQuestions(Long userId, Long topicId, QuestionType type,
-                                               Difficulty difficulty, String search,
-                                               String answerStatus, Pageable pageable) {
-        // Select the right query based on answerStatus filter
+                                               Difficulty difficulty, String search, String tag,
+                                               SearchMode searchMode, String answerStatus, Pageable pageable) {
+        tag = Tags.normalizeOne(tag);
+        // Select the right query based on search mode and answerStatus filter
         Page<Question> questionsPage;
-        if (answerStatus != null && userId != null) {
+        if (searchMode == SearchMode.FULLTEXT && StringUtils.hasText(search)) {
+            questionsPage = searchFullText(userId, topicId, type, difficulty, search, tag, answerStatus, pageable);
+        } else if (answerStatus != null && userId != null) {
             switch (answerStatus.toUpperCase()) {
                 case "UNANSWERED":
                     questionsPage = questionRepository.findFilteredGlobalUnanswered(
-                            userId, topicId, type, difficulty, search, pageable);
+                            userId, topicId, type, difficulty, search, tag, pageable);
                     break;
                 case "CORRECT":
                     questionsPage = questionRepository.findFilteredGlobalCorrect(
-                            userId, topicId, type, difficulty, search, pageable);
+                            userId, topicId, type, difficulty, search, tag, pageable);
                     break;
                 case "INCORRECT":
                     questionsPage = questionRepository.findFilteredGlobalIncorrect(
-                            userId, topicId, type, difficulty, search, pageable);
+                            userId, topicId, type, difficulty, search, tag, pageable);
                     break;
                 default:
                     questionsPage = questionRepository.findFilteredGlobal(
-                            topicId, type, difficulty, search, pageable);
+                            topicId, type, difficulty, search, tag, pageable);
             }
         } else {
             questionsPage = questionRepository.findFilteredGlobal(
-                    topicId, type, difficulty, search, pageable);
+                    topicId, type, difficulty, search, tag, pageable);
         }
 
         Page<QuestionResponse> responsePage = questionsPage.map(QuestionResponse::from);
+        enrichWithStats(userId, responsePage.getContent());
+        return responsePage;
+    }
 
-        // Enrich with answer stats
-        if (userId != null) {
-            List<QuestionResponse> content = responsePage.getContent();
-            List<Long> questionIds = content.stream()
-                    .map(QuestionResponse::getId)
-                    .collect(Collectors.toList());
+    /**
+     * Keyset-paginated listing ordered by creation date, newest first. Unlike {@link #getQuestions}
+     * it never counts the matching rows, so the cost of a page does not grow with the bank size.
+     */
+    @Transactional(readOnly = true)
+    public CursorSliceResponse<QuestionResponse> scrollQuestions(Long userId, Long topicId, QuestionType type,
+                                                                 Difficulty difficulty, String search, String tag,
+                                                                 String answerStatus, String cursor, int size) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        Slice<Question> slice = questionRepository.scrollFilteredGlobal(
+                userId, position.timestamp(), position.id(), topicId, type, difficulty,
+                StringUtils.hasText(search) ? search : null, Tags.normalizeOne(tag),
+                normalizeAnswerStatus(userId, answerStatus),
+                PageRequest.of(0, size));
 
-            if (!questionIds.isEmpty()) {
-                List<Object[]> stats = quizAnswerRepository.findAnswerStatsByUserAndQuestions(userId, questionIds);
-                Map<Long, Object[]> statsMap = new HashMap<>();
-                for (Object[] row : stats) {
-                    Long qId = ((Number) row[0]).longValue();
-                    statsMap.put(qId, row);
-                }
+        List<QuestionResponse> content = slice.getContent().stream()
+                .map(QuestionResponse::from)
+                .collect(Collectors.toList());
+        enrichWithStats(userId, content);
 
-                for (QuestionResponse qr : content) {
-                    Object[] stat = statsMap.get(qr.getId());
-                    if (stat != null) {
-                        int answered = ((Number) stat[1]).intValue();
-                        int correct = ((Number) stat[2]).intValue();
-                        qr.setTimesAnswered(answered);
-                        qr.setTimesCorrect(correct);
-                        qr.setAnswerStatus(correct > 0 ? "CORRECT" : "INCORRECT");
-                    } else {
-                        qr.setTimesAnswered(0);
-                        qr.setTimesCorrect(0);
-                        qr.setAnswerStatus("UNANSWERED");
-                    }
-                }
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            Question last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return CursorSliceResponse.<QuestionResponse>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(slice.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private void enrichWithStats(Long userId, List<QuestionResponse> content) {
+        if (userId == null || content.isEmpty()) {
+            return;
+        }
+        List<Long> questionIds = content.stream()
+                .map(QuestionResponse::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, UserQuestionStats> statsMap = new HashMap<>();
+        for (UserQuestionStats stats : userQuestionStatsRepository.findByUserIdAndQuestionIdIn(userId, questionIds)) {
+            statsMap.put(stats.getQuestionId(), stats);
+        }
+
+        for (QuestionResponse qr : content) {
+            UserQuestionStats stat = statsMap.get(qr.getId());
+            if (stat != null) {
+                int answered = stat.getTimesAnswered();
+                int correct = stat.getTimesCorrect();
+                qr.setTimesAnswered(answered);
+                qr.setTimesCorrect(correct);
+                qr.setAnswerStatus(correct > 0 ? "CORRECT" : "INCORRECT");
+            } else {
+                qr.setTimesAnswered(0);
+                qr.setTimesCorrect(0);
+                qr.setAnswerStatus("UNANSWERED");
             }
         }
+    }
 
-        return responsePage;
+    // Unknown statuses, or a status without a user, mean no filter
+    private static String normalizeAnswerStatus(Long userId, String answerStatus) {
+        if (answerStatus == null || userId == null) {
+            return null;
+        }
+        String status = answerStatus.toUpperCase();
+        return List.of("UNANSWERED", "CORRECT", "INCORRECT").contains(status) ? status : null;
+    }
+
+    // Results are ordered by relevance, so the requested sort is ignored
+    private Page<Question> searchFullText(Long userId, Long topicId, QuestionType type, Difficulty difficulty,
+                                          String search, String tag, String answerStatus, Pageable pageable) {
+        return questionRepository.searchFullText(
+                userId,
+                topicId,
+                type != null ? type.name() : null,
+                difficulty != null ? difficulty.name() : null,
+                search.trim(),
+                tag,
+                normalizeAnswerStatus(userId, answerStatus),
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+    }
+
+    /**
+     * Number of active questions per tag, optionally within a topic, most used first.
+     */
+    @Transactional(readOnly = true)
+    public List<TagCountResponse> getTagFacets(Long topicId) {
+        return questionRepository.countActiveByTag(topicId).stream()
+                .map(row -> new TagCountResponse((String) row[0], ((Number) row[1]).longValue()))
+                .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public QuestionResponse getQuestion(Long userId, Long questionId) {
-        Question question = questionRepository.findById(questionId)
-                .filter(q -> Boolean.TRUE.equals(q.getIsActive()))
+        return questionResponseCache.get(questionId)
                 .orElseThrow(() -> new ResourceNotFoundException("Question", questionId));
-        return QuestionResponse.from(question);
     }
 
     @Transactional
@@ -133,10 +210,10 @@ public class QuestionService {
                 .explanation(explanationValue)
                 .bibliography(request.getBibliography())
                 .difficulty(request.getDifficulty())
-                .tags(request.getTags())
                 .isActive(true)
                 .options(new ArrayList<>())
                 .build();
+        question.applyTags(request.getTags());
 
         if (request.getType() == QuestionType.TRUE_FALSE) {
             // Auto-create Verdadeiro/Falso options based on correctAnswer
@@ -172,12 +249,15 @@ public class QuestionService {
         }
 
         Question saved = questionRepository.save(question);
+        questionPoolIndex.onQuestionSaved(saved);
+        questionResponseCache.onQuestionSaved(saved);
+        catalogVersion.bump();
         return QuestionResponse.from(saved);
     }
 
     @Transactional
     public QuestionResponse updateQuestion(Long userId, Long questionId, QuestionRequest request) {
-        Question question = questionRepository.findById(questionId)
+        Question question = questionRepository.findByIdForUpdate(questionId)
                 .filter(q -> Boolean.TRUE.equals(q.getIsActive()))
                 .orElseThrow(() -> new ResourceNotFoundException("Question", questionId));
 
@@ -201,7 +281,7 @@ public class QuestionService {
         question.setExplanation(explanationValue);
         question.setBibliography(request.getBibliography());
         question.setDifficulty(request.getDifficulty());
-        question.setTags(request.getTags());
+        question.applyTags(request.getTags());
 
         // Update options
         question.getOptions().clear();
@@ -242,16 +322,22 @@ public class QuestionService {
         }
 
         Question saved = questionRepository.save(question);
+        questionPoolIndex.onQuestionSaved(saved);
+        questionResponseCache.onQuestionSaved(saved);
+        catalogVersion.bump();
         return QuestionResponse.from(saved);
     }
 
     @Transactional
     public void deleteQuestion(Long userId, Long questionId) {
-        Question question = questionRepository.findById(questionId)
+        Question question = questionRepository.findByIdForUpdate(questionId)
                 .filter(q -> Boolean.TRUE.equals(q.getIsActive()))
                 .orElseThrow(() -> new ResourceNotFoundException("Question", questionId));
         // Soft delete
         question.setIsActive(false);
         questionRepository.save(question);
+        questionPoolIndex.onQuestionRemoved(questionId);
+        questionResponseCache.onQuestionSaved(question);
+        catalogVersion.bump();
     }
 }
@@ -1,22 +1,31 @@
 package com.rumoaopratico.service;
 
 import com.rumoaopratico.dto.request.QuizAnswerRequest;
+import com.rumoaopratico.dto.request.QuizBatchAnswerRequest;
 import com.rumoaopratico.dto.request.QuizStartRequest;
 import com.rumoaopratico.dto.response.*;
 import com.rumoaopratico.dto.response.QuestionOptionResponse;
 import com.rumoaopratico.exception.BadRequestException;
+import com.rumoaopratico.exception.DuplicateResourceException;
 import com.rumoaopratico.exception.ResourceNotFoundException;
 import com.rumoaopratico.model.*;
 import com.rumoaopratico.model.enums.QuestionType;
+import com.rumoaopratico.model.enums.QuizMode;
 import com.rumoaopratico.repository.*;
+import com.rumoaopratico.util.Tags;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -28,32 +37,66 @@ public class QuizService {
     private final QuizAnswerRepository quizAnswerRepository;
     private final QuestionRepository questionRepository;
     private final UserRepository userRepository;
+    private final QuestionPoolIndex questionPoolIndex;
+    private final QuestionResponseCache questionResponseCache;
+    private final MasteryCache masteryCache;
+    private final QuizSnapshotService quizSnapshotService;
+    private final AttemptStateCache attemptStateCache;
+    private final QuizAnswerBatchWriter quizAnswerBatchWriter;
+    private final AnswerJournal answerJournal;
+    private final ReviewCardService reviewCardService;
+    private final AnswerStatsRecorder answerStatsRecorder;
+    private final UserStatsService userStatsService;
+    private final ScoreDistributions scoreDistributions;
+    private final PlatformTransactionManager transactionManager;
+
+    // Methods that flush the answer journal open their transaction only afterwards, see AnswerJournal
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
 
-    @Transactional(readOnly = true)
     public List<QuizAttemptResponse> getPendingQuizzes(Long userId) {
-        return quizAttemptRepository.findByUserIdAndFinishedAtIsNullOrderByStartedAtDesc(userId)
-                .stream()
+        answerJournal.flushUser(userId);
+        return readOnlyTransaction.execute(status -> loadPendingQuizzes(userId));
+    }
+
+    private List<QuizAttemptResponse> loadPendingQuizzes(Long userId) {
+        List<QuizAttempt> attempts = quizAttemptRepository.findByUserIdAndFinishedAtIsNullOrderByStartedAtDesc(userId);
+        if (attempts.isEmpty()) {
+            return List.of();
+        }
+        List<Long> attemptIds = attempts.stream().map(QuizAttempt::getId).collect(Collectors.toList());
+
+        // Snapshots and answers of every pending attempt in one query each
+        Map<Long, List<QuestionResponse>> snapshots = quizSnapshotService.loadAll(attemptIds);
+        Map<Long, List<QuizAnswer>> answersByAttempt = quizAnswerRepository.findByAttemptIdIn(attemptIds).stream()
+                .collect(Collectors.groupingBy(answer -> answer.getAttempt().getId()));
+
+        return attempts.stream()
                 .map(attempt -> {
-                    List<QuestionResponse> questions = loadQuestionsFromConfig(attempt);
-                    List<QuizAnswer> answers = quizAnswerRepository.findByAttemptId(attempt.getId());
-                    return QuizAttemptResponse.fromWithQuestions(attempt, questions, answers);
+                    List<QuestionResponse> questions = snapshots.containsKey(attempt.getId())
+                            ? snapshots.get(attempt.getId())
+                            : loadQuestionsFromConfig(attempt);
+                    return QuizAttemptResponse.fromWithQuestions(attempt, questions,
+                            answersByAttempt.getOrDefault(attempt.getId(), List.of()));
                 })
                 .collect(Collectors.toList());
     }
 
-    @Transactional
     public void abandonQuiz(Long userId, Long attemptId) {
-        QuizAttempt attempt = quizAttemptRepository.findByIdAndUserId(attemptId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Quiz attempt", attemptId));
-
-        if (attempt.getFinishedAt() != null) {
-            throw new BadRequestException("Quiz already finished");
-        }
+        answerJournal.flushAttempt(attemptId);
+        transactionTemplate.executeWithoutResult(status -> {
+            QuizAttempt attempt = quizAttemptRepository.findByIdAndUserIdForUpdate(attemptId, userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Quiz attempt", attemptId));
 
-        long correctCount = quizAnswerRepository.countByAttemptIdAndIsCorrectTrue(attemptId);
-        attempt.setFinishedAt(LocalDateTime.now());
-        attempt.setCorrectCount((int) correctCount);
-        quizAttemptRepository.save(attempt);
+            markFinished(userId, attempt);
+        });
     }
 
     @Transactional
@@ -61,78 +104,9 @@ public class QuizService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", userId));
 
-        // Get random questions based on the criteria
-        QuestionType typeFilter = null;
-        if (request.getTypes() != null && request.getTypes().size() == 1) {
-            typeFilter = request.getTypes().get(0);
-        }
-
-        List<Question> questions;
-        boolean prioritizeUnanswered = !Boolean.TRUE.equals(request.getIncludeCorrectlyAnswered());
-
-        if (prioritizeUnanswered) {
-            // Smart selection: first try unanswered/incorrectly-answered questions
-            questions = questionRepository.findUnansweredOrIncorrectForQuiz(
-                    userId,
-                    request.getTopicIds(),
-                    typeFilter,
-                    request.getDifficulty(),
-                    PageRequest.of(0, request.getQuestionCount())
-            );
-
-            // If multiple types specified, filter in memory
-            if (request.getTypes() != null && request.getTypes().size() > 1) {
-                questions = questions.stream()
-                        .filter(q -> request.getTypes().contains(q.getType()))
-                        .collect(Collectors.toList());
-            }
-
-            // If not enough questions, fill remaining from all questions
-            if (questions.size() < request.getQuestionCount()) {
-                Set<Long> existingIds = questions.stream()
-                        .map(Question::getId)
-                        .collect(Collectors.toSet());
-
-                int remaining = request.getQuestionCount() - questions.size();
-                List<Question> additional = questionRepository.findRandomForQuizGlobal(
-                        request.getTopicIds(),
-                        typeFilter,
-                        request.getDifficulty(),
-                        PageRequest.of(0, remaining + existingIds.size())
-                );
-
-                // Filter out duplicates and apply type filter
-                List<Question> filtered = additional.stream()
-                        .filter(q -> !existingIds.contains(q.getId()))
-                        .filter(q -> request.getTypes() == null || request.getTypes().size() <= 1 || request.getTypes().contains(q.getType()))
-                        .limit(remaining)
-                        .collect(Collectors.toList());
-
-                questions = new ArrayList<>(questions);
-                questions.addAll(filtered);
-            }
-
-            // Trim to requested count
-            if (questions.size() > request.getQuestionCount()) {
-                questions = questions.subList(0, request.getQuestionCount());
-            }
-        } else {
-            // Include all questions (existing behavior)
-            questions = questionRepository.findRandomForQuizGlobal(
-                    request.getTopicIds(),
-                    typeFilter,
-                    request.getDifficulty(),
-                    PageRequest.of(0, request.getQuestionCount())
-            );
-
-            // If multiple types specified, filter in memory
-            if (request.getTypes() != null && request.getTypes().size() > 1) {
-                questions = questions.stream()
-                        .filter(q -> request.getTypes().contains(q.getType()))
-                        .limit(request.getQuestionCount())
-                        .collect(Collectors.toList());
-            }
-        }
+        List<Question> questions = request.getMode() == QuizMode.REVIEW
+                ? selectForReview(userId, request)
+                : selectQuestions(userId, request);
 
         if (questions.isEmpty()) {
             throw new BadRequestException("No questions found matching the selected criteria");
@@ -152,32 +126,126 @@ public class QuizService {
                 .correctCount(0)
                 .mode(request.getMode())
                 .configJson(config)
+                .topicIds(topicIdsOf(questions))
                 .answers(new ArrayList<>())
                 .build();
 
         attempt = quizAttemptRepository.save(attempt);
 
-        List<QuestionResponse> questionResponses = questions.stream()
-                .map(QuestionResponse::from)
-                .collect(Collectors.toList());
+        List<QuestionResponse> questionResponses = questionResponseCache.getAllInOrder(
+                questions.stream().map(Question::getId).collect(Collectors.toList()));
+        quizSnapshotService.save(attempt.getId(), questionResponses);
 
         return QuizAttemptResponse.fromWithQuestions(attempt, questionResponses, List.of());
     }
 
-    @Transactional(readOnly = true)
-    public QuizAttemptResponse getAttempt(Long userId, Long attemptId) {
-        QuizAttempt attempt = quizAttemptRepository.findByIdAndUserId(attemptId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Quiz attempt", attemptId));
+    // Topics the selected questions belong to: requested ids may be unknown, deleted or absent
+    private static Set<Long> topicIdsOf(List<Question> questions) {
+        return questions.stream()
+                .map(question -> question.getTopic().getId())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
 
-        // Load questions from config
-        List<QuestionResponse> questions = loadQuestionsFromConfig(attempt);
-        List<QuizAnswer> answers = quizAnswerRepository.findByAttemptId(attemptId);
+    // The pool index is not bucketed by tag, so tag-filtered quizzes are selected in the database
+    private List<Question> selectQuestions(Long userId, QuizStartRequest request) {
+        return questionPoolIndex.isEnabled() && Tags.normalize(request.getTags()).isEmpty()
+                ? selectFromIndex(userId, request)
+                : selectFromDatabase(userId, request);
+    }
 
-        return QuizAttemptResponse.fromWithQuestions(attempt, questions, answers);
+    // Due review cards first, most overdue first; the rest is filled through the regular selection
+    private List<Question> selectForReview(Long userId, QuizStartRequest request) {
+        int count = request.getQuestionCount();
+        List<Long> dueIds = reviewCardService.findDue(
+                userId, request.getTopicIds(), typesOrAll(request), request.getDifficulty(),
+                Tags.normalize(request.getTags()), count);
+        List<Question> questions = new ArrayList<>(loadInOrder(dueIds));
+        if (questions.size() >= count) {
+            return questions;
+        }
+
+        // Over-select so that overlap with the due cards does not leave the quiz short
+        QuizStartRequest fillRequest = QuizStartRequest.builder()
+                .topicIds(request.getTopicIds())
+                .types(request.getTypes())
+                .difficulty(request.getDifficulty())
+                .tags(request.getTags())
+                .includeCorrectlyAnswered(request.getIncludeCorrectlyAnswered())
+                .mode(request.getMode())
+                .questionCount(count + questions.size())
+                .build();
+        Set<Long> picked = questions.stream().map(Question::getId).collect(Collectors.toSet());
+        for (Question question : selectQuestions(userId, fillRequest)) {
+            if (questions.size() >= count) break;
+            if (picked.add(question.getId())) {
+                questions.add(question);
+            }
+        }
+        return questions;
+    }
+
+    private List<Question> selectFromIndex(Long userId, QuizStartRequest request) {
+        // Questions the user already answered correctly are only used to fill the quiz
+        boolean prioritizeUnanswered = !Boolean.TRUE.equals(request.getIncludeCorrectlyAnswered());
+
+        long[] ids = questionPoolIndex.sample(
+                request.getTopicIds(),
+                request.getTypes(),
+                request.getDifficulty(),
+                request.getQuestionCount(),
+                prioritizeUnanswered ? masteryCache.masteredBy(userId) : null
+        );
+
+        return loadInOrder(Arrays.stream(ids).boxed().collect(Collectors.toList()));
+    }
+
+    private List<Question> loadInOrder(List<Long> idList) {
+        Map<Long, Question> byId = questionRepository.findAllById(idList).stream()
+                .filter(q -> Boolean.TRUE.equals(q.getIsActive()))
+                .collect(Collectors.toMap(Question::getId, q -> q));
+        return idList.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private List<Question> selectFromDatabase(Long userId, QuizStartRequest request) {
+        List<QuestionType> types = typesOrAll(request);
+        Set<String> tags = Tags.normalize(request.getTags());
+        boolean prioritizeUnanswered = !Boolean.TRUE.equals(request.getIncludeCorrectlyAnswered());
+
+        return questionRepository.findForQuiz(
+                userId,
+                request.getTopicIds(),
+                types,
+                request.getDifficulty(),
+                !tags.isEmpty(),
+                Tags.forInClause(tags),
+                prioritizeUnanswered,
+                PageRequest.of(0, request.getQuestionCount())
+        );
+    }
+
+    private static List<QuestionType> typesOrAll(QuizStartRequest request) {
+        return request.getTypes() != null && !request.getTypes().isEmpty()
+                ? request.getTypes()
+                : List.of(QuestionType.values());
+    }
+
+    @Transactional(readOnly = true)
+    public QuizAttemptResponse getAttempt(Long userId, Long attemptId) {
+        AttemptState state = loadState(userId, attemptId);
+        synchronized (state) {
+            return state.toResponse();
+        }
     }
 
-    @Transactional
     public QuizAnswerResponse submitAnswer(Long userId, Long attemptId, QuizAnswerRequest request) {
+        answerJournal.flushAttempt(attemptId);
+        return transactionTemplate.execute(status -> saveAnswer(userId, attemptId, request));
+    }
+
+    private QuizAnswerResponse saveAnswer(Long userId, Long attemptId, QuizAnswerRequest request) {
         QuizAttempt attempt = quizAttemptRepository.findByIdAndUserId(attemptId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Quiz attempt", attemptId));
 
@@ -189,79 +257,253 @@ public class QuizService {
             throw new BadRequestException("Question already answered in this attempt");
         }
 
-        Question question = questionRepository.findById(request.getQuestionId())
-                .orElseThrow(() -> new ResourceNotFoundException("Question", request.getQuestionId()));
-
-        // Check if answer is correct
-        boolean isCorrect = evaluateAnswer(question, request.getAnswer());
+        // Graded against the attempt's frozen snapshot, like the other answer endpoints, so an
+        // edit made mid-quiz does not change how the attempt is scored
+        QuestionResponse question = loadQuestions(attempt).stream()
+                .filter(candidate -> candidate.getId().equals(request.getQuestionId()))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Question is not part of this attempt"));
+        List<QuestionOptionResponse> options = question.getOptions() != null ? question.getOptions() : List.of();
+        boolean isCorrect = evaluateAnswer(options, request.getAnswer());
 
         QuizAnswer answer = QuizAnswer.builder()
                 .attempt(attempt)
-                .question(question)
+                .userId(userId)
+                .question(questionRepository.getReferenceById(question.getId()))
                 .userAnswerJson(request.getAnswer())
                 .isCorrect(isCorrect)
                 .build();
 
-        answer = quizAnswerRepository.save(answer);
+        attemptStateCache.invalidateOnRollback(attemptId);
+        // Guarded like submitAnswerSimple: saving the loaded entity would rewrite finished_at
+        // and correct_count over a finish that committed in the meantime
+        if (quizAttemptRepository.incrementCorrectCount(attemptId, isCorrect ? 1 : 0) == 0) {
+            attemptStateCache.invalidate(attemptId);
+            throw new BadRequestException("Quiz already finished");
+        }
+        answer = insertAnswer(answer);
+        answerStatsRecorder.recordAnswers(userId, List.of(answer));
+        attemptStateCache.invalidate(attemptId);
 
-        // Update correct count
         if (isCorrect) {
-            attempt.setCorrectCount(attempt.getCorrectCount() + 1);
-            quizAttemptRepository.save(attempt);
+            masteryCache.recordCorrect(userId, question.getId());
         }
 
-        return QuizAnswerResponse.fromWithQuestion(answer);
+        QuizAnswerResponse response = QuizAnswerResponse.from(answer);
+        response.setQuestion(question);
+        return response;
     }
 
     @Transactional
     public QuizAttemptResponse submitAnswerSimple(Long userId, Long attemptId, Map<String, Object> request) {
-        QuizAttempt attempt = quizAttemptRepository.findByIdAndUserId(attemptId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Quiz attempt", attemptId));
+        return submitAnswerSimple(userId, attemptId, request, (state, answer) -> state.toResponse());
+    }
 
-        if (attempt.getFinishedAt() != null) {
-            throw new BadRequestException("Quiz already finished");
-        }
+    /**
+     * Same as {@link #submitAnswerSimple(Long, Long, Map)} but only returns the evaluation of
+     * the submitted answer and the attempt counters.
+     */
+    @Transactional
+    public QuizAnswerDeltaResponse submitAnswerDelta(Long userId, Long attemptId, Map<String, Object> request) {
+        return submitAnswerSimple(userId, attemptId, request, AttemptState::toDeltaResponse);
+    }
+
+    private <R> R submitAnswerSimple(Long userId, Long attemptId, Map<String, Object> request,
+                                     BiFunction<AttemptState, QuizAnswer, R> view) {
+        AttemptState state = loadState(userId, attemptId);
+
+        synchronized (state) {
+            if (state.isFinished()) {
+                throw new BadRequestException("Quiz already finished");
+            }
+
+            QuestionResponse currentQuestion = state.currentQuestion();
+            if (currentQuestion == null) {
+                throw new BadRequestException("All questions already answered");
+            }
 
-        // Find current question index (first unanswered)
-        List<QuestionResponse> questions = loadQuestionsFromConfig(attempt);
-        List<QuizAnswer> existingAnswers = quizAnswerRepository.findByAttemptId(attemptId);
-        Set<Long> answeredQuestionIds = existingAnswers.stream()
-                .map(a -> a.getQuestion().getId())
-                .collect(Collectors.toSet());
-
-        // Find current question
-        QuestionResponse currentQuestion = null;
-        for (QuestionResponse qr : questions) {
-            if (!answeredQuestionIds.contains(qr.getId())) {
-                currentQuestion = qr;
-                break;
+            // Evaluate against the attempt's frozen snapshot; entities are only referenced by id
+            List<QuestionOptionResponse> options = currentQuestion.getOptions() != null
+                    ? currentQuestion.getOptions()
+                    : List.of();
+
+            // Parse the answer - frontend sends { answer: "a" } or { answer: "true" }
+            String answerValue = request.get("answer") != null ? request.get("answer").toString() : "";
+            Map<String, Object> answerMap = buildAnswerMap(answerValue, options);
+
+            boolean isCorrect = evaluateSimpleAnswer(options, answerMap);
+
+            QuizAnswer answer = QuizAnswer.builder()
+                    .attempt(quizAttemptRepository.getReferenceById(attemptId))
+                    .userId(userId)
+                    .question(questionRepository.getReferenceById(currentQuestion.getId()))
+                    .userAnswerJson(answerMap)
+                    .isCorrect(isCorrect)
+                    .answeredAt(LocalDateTime.now())
+                    .build();
+
+            if (answerJournal.isEnabled()) {
+                answerJournal.append(userId, List.of(answer));
+            } else {
+                attemptStateCache.invalidateOnRollback(attemptId);
+                // Runs before the insert, also with a zero delta: the finished_at guard holds the attempt
+                // row lock until commit, so a stale cached state cannot write into a closed attempt
+                if (quizAttemptRepository.incrementCorrectCount(attemptId, isCorrect ? 1 : 0) == 0) {
+                    attemptStateCache.invalidate(attemptId);
+                    throw new BadRequestException("Quiz already finished");
+                }
+                answer = insertAnswer(answer);
+                answerStatsRecorder.recordAnswers(userId, List.of(answer));
+            }
+
+            if (isCorrect) {
+                masteryCache.recordCorrect(userId, currentQuestion.getId());
             }
+            state.recordAnswer(answer);
+            return view.apply(state, answer);
         }
+    }
 
-        if (currentQuestion == null) {
-            throw new BadRequestException("All questions already answered");
+    // The unique (attempt, question) index rejects an answer the cached state did not know about,
+    // e.g. one written through another node
+    private QuizAnswer insertAnswer(QuizAnswer answer) {
+        try {
+            return quizAnswerRepository.save(answer);
+        } catch (DataIntegrityViolationException e) {
+            attemptStateCache.invalidate(answer.getAttempt().getId());
+            throw new DuplicateResourceException("Question already answered; reload the attempt");
         }
+    }
 
-        final Long currentQuestionId = currentQuestion.getId();
-        Question question = questionRepository.findById(currentQuestionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Question", currentQuestionId));
+    /**
+     * Records an ordered list of answers collected offline. Items are evaluated in memory
+     * against the attempt snapshot and must follow the attempt order: an item for a question
+     * that is not the next unanswered one is rejected as OUT_OF_ORDER, as are all answers to
+     * questions already answered (DUPLICATE) or not part of the attempt (UNKNOWN_QUESTION).
+     * Accepted answers are inserted with one JDBC batch and correctCount is updated once.
+     */
+    @Transactional
+    public QuizBatchAnswerResponse submitAnswers(Long userId, Long attemptId, QuizBatchAnswerRequest request) {
+        AttemptState state = loadState(userId, attemptId);
 
-        // Parse the answer - frontend sends { answer: "a" } or { answer: "true" }
-        String answerValue = request.get("answer") != null ? request.get("answer").toString() : "";
+        synchronized (state) {
+            if (state.isFinished()) {
+                throw new BadRequestException("Quiz already finished");
+            }
+
+            List<QuizAnswer> accepted = new ArrayList<>();
+            List<QuizBatchAnswerResponse.ItemResult> results = new ArrayList<>();
+            Set<Long> answeredInBatch = new HashSet<>();
+            int expectedIndex = state.getCurrentIndex();
+            int correctDelta = 0;
+            QuizAttempt attemptRef = quizAttemptRepository.getReferenceById(attemptId);
+            LocalDateTime now = LocalDateTime.now();
+
+            for (int i = 0; i < request.getAnswers().size(); i++) {
+                QuizBatchAnswerRequest.Item item = request.getAnswers().get(i);
+                Long questionId = item.getQuestionId();
+                Integer index = state.positionOf(questionId);
+
+                QuizBatchAnswerResponse.ItemStatus status;
+                if (index == null) {
+                    status = QuizBatchAnswerResponse.ItemStatus.UNKNOWN_QUESTION;
+                } else if (state.isAnswered(questionId) || answeredInBatch.contains(questionId)) {
+                    status = QuizBatchAnswerResponse.ItemStatus.DUPLICATE;
+                } else if (index != expectedIndex) {
+                    status = QuizBatchAnswerResponse.ItemStatus.OUT_OF_ORDER;
+                } else {
+                    status = QuizBatchAnswerResponse.ItemStatus.ACCEPTED;
+                }
 
-        // Build answer map for evaluation
+                QuizBatchAnswerResponse.ItemResult.ItemResultBuilder result = QuizBatchAnswerResponse.ItemResult.builder()
+                        .position(i)
+                        .questionId(questionId)
+                        .index(index)
+                        .status(status);
+
+                if (status == QuizBatchAnswerResponse.ItemStatus.ACCEPTED) {
+                    QuestionResponse question = state.questionAt(index);
+                    List<QuestionOptionResponse> options = question.getOptions() != null ? question.getOptions() : List.of();
+                    Map<String, Object> answerMap = buildAnswerMap(item.getAnswer(), options);
+                    boolean isCorrect = evaluateSimpleAnswer(options, answerMap);
+
+                    QuizAnswer answer = QuizAnswer.builder()
+                            .attempt(attemptRef)
+                            .userId(userId)
+                            .question(questionRepository.getReferenceById(questionId))
+                            .userAnswerJson(answerMap)
+                            .isCorrect(isCorrect)
+                            .answeredAt(now)
+                            .build();
+                    accepted.add(answer);
+                    answeredInBatch.add(questionId);
+                    expectedIndex = state.nextUnansweredAfter(index, answeredInBatch);
+                    if (isCorrect) correctDelta++;
+
+                    result.userAnswer(QuizAttemptResponse.userAnswerOf(answer)).correct(isCorrect);
+                }
+                results.add(result.build());
+            }
+
+            if (!accepted.isEmpty()) {
+                if (answerJournal.isEnabled()) {
+                    answerJournal.append(userId, accepted);
+                } else {
+                    attemptStateCache.invalidateOnRollback(attemptId);
+                    // Also runs with a zero delta: it is the finished_at guard for the whole batch
+                    if (quizAttemptRepository.incrementCorrectCount(attemptId, correctDelta) == 0) {
+                        attemptStateCache.invalidate(attemptId);
+                        throw new BadRequestException("Quiz already finished");
+                    }
+                    try {
+                        quizAnswerBatchWriter.insertAll(accepted);
+                    } catch (DataIntegrityViolationException e) {
+                        attemptStateCache.invalidate(attemptId);
+                        throw new DuplicateResourceException("Question already answered; reload the attempt");
+                    }
+                    answerStatsRecorder.recordAnswers(userId, accepted);
+                }
+                for (QuizAnswer answer : accepted) {
+                    state.recordAnswer(answer);
+                    if (Boolean.TRUE.equals(answer.getIsCorrect())) {
+                        masteryCache.recordCorrect(userId, answer.getQuestion().getId());
+                    }
+                }
+            }
+
+            return QuizBatchAnswerResponse.builder()
+                    .attemptId(attemptId)
+                    .results(results)
+                    .acceptedCount(accepted.size())
+                    .correctCount(state.getCorrectCount())
+                    .currentQuestionIndex(state.getCurrentIndex())
+                    .totalQuestions(state.getTotalQuestions())
+                    .version(state.getVersion())
+                    .build();
+        }
+    }
+
+    private boolean evaluateSimpleAnswer(List<QuestionOptionResponse> options, Map<String, Object> answerMap) {
+        if (answerMap.containsKey("selfAssessment")) {
+            // Flashcard: user self-reports correctness
+            return "correct".equals(answerMap.get("selfAssessment"));
+        }
+        return evaluateAnswer(options, answerMap);
+    }
+
+    private Map<String, Object> buildAnswerMap(String answerValue, List<QuestionOptionResponse> options) {
         Map<String, Object> answerMap = new HashMap<>();
         if (answerValue.matches("[a-h]")) {
             // Multiple choice - find option by label index
             int idx = answerValue.charAt(0) - 'a';
-            if (idx >= 0 && idx < question.getOptions().size()) {
-                answerMap.put("selectedOptionId", question.getOptions().get(idx).getId());
+            if (idx >= 0 && idx < options.size()) {
+                answerMap.put("selectedOptionId", options.get(idx).getId());
             }
         } else if (answerValue.equals("true") || answerValue.equals("false")) {
             // TRUE_FALSE or COMMENTED_PHRASE - match by option text
-            if (!question.getOptions().isEmpty()) {
-                QuestionOption matched = null;
-                for (QuestionOption opt : question.getOptions()) {
+            if (!options.isEmpty()) {
+                QuestionOptionResponse matched = null;
+                for (QuestionOptionResponse opt : options) {
                     String optText = opt.getText().toLowerCase().trim();
                     if (answerValue.equals("true") && (optText.equals("verdadeiro") || optText.equals("true") || optText.equals("correta") || optText.equals("correto"))) {
                         matched = opt;
@@ -273,8 +515,8 @@ public class QuizService {
                 }
                 // Fallback to index-based if no text match
                 if (matched == null) {
-                    int selectedIdx = answerValue.equals("true") ? 0 : Math.min(1, question.getOptions().size() - 1);
-                    matched = question.getOptions().get(selectedIdx);
+                    int selectedIdx = answerValue.equals("true") ? 0 : Math.min(1, options.size() - 1);
+                    matched = options.get(selectedIdx);
                 }
                 answerMap.put("selectedOptionId", matched.getId());
             }
@@ -284,63 +526,85 @@ public class QuizService {
         } else {
             answerMap.put("answer", answerValue);
         }
+        return answerMap;
+    }
 
-        boolean isCorrect;
-        if (answerMap.containsKey("selfAssessment")) {
-            // Flashcard: user self-reports correctness
-            isCorrect = "correct".equals(answerMap.get("selfAssessment"));
-        } else {
-            isCorrect = evaluateAnswer(question, answerMap);
+    /**
+     * Returns the live state of an attempt, rebuilding it from the database on a cache miss.
+     * Only in-progress attempts are cached.
+     */
+    private AttemptState loadState(Long userId, Long attemptId) {
+        AttemptState cached = attemptStateCache.get(attemptId);
+        if (cached != null) {
+            if (!cached.getUserId().equals(userId)) {
+                throw new ResourceNotFoundException("Quiz attempt", attemptId);
+            }
+            return cached;
         }
 
-        QuizAnswer answer = QuizAnswer.builder()
-                .attempt(attempt)
-                .question(question)
-                .userAnswerJson(answerMap)
-                .isCorrect(isCorrect)
-                .build();
-
-        quizAnswerRepository.save(answer);
-
-        if (isCorrect) {
-            attempt.setCorrectCount(attempt.getCorrectCount() + 1);
-            quizAttemptRepository.save(attempt);
+        // Read before the database: a flush committing in between moves these into it
+        List<QuizAnswer> journaled = answerJournal.unflushedAnswers(attemptId);
+        QuizAttempt attempt = quizAttemptRepository.findByIdAndUserId(attemptId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Quiz attempt", attemptId));
+        List<QuizAnswer> answers = new ArrayList<>(quizAnswerRepository.findByAttemptId(attemptId));
+        Set<Long> stored = answers.stream().map(answer -> answer.getQuestion().getId()).collect(Collectors.toSet());
+        journaled.stream()
+                .filter(answer -> !stored.contains(answer.getQuestion().getId()))
+                .forEach(answers::add);
+        AttemptState state = new AttemptState(attempt, userId, loadQuestions(attempt), answers);
+        if (attempt.getFinishedAt() == null) {
+            attemptStateCache.put(attemptId, state);
         }
-
-        // Return updated attempt
-        List<QuizAnswer> allAnswers = quizAnswerRepository.findByAttemptId(attemptId);
-        return QuizAttemptResponse.fromWithQuestions(attempt, questions, allAnswers);
+        return state;
     }
 
-    @Transactional
     public QuizResultResponse finishQuiz(Long userId, Long attemptId) {
-        QuizAttempt attempt = quizAttemptRepository.findByIdAndUserId(attemptId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Quiz attempt", attemptId));
+        answerJournal.flushAttempt(attemptId);
+        return transactionTemplate.execute(status -> {
+            QuizAttempt attempt = quizAttemptRepository.findByIdAndUserIdForUpdate(attemptId, userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Quiz attempt", attemptId));
+
+            markFinished(userId, attempt);
+            return buildQuizResult(attempt);
+        });
+    }
 
+    /**
+     * Closes an attempt loaded with its row lock and adds it to the user's stats. Submits
+     * increment correct_count under the same lock, so the answers counted here are final;
+     * the stats are running totals, and the conditional update adds them only once.
+     */
+    private void markFinished(Long userId, QuizAttempt attempt) {
         if (attempt.getFinishedAt() != null) {
             throw new BadRequestException("Quiz already finished");
         }
 
-        long correctCount = quizAnswerRepository.countByAttemptIdAndIsCorrectTrue(attemptId);
-
-        attempt.setFinishedAt(LocalDateTime.now());
-        attempt.setCorrectCount((int) correctCount);
-        quizAttemptRepository.save(attempt);
+        Long attemptId = attempt.getId();
+        LocalDateTime finishedAt = LocalDateTime.now();
+        int correctCount = (int) quizAnswerRepository.countByAttemptIdAndIsCorrectTrue(attemptId);
+        attemptStateCache.invalidate(attemptId);
+        if (quizAttemptRepository.markFinished(attemptId, finishedAt, correctCount) == 0) {
+            throw new BadRequestException("Quiz already finished");
+        }
 
-        return buildQuizResult(attempt);
+        attempt.setFinishedAt(finishedAt);
+        attempt.setCorrectCount(correctCount);
+        userStatsService.recordFinished(userId, attempt);
     }
 
-    @Transactional(readOnly = true)
     public QuizResultResponse getResult(Long userId, Long attemptId) {
-        QuizAttempt attempt = quizAttemptRepository.findByIdAndUserId(attemptId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Quiz attempt", attemptId));
-        return buildQuizResult(attempt);
+        answerJournal.flushAttempt(attemptId);
+        return readOnlyTransaction.execute(status -> {
+            QuizAttempt attempt = quizAttemptRepository.findByIdAndUserId(attemptId, userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Quiz attempt", attemptId));
+            return buildQuizResult(attempt);
+        });
     }
 
     private QuizResultResponse buildQuizResult(QuizAttempt attempt) {
         Long attemptId = attempt.getId();
         List<QuizAnswer> answers = quizAnswerRepository.findByAttemptId(attemptId);
-        List<QuestionResponse> questionResponses = loadQuestionsFromConfig(attempt);
+        List<QuestionResponse> questionResponses = loadQuestions(attempt);
 
         int correctCount = attempt.getCorrectCount() != null ? attempt.getCorrectCount() : 0;
         int total = attempt.getTotalQuestions() != null ? attempt.getTotalQuestions() : 0;
@@ -403,6 +667,9 @@ public class QuizService {
                 .correctAnswers(correctCount)
                 .correctCount(correctCount)
                 .score(Math.round(score * 100.0) / 100.0)
+                .percentile(attempt.getFinishedAt() != null && total > 0
+                        ? scoreDistributions.percentileRank(ScoreDistributions.mode(attempt.getMode()), score)
+                        : null)
                 .successRate(Math.round(score * 100.0) / 100.0)
                 .totalTimeSeconds(totalTimeSeconds)
                 .mode(attempt.getMode())
@@ -442,7 +709,7 @@ public class QuizService {
         return answerText != null ? answerText.toString() : "";
     }
 
-    private boolean evaluateAnswer(Question question, Map<String, Object> answer) {
+    private boolean evaluateAnswer(List<QuestionOptionResponse> options, Map<String, Object> answer) {
         Object selectedOptionId = answer.get("selectedOptionId");
         if (selectedOptionId != null) {
             long optId;
@@ -452,14 +719,14 @@ public class QuizService {
                 optId = Long.parseLong(selectedOptionId.toString());
             }
 
-            return question.getOptions().stream()
+            return options.stream()
                     .anyMatch(opt -> opt.getId().equals(optId) && Boolean.TRUE.equals(opt.getIsCorrect()));
         }
 
         // For text-based answers
         Object answerText = answer.get("answer");
         if (answerText != null) {
-            return question.getOptions().stream()
+            return options.stream()
                     .anyMatch(opt -> Boolean.TRUE.equals(opt.getIsCorrect())
                             && opt.getText().equalsIgnoreCase(answerText.toString()));
         }
@@ -467,14 +734,18 @@ public class QuizService {
         return false;
     }
 
+    private List<QuestionResponse> loadQuestions(QuizAttempt attempt) {
+        return quizSnapshotService.load(attempt.getId())
+                .orElseGet(() -> loadQuestionsFromConfig(attempt));
+    }
+
+    // Fallback for attempts started before question snapshots existed
     @SuppressWarnings("unchecked")
     private List<QuestionResponse> loadQuestionsFromConfig(QuizAttempt attempt) {
         if (attempt.getConfigJson() != null && attempt.getConfigJson().containsKey("questionIds")) {
             List<Number> questionIds = (List<Number>) attempt.getConfigJson().get("questionIds");
             List<Long> ids = questionIds.stream().map(Number::longValue).collect(Collectors.toList());
-            return questionRepository.findAllById(ids).stream()
-                    .map(QuestionResponse::from)
-                    .collect(Collectors.toList());
+            return questionResponseCache.getAllInOrder(ids);
         }
         return List.of();
     }
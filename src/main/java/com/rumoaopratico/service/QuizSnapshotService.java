@@ -0,0 +1,84 @@
+package com.rumoaopratico.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rumoaopratico.dto.response.QuestionResponse;
+import com.rumoaopratico.model.QuizAttemptSnapshot;
+import com.rumoaopratico.repository.QuizAttemptSnapshotRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores the questions of an attempt, frozen at quiz start, as a single compressed row.
+ * Reads are one primary-key lookup with no joins, and admin edits made mid-quiz do not
+ * change an attempt that is already in progress.
+ */
+@Service
+@RequiredArgsConstructor
+public class QuizSnapshotService {
+
+    private static final TypeReference<List<QuestionResponse>> QUESTION_LIST = new TypeReference<>() {};
+
+    private final QuizAttemptSnapshotRepository snapshotRepository;
+    private final ObjectMapper objectMapper;
+
+    private ObjectMapper snapshotMapper;
+
+    @PostConstruct
+    public void init() {
+        this.snapshotMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    public void save(Long attemptId, List<QuestionResponse> questions) {
+        snapshotRepository.insert(attemptId, encode(questions));
+    }
+
+    public Optional<List<QuestionResponse>> load(Long attemptId) {
+        return snapshotRepository.findById(attemptId)
+                .map(snapshot -> decode(snapshot.getPayload()));
+    }
+
+    /**
+     * Loads several snapshots in one query, keyed by attempt id; attempts without a snapshot are absent.
+     */
+    public Map<Long, List<QuestionResponse>> loadAll(Collection<Long> attemptIds) {
+        Map<Long, List<QuestionResponse>> snapshots = new HashMap<>();
+        for (QuizAttemptSnapshot snapshot : snapshotRepository.findAllById(attemptIds)) {
+            snapshots.put(snapshot.getAttemptId(), decode(snapshot.getPayload()));
+        }
+        return snapshots;
+    }
+
+    private byte[] encode(List<QuestionResponse> questions) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            snapshotMapper.writeValue(out, questions);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode quiz snapshot", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private List<QuestionResponse> decode(byte[] payload) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+            return snapshotMapper.readValue(in, QUESTION_LIST);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not decode quiz snapshot", e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.model.QuizAnswer;
+import com.rumoaopratico.model.ReviewCard;
+import com.rumoaopratico.model.enums.Difficulty;
+import com.rumoaopratico.model.enums.QuestionType;
+import com.rumoaopratico.repository.ReviewCardRepository;
+import com.rumoaopratico.util.Tags;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps review_cards in step with submitted answers. Must run inside the transaction
+ * that stores the answers.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReviewCardService {
+
+    private final ReviewCardRepository reviewCardRepository;
+
+    public void recordAnswers(Long userId, List<QuizAnswer> answers) {
+        if (answers.isEmpty()) return;
+
+        Set<Long> questionIds = answers.stream()
+                .map(a -> a.getQuestion().getId())
+                .collect(Collectors.toSet());
+        Map<Long, ReviewCard> cards = reviewCardRepository.findByUserIdAndQuestionIdIn(userId, questionIds).stream()
+                .collect(Collectors.toMap(ReviewCard::getQuestionId, Function.identity()));
+
+        Map<Long, ReviewCard> created = new LinkedHashMap<>();
+        for (QuizAnswer answer : answers) {
+            Long questionId = answer.getQuestion().getId();
+            ReviewCard card = cards.get(questionId);
+            if (card == null) {
+                card = created.computeIfAbsent(questionId, id -> ReviewCard.newCard(userId, id));
+            }
+            LocalDateTime reviewedAt = answer.getAnsweredAt() != null ? answer.getAnsweredAt() : LocalDateTime.now();
+            if (card.getLastReviewedAt() != null && !reviewedAt.isAfter(card.getLastReviewedAt())) {
+                // Already applied, e.g. a replayed journal segment
+                continue;
+            }
+            // Loaded cards are managed, so their update is flushed with the transaction
+            ReviewScheduler.schedule(card, Boolean.TRUE.equals(answer.getIsCorrect()), reviewedAt);
+        }
+
+        created.values().forEach(reviewCardRepository::insertIfAbsent);
+    }
+
+    public List<Long> findDue(Long userId, List<Long> topicIds, List<QuestionType> types,
+                              Difficulty difficulty, Set<String> tags, int limit) {
+        return reviewCardRepository.findDueQuestionIds(userId, LocalDateTime.now(), topicIds, types, difficulty,
+                !tags.isEmpty(), Tags.forInClause(tags), PageRequest.of(0, limit));
+    }
+
+    public void deleteForUser(Long userId) {
+        reviewCardRepository.deleteByUserId(userId);
+    }
+}
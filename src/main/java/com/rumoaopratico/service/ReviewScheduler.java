@@ -0,0 +1,45 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.model.ReviewCard;
+
+import java.time.LocalDateTime;
+
+/**
+ * SM-2 scheduling with binary grading: a correct answer counts as quality 4 and an incorrect
+ * one as quality 1, which resets the card to a one-day interval.
+ */
+final class ReviewScheduler {
+
+    static final int CORRECT_QUALITY = 4;
+    static final int INCORRECT_QUALITY = 1;
+    static final double MIN_EASE_FACTOR = 1.3;
+
+    private ReviewScheduler() {
+    }
+
+    static void schedule(ReviewCard card, boolean correct, LocalDateTime reviewedAt) {
+        int quality = correct ? CORRECT_QUALITY : INCORRECT_QUALITY;
+
+        if (quality >= 3) {
+            int interval;
+            if (card.getRepetitions() == 0) {
+                interval = 1;
+            } else if (card.getRepetitions() == 1) {
+                interval = 6;
+            } else {
+                interval = (int) Math.round(card.getIntervalDays() * card.getEaseFactor());
+            }
+            card.setIntervalDays(interval);
+            card.setRepetitions(card.getRepetitions() + 1);
+        } else {
+            card.setRepetitions(0);
+            card.setIntervalDays(1);
+        }
+
+        int lapse = 5 - quality;
+        double ease = card.getEaseFactor() + (0.1 - lapse * (0.08 + lapse * 0.02));
+        card.setEaseFactor(Math.max(MIN_EASE_FACTOR, ease));
+        card.setLastReviewedAt(reviewedAt);
+        card.setDueAt(reviewedAt.plusDays(card.getIntervalDays()));
+    }
+}
@@ -0,0 +1,188 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.model.ScoreDistribution;
+import com.rumoaopratico.model.enums.QuizMode;
+import com.rumoaopratico.repository.ScoreDistributionRepository;
+import com.rumoaopratico.util.ScoreHistogram;
+import com.rumoaopratico.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Score distributions per scope (overall, quiz mode, topic) for "compared to others"
+ * percentiles. Finished attempts are recorded into a local pending histogram; a periodic
+ * flush adds the pending counts to the shared rows under a row lock and reloads them, so
+ * every node converges on the merge of all nodes' histograms. Reads see the last loaded
+ * snapshot plus this node's pending counts. A flush with nothing to write only reloads once
+ * the snapshot is older than the refresh interval, to pick up the other nodes' counts.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ScoreDistributions {
+
+    private final ScoreDistributionRepository scoreDistributionRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${quiz.score-distribution.enabled:true}")
+    private boolean enabled;
+
+    @Value("${quiz.score-distribution.refresh-interval-ms:300000}")
+    private long refreshIntervalMs;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Guarded by this
+    private Map<String, ScoreHistogram> snapshot = new HashMap<>();
+    private Map<String, ScoreHistogram> pending = new HashMap<>();
+    private Map<String, ScoreHistogram> flushing = Map.of(); // written, but not in the snapshot yet
+    private boolean loaded;
+    private long loadedAtNanos;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public static String overall() {
+        return "OVERALL";
+    }
+
+    public static String mode(QuizMode mode) {
+        return "MODE:" + mode.name();
+    }
+
+    public static String topic(Long topicId) {
+        return "TOPIC:" + topicId;
+    }
+
+    /**
+     * Records a finished attempt's scores (percentages) once the surrounding transaction commits.
+     */
+    public void recordFinished(QuizMode mode, Double score, Map<Long, Double> scoreByTopic) {
+        TransactionUtils.afterCommit(() -> {
+            synchronized (this) {
+                if (score != null) {
+                    pendingFor(overall()).add(score);
+                    pendingFor(mode(mode)).add(score);
+                }
+                scoreByTopic.forEach((topicId, topicScore) -> pendingFor(topic(topicId)).add(topicScore));
+            }
+        });
+    }
+
+    public Double percentileRank(String scope, double score) {
+        return percentileRank(List.of(scope), score);
+    }
+
+    /**
+     * Percentage of recorded scores in the given scopes below {@code score} (ties count half),
+     * or null if the scopes have no scores yet.
+     */
+    public Double percentileRank(Collection<String> scopes, double score) {
+        ensureLoaded();
+        synchronized (this) {
+            ScoreHistogram merged = new ScoreHistogram();
+            for (String scope : scopes) {
+                for (Map<String, ScoreHistogram> source : List.of(snapshot, flushing, pending)) {
+                    ScoreHistogram histogram = source.get(scope);
+                    if (histogram != null) merged.merge(histogram);
+                }
+            }
+            Double rank = merged.percentileRank(score);
+            return rank != null ? Math.round(rank * 100.0) / 100.0 : null;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${quiz.score-distribution.flush-interval-ms:60000}",
+               initialDelayString = "${quiz.score-distribution.flush-interval-ms:60000}")
+    public void scheduledFlush() {
+        if (!enabled) return;
+        flush();
+    }
+
+    public void flush() {
+        Map<String, ScoreHistogram> toWrite;
+        synchronized (this) {
+            toWrite = pending;
+            pending = new HashMap<>();
+            flushing = toWrite;
+        }
+        try {
+            if (!toWrite.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> toWrite.forEach(this::addToStored));
+            }
+        } catch (RuntimeException e) {
+            // Keep the counts for the next flush
+            synchronized (this) {
+                toWrite.forEach((scope, histogram) -> pendingFor(scope).merge(histogram));
+                flushing = Map.of();
+            }
+            log.warn("Failed to flush score distributions, retrying on the next flush", e);
+            return;
+        }
+        if (toWrite.isEmpty() && isFresh()) return;
+        reload(true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (this) {
+            if (pending.isEmpty()) return;
+        }
+        flush();
+    }
+
+    private void addToStored(String scope, ScoreHistogram histogram) {
+        scoreDistributionRepository.insertIfAbsent(scope);
+        ScoreDistribution row = scoreDistributionRepository.findByScopeForUpdate(scope).orElseThrow();
+        ScoreHistogram stored = ScoreHistogram.of(row.getCounts());
+        stored.merge(histogram);
+        row.setCounts(stored.toCounts());
+        row.setTotal(stored.total());
+        row.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private void reload(boolean flushed) {
+        Map<String, ScoreHistogram> loadedSnapshot = new HashMap<>();
+        for (ScoreDistribution row : scoreDistributionRepository.findAll()) {
+            loadedSnapshot.put(row.getScope(), ScoreHistogram.of(row.getCounts()));
+        }
+        synchronized (this) {
+            snapshot = loadedSnapshot;
+            if (flushed) flushing = Map.of();
+            loaded = true;
+            loadedAtNanos = System.nanoTime();
+        }
+    }
+
+    private synchronized boolean isFresh() {
+        return loaded && System.nanoTime() - loadedAtNanos < refreshIntervalMs * 1_000_000L;
+    }
+
+    private void ensureLoaded() {
+        synchronized (this) {
+            if (loaded) return;
+        }
+        reload(false);
+    }
+
+    private ScoreHistogram pendingFor(String scope) {
+        return pending.computeIfAbsent(scope, s -> new ScoreHistogram());
+    }
+}
@@ -19,7 +19,10 @@ public class TopicService {
 
     private final TopicRepository topicRepository;
     private final UserRepository userRepository;
+    private final QuestionResponseCache questionResponseCache;
+    private final CatalogVersion catalogVersion;
 
+    @Transactional(readOnly = true)
     public Page<TopicResponse> getTopics(Long userId, Pageable pageable) {
         // Topics are global — all users see all topics
         return topicRepository.findAll(pageable)
@@ -50,6 +53,7 @@ public class TopicService {
                 .build();
 
         topic = topicRepository.save(topic);
+        catalogVersion.bump();
         return TopicResponse.from(topic);
     }
 
@@ -69,6 +73,8 @@ public class TopicService {
         }
 
         topic = topicRepository.save(topic);
+        questionResponseCache.invalidateTopic(topicId);
+        catalogVersion.bump();
         return TopicResponse.from(topic);
     }
 
@@ -77,5 +83,7 @@ public class TopicService {
         Topic topic = topicRepository.findById(topicId)
                 .orElseThrow(() -> new ResourceNotFoundException("Topic", topicId));
         topicRepository.delete(topic);
+        questionResponseCache.invalidateTopic(topicId);
+        catalogVersion.bump();
     }
 }
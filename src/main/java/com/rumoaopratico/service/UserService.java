@@ -1,13 +1,17 @@
 package com.rumoaopratico.service;
 
 import com.rumoaopratico.dto.request.UpdateUserRequest;
+import com.rumoaopratico.dto.response.ProgressResponse;
 import com.rumoaopratico.dto.response.UserResponse;
 import com.rumoaopratico.dto.response.UserStatsResponse;
+import com.rumoaopratico.exception.BadRequestException;
 import com.rumoaopratico.exception.DuplicateResourceException;
 import com.rumoaopratico.exception.ResourceNotFoundException;
-import com.rumoaopratico.model.QuizAnswer;
-import com.rumoaopratico.model.QuizAttempt;
 import com.rumoaopratico.model.User;
+import com.rumoaopratico.model.UserDailyProgress;
+import com.rumoaopratico.model.UserStats;
+import com.rumoaopratico.model.enums.ProgressGranularity;
+import com.rumoaopratico.model.enums.QuizMode;
 import com.rumoaopratico.repository.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -15,18 +19,24 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import java.time.Duration;
+import java.time.LocalDate;
 import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
+    private static final int MAX_PROGRESS_PERIODS = 1000;
+
     private final UserRepository userRepository;
     private final TopicRepository topicRepository;
     private final QuestionRepository questionRepository;
-    private final QuizAttemptRepository quizAttemptRepository;
-    private final QuizAnswerRepository quizAnswerRepository;
+    private final UserQuestionStatsRepository userQuestionStatsRepository;
+    private final UserStatsRepository userStatsRepository;
+    private final UserTopicStatsRepository userTopicStatsRepository;
+    private final UserDailyProgressRepository userDailyProgressRepository;
+    private final UserDailyTopicProgressRepository userDailyTopicProgressRepository;
+    private final ScoreDistributions scoreDistributions;
     private final PasswordEncoder passwordEncoder;
 
     public UserResponse getCurrentUser(Long userId) {
@@ -62,80 +72,55 @@ public class UserService {
 
     @Transactional(readOnly = true)
     public UserStatsResponse getUserStats(Long userId) {
-        // Only count finished quizzes
-        long totalAnswered = quizAttemptRepository.sumTotalQuestionsByUserId(userId);
-        long totalCorrect = quizAttemptRepository.sumCorrectCountByUserId(userId);
         long totalTopics = topicRepository.count();
         long totalQuestionsRegistered = questionRepository.countAllActive();
-        long uniqueQuestionsAnswered = quizAnswerRepository.countUniqueQuestionsAnsweredByUserId(userId);
-
-        double averageScore = totalAnswered > 0 ? (double) totalCorrect / totalAnswered * 100 : 0;
+        long uniqueQuestionsAnswered = userQuestionStatsRepository.countByUserId(userId);
 
-        // Calculate from finished attempts only
-        List<QuizAttempt> allAttempts = quizAttemptRepository.findAllByUserId(userId);
-        long totalTimeSeconds = 0;
-        long finishedCount = 0;
+        // Totals over finished attempts, one aggregate row per quiz mode
+        long finishedCount = 0, totalAnswered = 0, totalCorrect = 0, totalTimeSeconds = 0;
         long studyCount = 0, evalCount = 0;
         long studyCorrect = 0, studyTotal = 0;
         long evalCorrect = 0, evalTotal = 0;
-        Map<String, Long> quizzesByTopic = new LinkedHashMap<>();
-        Map<String, Double> scoreByTopic = new LinkedHashMap<>();
         Map<String, Long> quizzesByType = new LinkedHashMap<>();
-        Map<String, long[]> topicStats = new LinkedHashMap<>();
-
-        for (QuizAttempt attempt : allAttempts) {
-            // Skip unfinished quizzes
-            if (attempt.getFinishedAt() == null) continue;
-            finishedCount++;
-
-            // Total time
-            if (attempt.getStartedAt() != null) {
-                totalTimeSeconds += Duration.between(attempt.getStartedAt(), attempt.getFinishedAt()).getSeconds();
-            }
-
-            // Count by mode
-            if (attempt.getMode() != null) {
-                String modeName = attempt.getMode().name();
-                quizzesByType.merge(modeName, 1L, Long::sum);
-                int correct = attempt.getCorrectCount() != null ? attempt.getCorrectCount() : 0;
-                int total = attempt.getTotalQuestions() != null ? attempt.getTotalQuestions() : 0;
-                if ("STUDY".equals(modeName)) {
-                    studyCount++;
-                    studyCorrect += correct;
-                    studyTotal += total;
-                } else if ("EVALUATION".equals(modeName)) {
-                    evalCount++;
-                    evalCorrect += correct;
-                    evalTotal += total;
-                }
-            }
-
-            // Per-topic breakdowns from answers
-            List<QuizAnswer> answers = quizAnswerRepository.findByAttemptId(attempt.getId());
-            Set<String> attemptTopics = new LinkedHashSet<>();
-            for (QuizAnswer answer : answers) {
-                String topicName = answer.getQuestion().getTopic().getName();
-                attemptTopics.add(topicName);
-                topicStats.computeIfAbsent(topicName, k -> new long[]{0, 0});
-                long[] ts = topicStats.get(topicName);
-                ts[1]++;
-                if (Boolean.TRUE.equals(answer.getIsCorrect())) {
-                    ts[0]++;
-                }
-            }
-
-            for (String topic : attemptTopics) {
-                quizzesByTopic.merge(topic, 1L, Long::sum);
+        for (UserStats stats : userStatsRepository.findByUserIdOrderByMode(userId)) {
+            finishedCount += stats.getQuizzes();
+            totalAnswered += stats.getQuestions();
+            totalCorrect += stats.getCorrect();
+            totalTimeSeconds += stats.getTimeSeconds();
+            quizzesByType.put(stats.getMode().name(), (long) stats.getQuizzes());
+            if (stats.getMode() == QuizMode.STUDY) {
+                studyCount = stats.getQuizzes();
+                studyCorrect = stats.getCorrect();
+                studyTotal = stats.getQuestions();
+            } else if (stats.getMode() == QuizMode.EVALUATION) {
+                evalCount = stats.getQuizzes();
+                evalCorrect = stats.getCorrect();
+                evalTotal = stats.getQuestions();
             }
         }
 
-        // Score per topic
-        for (Map.Entry<String, long[]> entry : topicStats.entrySet()) {
-            long[] ts = entry.getValue();
-            double score = ts[1] > 0 ? (double) ts[0] / ts[1] * 100 : 0;
-            scoreByTopic.put(entry.getKey(), Math.round(score * 100.0) / 100.0);
+        // Per-topic breakdowns; topics sharing a name are reported together
+        Map<String, Long> quizzesByTopic = new LinkedHashMap<>();
+        Map<String, long[]> answersByTopic = new LinkedHashMap<>();
+        Map<String, List<String>> scopesByTopic = new HashMap<>();
+        for (Object[] row : userTopicStatsRepository.findTopicTotalsByUserId(userId)) {
+            String topicName = (String) row[0];
+            quizzesByTopic.merge(topicName, ((Number) row[1]).longValue(), Long::sum);
+            long[] answers = answersByTopic.computeIfAbsent(topicName, name -> new long[2]);
+            answers[0] += ((Number) row[2]).longValue();
+            answers[1] += ((Number) row[3]).longValue();
+            scopesByTopic.computeIfAbsent(topicName, name -> new ArrayList<>())
+                    .add(ScoreDistributions.topic((Long) row[4]));
         }
+        Map<String, Double> scoreByTopic = new LinkedHashMap<>();
+        Map<String, Double> percentileByTopic = new LinkedHashMap<>();
+        answersByTopic.forEach((topicName, answers) -> {
+            double score = answers[1] > 0 ? (double) answers[0] / answers[1] * 100 : 0;
+            scoreByTopic.put(topicName, Math.round(score * 100.0) / 100.0);
+            percentileByTopic.put(topicName, scoreDistributions.percentileRank(scopesByTopic.get(topicName), score));
+        });
 
+        double averageScore = totalAnswered > 0 ? (double) totalCorrect / totalAnswered * 100 : 0;
         double avgStudy = studyTotal > 0 ? (double) studyCorrect / studyTotal * 100 : 0;
         double avgEval = evalTotal > 0 ? (double) evalCorrect / evalTotal * 100 : 0;
 
@@ -150,11 +135,82 @@ public class UserService {
                 .averageScore(Math.round(averageScore * 100.0) / 100.0)
                 .averageScoreStudy(Math.round(avgStudy * 100.0) / 100.0)
                 .averageScoreEvaluation(Math.round(avgEval * 100.0) / 100.0)
+                .averageScorePercentile(finishedCount > 0
+                        ? scoreDistributions.percentileRank(ScoreDistributions.overall(), averageScore)
+                        : null)
                 .totalTime(totalTimeSeconds)
                 .quizzesByTopic(quizzesByTopic)
                 .scoreByTopic(scoreByTopic)
+                .percentileByTopic(percentileByTopic)
                 .quizzesByType(quizzesByType)
                 .totalTopics(totalTopics)
                 .build();
     }
+
+    /**
+     * Activity between {@code from} and {@code to} (inclusive) per day, week or month, read from
+     * the daily rollups. Defaults to the last 30 days, 12 weeks or 12 months up to today.
+     */
+    @Transactional(readOnly = true)
+    public ProgressResponse getProgress(Long userId, LocalDate from, LocalDate to, ProgressGranularity granularity) {
+        if (granularity == null) granularity = ProgressGranularity.DAY;
+        if (to == null) to = LocalDate.now();
+        if (from == null) {
+            from = switch (granularity) {
+                case DAY -> to.minusDays(29);
+                case WEEK -> granularity.periodStart(to).minusWeeks(11);
+                case MONTH -> granularity.periodStart(to).minusMonths(11);
+            };
+        }
+        if (from.isAfter(to)) {
+            throw new BadRequestException("'from' must not be after 'to'");
+        }
+
+        Map<LocalDate, ProgressResponse.Point> points = new LinkedHashMap<>();
+        for (LocalDate period = granularity.periodStart(from); !period.isAfter(to); period = granularity.next(period)) {
+            if (points.size() == MAX_PROGRESS_PERIODS) {
+                throw new BadRequestException("Date range too large for granularity " + granularity
+                        + " (max " + MAX_PROGRESS_PERIODS + " periods)");
+            }
+            points.put(period, ProgressResponse.Point.builder().periodStart(period).byTopic(new ArrayList<>()).build());
+        }
+
+        for (UserDailyProgress day : userDailyProgressRepository.findByUserIdAndDayBetweenOrderByDay(userId, from, to)) {
+            ProgressResponse.Point point = points.get(granularity.periodStart(day.getDay()));
+            point.setAttempts(point.getAttempts() + day.getAttempts());
+            point.setAnswered(point.getAnswered() + day.getAnswered());
+            point.setCorrect(point.getCorrect() + day.getCorrect());
+            point.setStudySeconds(point.getStudySeconds() + day.getStudySeconds());
+        }
+
+        Map<LocalDate, Map<Long, ProgressResponse.TopicPoint>> topicsByPeriod = new HashMap<>();
+        for (Object[] row : userDailyTopicProgressRepository.findWithTopicName(userId, from, to)) {
+            LocalDate period = granularity.periodStart((LocalDate) row[0]);
+            Long topicId = (Long) row[1];
+            ProgressResponse.TopicPoint topic = topicsByPeriod
+                    .computeIfAbsent(period, p -> new LinkedHashMap<>())
+                    .computeIfAbsent(topicId, id -> {
+                        ProgressResponse.TopicPoint created = ProgressResponse.TopicPoint.builder()
+                                .topicId(id).topicName((String) row[2]).build();
+                        points.get(period).getByTopic().add(created);
+                        return created;
+                    });
+            topic.setAttempts(topic.getAttempts() + ((Number) row[3]).longValue());
+            topic.setAnswered(topic.getAnswered() + ((Number) row[4]).longValue());
+            topic.setCorrect(topic.getCorrect() + ((Number) row[5]).longValue());
+            topic.setStudySeconds(topic.getStudySeconds() + ((Number) row[6]).longValue());
+        }
+
+        points.values().forEach(point -> {
+            double score = point.getAnswered() > 0 ? (double) point.getCorrect() / point.getAnswered() * 100 : 0;
+            point.setScore(Math.round(score * 100.0) / 100.0);
+        });
+
+        return ProgressResponse.builder()
+                .from(from)
+                .to(to)
+                .granularity(granularity)
+                .points(new ArrayList<>(points.values()))
+                .build();
+    }
 }
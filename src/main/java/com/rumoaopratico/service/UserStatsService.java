@@ -0,0 +1,125 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.model.QuizAttempt;
+import com.rumoaopratico.repository.*;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the per-user aggregates behind the profile dashboard (user_stats, user_topic_stats)
+ * and the daily progress rollups behind its charts, and feeds the leaderboards and score
+ * distributions. Finished attempts are added incrementally in the transaction that finishes
+ * them; a rebuild recomputes a user's rows from quiz_attempts and quiz_answers, for backfills
+ * and to pick up questions that moved to another topic after being answered.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserStatsService {
+
+    private final UserStatsRepository userStatsRepository;
+    private final UserTopicStatsRepository userTopicStatsRepository;
+    private final UserDailyProgressRepository userDailyProgressRepository;
+    private final UserDailyTopicProgressRepository userDailyTopicProgressRepository;
+    private final QuizAnswerRepository quizAnswerRepository;
+    private final UserRepository userRepository;
+    private final LeaderboardIndex leaderboardIndex;
+    private final ScoreDistributions scoreDistributions;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Adds an attempt that was just finished or abandoned. Must run inside the transaction
+     * that sets its finishedAt, and only once per attempt.
+     */
+    public void recordFinished(Long userId, QuizAttempt attempt) {
+        long timeSeconds = attempt.getStartedAt() != null
+                ? Duration.between(attempt.getStartedAt(), attempt.getFinishedAt()).getSeconds()
+                : 0;
+        long attemptCorrect = attempt.getCorrectCount() != null ? attempt.getCorrectCount() : 0;
+        userStatsRepository.addAttempt(userId, attempt.getMode().name(),
+                attempt.getTotalQuestions() != null ? attempt.getTotalQuestions() : 0,
+                attemptCorrect, timeSeconds);
+
+        List<Object[]> topicRows = quizAnswerRepository.countByTopicForAttempt(attempt.getId());
+        long answered = 0;
+        long correct = 0;
+        for (Object[] row : topicRows) {
+            answered += ((Number) row[1]).longValue();
+            correct += row[2] != null ? ((Number) row[2]).longValue() : 0;
+        }
+
+        LocalDate day = attempt.getFinishedAt().toLocalDate();
+        userDailyProgressRepository.addAttempt(userId, day, answered, correct, timeSeconds);
+        Map<Long, Long> correctByTopic = new HashMap<>();
+        Map<Long, Double> scoreByTopic = new HashMap<>();
+        for (Object[] row : topicRows) {
+            Long topicId = (Long) row[0];
+            long topicAnswered = ((Number) row[1]).longValue();
+            long topicCorrect = row[2] != null ? ((Number) row[2]).longValue() : 0;
+            userTopicStatsRepository.addAttempt(userId, topicId, topicAnswered, topicCorrect);
+            // The attempt's time is split across its topics by share of answers, rounded down
+            userDailyTopicProgressRepository.addAttempt(userId, day, topicId, topicAnswered, topicCorrect,
+                    timeSeconds * topicAnswered / answered);
+            correctByTopic.put(topicId, topicCorrect);
+            scoreByTopic.put(topicId, (double) topicCorrect / topicAnswered * 100);
+        }
+        leaderboardIndex.recordFinished(userId, attempt.getMode(), attemptCorrect, correctByTopic);
+
+        int totalQuestions = attempt.getTotalQuestions() != null ? attempt.getTotalQuestions() : 0;
+        scoreDistributions.recordFinished(attempt.getMode(),
+                totalQuestions > 0 ? (double) attemptCorrect / totalQuestions * 100 : null, scoreByTopic);
+    }
+
+    @Transactional
+    public void rebuild(Long userId) {
+        deleteForUser(userId);
+        userStatsRepository.insertFromAttempts(userId);
+        userTopicStatsRepository.insertFromAnswers(userId);
+        userDailyProgressRepository.insertFromAttempts(userId);
+        userDailyTopicProgressRepository.insertFromAnswers(userId);
+        leaderboardIndex.reloadUser(userId);
+    }
+
+    /**
+     * Rebuilds every user, one transaction per user. Scheduled only when
+     * {@code quiz.user-stats.rebuild-cron} is set.
+     */
+    @Scheduled(cron = "${quiz.user-stats.rebuild-cron:-}")
+    public void rebuildAll() {
+        int rebuilt = 0;
+        for (Long userId : userRepository.findAllIds()) {
+            transactionTemplate.executeWithoutResult(status -> rebuild(userId));
+            rebuilt++;
+        }
+        log.info("Rebuilt stats aggregates of {} users", rebuilt);
+    }
+
+    public void deleteForUser(Long userId) {
+        userStatsRepository.deleteByUserId(userId);
+        userTopicStatsRepository.deleteByUserId(userId);
+        userDailyProgressRepository.deleteByUserId(userId);
+        userDailyTopicProgressRepository.deleteByUserId(userId);
+        leaderboardIndex.removeUser(userId);
+    }
+}
@@ -0,0 +1,150 @@
+package com.rumoaopratico.util;
+
+import java.util.Arrays;
+
+/**
+ * Roaring-style compressed bitmap of non-negative long values. Values are partitioned
+ * by their high bits into 2^16-wide chunks; sparse chunks are stored as sorted
+ * {@code char} arrays and dense chunks as 8 KB bitsets. Not thread-safe.
+ */
+public class CompactBitmap {
+
+    private static final int ARRAY_CONTAINER_MAX = 4096;
+
+    private long[] keys = new long[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    public static CompactBitmap of(Iterable<? extends Number> values) {
+        CompactBitmap bitmap = new CompactBitmap();
+        for (Number value : values) {
+            bitmap.add(value.longValue());
+        }
+        return bitmap;
+    }
+
+    public void add(long value) {
+        long key = value >>> 16;
+        int idx = Arrays.binarySearch(keys, 0, size, key);
+        if (idx >= 0) {
+            containers[idx] = containers[idx].add((char) value);
+            return;
+        }
+        int insertAt = -idx - 1;
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, insertAt, keys, insertAt + 1, size - insertAt);
+        System.arraycopy(containers, insertAt, containers, insertAt + 1, size - insertAt);
+        keys[insertAt] = key;
+        containers[insertAt] = new ArrayContainer().add((char) value);
+        size++;
+    }
+
+    public boolean contains(long value) {
+        int idx = Arrays.binarySearch(keys, 0, size, value >>> 16);
+        return idx >= 0 && containers[idx].contains((char) value);
+    }
+
+    public long getCardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * Approximate heap footprint, used by callers to size caches.
+     */
+    public long sizeInBytes() {
+        long bytes = 16L + keys.length * 8L + containers.length * 8L;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private interface Container {
+        Container add(char low);
+
+        boolean contains(char low);
+
+        int cardinality();
+
+        long sizeInBytes();
+    }
+
+    private static final class ArrayContainer implements Container {
+        private char[] values = new char[4];
+        private int cardinality;
+
+        @Override
+        public Container add(char low) {
+            int idx = Arrays.binarySearch(values, 0, cardinality, low);
+            if (idx >= 0) return this;
+            if (cardinality == ARRAY_CONTAINER_MAX) {
+                BitmapContainer bitmap = new BitmapContainer();
+                for (int i = 0; i < cardinality; i++) {
+                    bitmap.add(values[i]);
+                }
+                return bitmap.add(low);
+            }
+            int insertAt = -idx - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, ARRAY_CONTAINER_MAX));
+            }
+            System.arraycopy(values, insertAt, values, insertAt + 1, cardinality - insertAt);
+            values[insertAt] = low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        public boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return 16L + values.length * 2L;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+        private final long[] words = new long[1024];
+        private int cardinality;
+
+        @Override
+        public Container add(char low) {
+            long mask = 1L << low;
+            int word = low >>> 6;
+            if ((words[word] & mask) == 0) {
+                words[word] |= mask;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        public boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return 16L + words.length * 8L;
+        }
+    }
+}
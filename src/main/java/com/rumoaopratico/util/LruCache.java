@@ -0,0 +1,84 @@
+package com.rumoaopratico.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Small thread-safe LRU cache bounded by entry count, with an optional time-to-live so
+ * entries populated on one application node eventually pick up writes made on others.
+ */
+public class LruCache<K, V> {
+
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public LruCache(int maxEntries, Duration ttl) {
+        this.ttlMillis = ttl != null ? ttl.toMillis() : 0;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) return null;
+        if (ttlMillis > 0 && System.currentTimeMillis() - entry.createdAt > ttlMillis) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Returns the cached value or loads it. The loader runs outside the cache lock, so two
+     * concurrent misses may both load; the last one wins.
+     */
+    public V computeIfAbsent(K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value != null) return value;
+        value = loader.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.currentTimeMillis()));
+    }
+
+    /**
+     * Stores {@code value}, or the result of {@code remapping} applied to the current live
+     * value and {@code value} when one exists, like {@link Map#merge}.
+     */
+    public synchronized void merge(K key, V value, BinaryOperator<V> remapping) {
+        V current = get(key);
+        put(key, current != null ? remapping.apply(current, value) : value);
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateIf(Predicate<V> predicate) {
+        entries.values().removeIf(entry -> predicate.test(entry.value));
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry<V>(V value, long createdAt) {
+    }
+}
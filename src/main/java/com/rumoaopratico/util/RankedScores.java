@@ -0,0 +1,110 @@
+package com.rumoaopratico.util;
+
+import java.util.*;
+
+/**
+ * Order-statistic set of (user id, score) pairs for leaderboards. A Fenwick tree over score
+ * values counts users per score, so a user's rank costs O(log maxScore); a sorted set keeps
+ * the entries in rank order for top-N reads. Scores are non-negative; users with equal
+ * scores share a rank. Not thread-safe.
+ */
+public class RankedScores {
+
+    private static final Comparator<Entry> RANK_ORDER =
+            Comparator.comparingInt(Entry::score).reversed().thenComparingLong(Entry::userId);
+
+    private final Map<Long, Integer> scoreByUser = new HashMap<>();
+    private final TreeSet<Entry> ordered = new TreeSet<>(RANK_ORDER);
+    private int[] tree = new int[64]; // 1-based Fenwick tree; score s is stored at index s + 1
+
+    public void set(long userId, int score) {
+        if (score < 0) {
+            throw new IllegalArgumentException("Negative score: " + score);
+        }
+        Integer previous = scoreByUser.put(userId, score);
+        if (previous != null) {
+            if (previous == score) return;
+            ordered.remove(new Entry(userId, previous));
+            addCount(previous, -1);
+        }
+        addCount(score, 1);
+        ordered.add(new Entry(userId, score));
+    }
+
+    public void add(long userId, int delta) {
+        set(userId, Math.max(0, scoreByUser.getOrDefault(userId, 0) + delta));
+    }
+
+    public void remove(long userId) {
+        Integer previous = scoreByUser.remove(userId);
+        if (previous != null) {
+            ordered.remove(new Entry(userId, previous));
+            addCount(previous, -1);
+        }
+    }
+
+    public OptionalInt score(long userId) {
+        Integer score = scoreByUser.get(userId);
+        return score != null ? OptionalInt.of(score) : OptionalInt.empty();
+    }
+
+    /**
+     * 1-based competition rank (one more than the number of users with a higher score),
+     * or empty if the user is not ranked.
+     */
+    public OptionalInt rank(long userId) {
+        Integer score = scoreByUser.get(userId);
+        if (score == null) return OptionalInt.empty();
+        return OptionalInt.of(scoreByUser.size() - countAtMost(score) + 1);
+    }
+
+    /**
+     * The first {@code n} entries in rank order, ties broken by user id.
+     */
+    public List<Entry> top(int n) {
+        List<Entry> result = new ArrayList<>(Math.min(n, ordered.size()));
+        for (Entry entry : ordered) {
+            if (result.size() == n) break;
+            result.add(entry);
+        }
+        return result;
+    }
+
+    public int size() {
+        return scoreByUser.size();
+    }
+
+    private int countAtMost(int score) {
+        int count = 0;
+        for (int i = Math.min(score + 1, tree.length - 1); i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    private void addCount(int score, int delta) {
+        if (score + 1 >= tree.length) {
+            grow(score + 1);
+        }
+        for (int i = score + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private void grow(int minIndex) {
+        int length = tree.length;
+        while (length <= minIndex) {
+            length *= 2;
+        }
+        // Recount from the ordered entries, which do not include the score being added yet
+        tree = new int[length];
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (Entry entry : ordered) {
+            counts.merge(entry.score(), 1, Integer::sum);
+        }
+        counts.forEach(this::addCount);
+    }
+
+    public record Entry(long userId, int score) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.rumoaopratico.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Distribution of percentage scores (0-100) in one-point buckets. Histograms merge by adding
+ * counts, so partial histograms recorded on different nodes combine exactly regardless of
+ * order. Not thread-safe.
+ */
+public class ScoreHistogram {
+
+    public static final int BUCKETS = 101;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+
+    /**
+     * Rebuilds a histogram from stored counts; missing trailing buckets count as zero.
+     */
+    public static ScoreHistogram of(List<? extends Number> counts) {
+        ScoreHistogram histogram = new ScoreHistogram();
+        for (int i = 0; i < Math.min(counts.size(), BUCKETS); i++) {
+            long count = counts.get(i).longValue();
+            histogram.counts[i] = count;
+            histogram.total += count;
+        }
+        return histogram;
+    }
+
+    public void add(double score) {
+        counts[bucket(score)]++;
+        total++;
+    }
+
+    public void merge(ScoreHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return total == 0;
+    }
+
+    /**
+     * Percentage of recorded scores below {@code score}, counting ties as half, or null when
+     * nothing has been recorded.
+     */
+    public Double percentileRank(double score) {
+        if (total == 0) return null;
+        int bucket = bucket(score);
+        long below = 0;
+        for (int i = 0; i < bucket; i++) {
+            below += counts[i];
+        }
+        return (below + counts[bucket] / 2.0) / total * 100;
+    }
+
+    /**
+     * Smallest score such that at least {@code quantile} (0-1) of the recorded scores are at
+     * or below it, or null when nothing has been recorded.
+     */
+    public Integer quantile(double quantile) {
+        if (total == 0) return null;
+        long target = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) return i;
+        }
+        return BUCKETS - 1;
+    }
+
+    public List<Long> toCounts() {
+        List<Long> result = new ArrayList<>(BUCKETS);
+        for (long count : counts) {
+            result.add(count);
+        }
+        return result;
+    }
+
+    private static int bucket(double score) {
+        return (int) Math.max(0, Math.min(BUCKETS - 1, Math.round(score)));
+    }
+}
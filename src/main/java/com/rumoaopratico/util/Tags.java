@@ -0,0 +1,56 @@
+package com.rumoaopratico.util;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Normalization of free-form question tags into the values stored in question_tags:
+ * comma-separated, trimmed, lower-cased, without blanks or duplicates.
+ */
+public final class Tags {
+
+    public static final int MAX_LENGTH = 100;
+
+    private Tags() {
+    }
+
+    public static Set<String> normalize(String raw) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (raw == null) return tags;
+        for (String part : raw.split(",")) {
+            String tag = normalizeOne(part);
+            if (tag != null) tags.add(tag);
+        }
+        return tags;
+    }
+
+    public static Set<String> normalize(Collection<String> raw) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (raw == null) return tags;
+        for (String value : raw) {
+            tags.addAll(normalize(value));
+        }
+        return tags;
+    }
+
+    /**
+     * Argument for a {@code t IN :tags} parameter guarded by an "any tag" flag. An empty IN list
+     * is invalid SQL, so an empty set becomes a placeholder that is never compared.
+     */
+    public static Collection<String> forInClause(Set<String> tags) {
+        return tags.isEmpty() ? List.of("") : tags;
+    }
+
+    /**
+     * A single normalized tag, or null when the value is blank.
+     */
+    public static String normalizeOne(String raw) {
+        if (raw == null) return null;
+        String tag = raw.trim().toLowerCase(Locale.ROOT);
+        if (tag.isEmpty()) return null;
+        return tag.length() > MAX_LENGTH ? tag.substring(0, MAX_LENGTH) : tag;
+    }
+}
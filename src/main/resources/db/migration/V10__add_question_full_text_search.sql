@@ -0,0 +1,52 @@
+-- V10: Portuguese full-text search over questions
+-- search_vector combines statement (A), option texts (B), explanation (C) and bibliography (D)
+-- under an accent-insensitive Portuguese configuration, kept current by triggers
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+CREATE TEXT SEARCH CONFIGURATION portuguese_unaccent (COPY = portuguese);
+ALTER TEXT SEARCH CONFIGURATION portuguese_unaccent
+    ALTER MAPPING FOR hword, hword_part, word WITH unaccent, portuguese_stem;
+
+ALTER TABLE questions ADD COLUMN search_vector TSVECTOR;
+
+CREATE FUNCTION question_search_vector(p_question_id BIGINT, p_statement TEXT, p_explanation TEXT, p_bibliography TEXT)
+RETURNS TSVECTOR LANGUAGE sql STABLE AS $$
+    SELECT setweight(to_tsvector('portuguese_unaccent', COALESCE(p_statement, '')), 'A')
+        || setweight(to_tsvector('portuguese_unaccent', COALESCE(
+               (SELECT string_agg(option_text, ' ') FROM question_options WHERE question_id = p_question_id), '')), 'B')
+        || setweight(to_tsvector('portuguese_unaccent', COALESCE(p_explanation, '')), 'C')
+        || setweight(to_tsvector('portuguese_unaccent', COALESCE(p_bibliography, '')), 'D')
+$$;
+
+CREATE FUNCTION questions_search_vector_trigger() RETURNS TRIGGER LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.search_vector := question_search_vector(NEW.id, NEW.statement, NEW.explanation, NEW.bibliography);
+    RETURN NEW;
+END
+$$;
+
+CREATE TRIGGER trg_questions_search_vector
+    BEFORE INSERT OR UPDATE OF statement, explanation, bibliography ON questions
+    FOR EACH ROW EXECUTE FUNCTION questions_search_vector_trigger();
+
+-- Options are written after their question, so they refresh the parent's vector
+CREATE FUNCTION question_options_search_vector_trigger() RETURNS TRIGGER LANGUAGE plpgsql AS $$
+DECLARE
+    v_question_id BIGINT;
+BEGIN
+    v_question_id := CASE WHEN TG_OP = 'DELETE' THEN OLD.question_id ELSE NEW.question_id END;
+    UPDATE questions q
+    SET search_vector = question_search_vector(q.id, q.statement, q.explanation, q.bibliography)
+    WHERE q.id = v_question_id;
+    RETURN NULL;
+END
+$$;
+
+CREATE TRIGGER trg_question_options_search_vector
+    AFTER INSERT OR UPDATE OF option_text OR DELETE ON question_options
+    FOR EACH ROW EXECUTE FUNCTION question_options_search_vector_trigger();
+
+UPDATE questions SET search_vector = question_search_vector(id, statement, explanation, bibliography);
+
+CREATE INDEX idx_questions_search_vector ON questions USING GIN (search_vector);
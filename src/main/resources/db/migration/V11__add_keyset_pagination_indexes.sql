@@ -0,0 +1,9 @@
+-- V11: Composite indexes backing keyset (cursor) pagination
+-- Questions are scrolled by (created_at, id) and attempts by (user_id, started_at, id), both descending
+
+DROP INDEX IF EXISTS idx_questions_created_at;
+CREATE INDEX idx_questions_created_at_id ON questions(created_at, id);
+
+-- The composite index also serves plain user_id lookups
+DROP INDEX IF EXISTS idx_quiz_attempts_user_id;
+CREATE INDEX idx_quiz_attempts_user_started_at_id ON quiz_attempts(user_id, started_at, id);
@@ -0,0 +1,4 @@
+-- V12: Optimistic version of questions
+-- Bumped on every edit so cached question responses can tell stale loads from fresh ones
+
+ALTER TABLE questions ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,14 @@
+-- V13: Denormalize the answering user onto quiz_answers
+-- Per-user answer lookups no longer need to join quiz_attempts
+
+ALTER TABLE quiz_answers ADD COLUMN user_id BIGINT REFERENCES users(id) ON DELETE CASCADE;
+
+UPDATE quiz_answers qa
+SET user_id = a.user_id
+FROM quiz_attempts a
+WHERE a.id = qa.attempt_id;
+
+ALTER TABLE quiz_answers ALTER COLUMN user_id SET NOT NULL;
+
+-- Covers per-user answer-status lookups as index-only scans
+CREATE INDEX idx_quiz_answers_user_question_correct ON quiz_answers(user_id, question_id, is_correct);
@@ -0,0 +1,19 @@
+-- V14: Normalized question tags
+-- questions.tags stays the free-form source; question_tags holds its trimmed, lower-cased entries
+
+CREATE TABLE question_tags (
+    question_id BIGINT NOT NULL REFERENCES questions(id) ON DELETE CASCADE,
+    tag VARCHAR(100) NOT NULL,
+    PRIMARY KEY (question_id, tag)
+);
+
+-- Tag filter and facet lookups start from the tag
+CREATE INDEX idx_question_tags_tag ON question_tags(tag, question_id);
+
+INSERT INTO question_tags (question_id, tag)
+SELECT DISTINCT q.id, LEFT(LOWER(TRIM(t.tag)), 100)
+FROM questions q
+CROSS JOIN LATERAL regexp_split_to_table(q.tags, ',') AS t(tag)
+WHERE q.tags IS NOT NULL
+  AND TRIM(t.tag) <> ''
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,43 @@
+-- V15: Per-user aggregates for the profile dashboard
+-- Updated in the transaction that finishes or abandons an attempt; replaces the scan of every
+-- attempt and answer of the user on each stats request
+
+CREATE TABLE user_stats (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    mode VARCHAR(20) NOT NULL,
+    quizzes INTEGER NOT NULL DEFAULT 0,
+    questions BIGINT NOT NULL DEFAULT 0,
+    correct BIGINT NOT NULL DEFAULT 0,
+    time_seconds BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, mode)
+);
+
+CREATE TABLE user_topic_stats (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    topic_id BIGINT NOT NULL REFERENCES topics(id) ON DELETE CASCADE,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    answered BIGINT NOT NULL DEFAULT 0,
+    correct BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, topic_id)
+);
+
+INSERT INTO user_stats (user_id, mode, quizzes, questions, correct, time_seconds)
+SELECT user_id, mode,
+       COUNT(*),
+       COALESCE(SUM(total_questions), 0),
+       COALESCE(SUM(correct_count), 0),
+       COALESCE(SUM(FLOOR(EXTRACT(EPOCH FROM (finished_at - started_at)))), 0)
+FROM quiz_attempts
+WHERE finished_at IS NOT NULL AND mode IS NOT NULL
+GROUP BY user_id, mode;
+
+INSERT INTO user_topic_stats (user_id, topic_id, attempts, answered, correct)
+SELECT ans.user_id, q.topic_id,
+       COUNT(DISTINCT ans.attempt_id),
+       COUNT(*),
+       COUNT(*) FILTER (WHERE ans.is_correct)
+FROM quiz_answers ans
+JOIN quiz_attempts a ON a.id = ans.attempt_id
+JOIN questions q ON q.id = ans.question_id
+WHERE a.finished_at IS NOT NULL
+GROUP BY ans.user_id, q.topic_id;
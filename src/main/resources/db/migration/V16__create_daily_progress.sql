@@ -0,0 +1,57 @@
+-- V16: Daily progress rollups for time-series charts
+-- One row per user and day, and one per user, day and topic, keyed by the day the attempt was
+-- finished. Study seconds of a topic are the attempt's duration apportioned by its answers,
+-- rounded down, so the topic rows may sum to slightly less than the day row
+
+CREATE TABLE user_daily_progress (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    activity_date DATE NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    answered BIGINT NOT NULL DEFAULT 0,
+    correct BIGINT NOT NULL DEFAULT 0,
+    study_seconds BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, activity_date)
+);
+
+CREATE TABLE user_daily_topic_progress (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    activity_date DATE NOT NULL,
+    topic_id BIGINT NOT NULL REFERENCES topics(id) ON DELETE CASCADE,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    answered BIGINT NOT NULL DEFAULT 0,
+    correct BIGINT NOT NULL DEFAULT 0,
+    study_seconds BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, activity_date, topic_id)
+);
+
+INSERT INTO user_daily_progress (user_id, activity_date, attempts, answered, correct, study_seconds)
+SELECT a.user_id, CAST(a.finished_at AS DATE),
+       COUNT(*),
+       COALESCE(SUM(c.answered), 0),
+       COALESCE(SUM(c.correct), 0),
+       COALESCE(SUM(FLOOR(EXTRACT(EPOCH FROM (a.finished_at - a.started_at)))), 0)
+FROM quiz_attempts a
+LEFT JOIN (
+    SELECT attempt_id, COUNT(*) AS answered, COUNT(*) FILTER (WHERE is_correct) AS correct
+    FROM quiz_answers
+    GROUP BY attempt_id
+) c ON c.attempt_id = a.id
+WHERE a.finished_at IS NOT NULL
+GROUP BY a.user_id, CAST(a.finished_at AS DATE);
+
+INSERT INTO user_daily_topic_progress (user_id, activity_date, topic_id, attempts, answered, correct, study_seconds)
+SELECT user_id, activity_date, topic_id, COUNT(*), SUM(answered), SUM(correct), SUM(study_seconds)
+FROM (
+    SELECT a.user_id, CAST(a.finished_at AS DATE) AS activity_date, t.topic_id, t.answered, t.correct,
+           COALESCE(FLOOR(EXTRACT(EPOCH FROM (a.finished_at - a.started_at)) * t.answered
+                          / SUM(t.answered) OVER (PARTITION BY t.attempt_id)), 0) AS study_seconds
+    FROM (
+        SELECT ans.attempt_id, q.topic_id, COUNT(*) AS answered, COUNT(*) FILTER (WHERE ans.is_correct) AS correct
+        FROM quiz_answers ans
+        JOIN questions q ON q.id = ans.question_id
+        GROUP BY ans.attempt_id, q.topic_id
+    ) t
+    JOIN quiz_attempts a ON a.id = t.attempt_id
+    WHERE a.finished_at IS NOT NULL
+) per_attempt
+GROUP BY user_id, activity_date, topic_id;
@@ -0,0 +1,39 @@
+-- V17: Score distributions for percentile comparisons
+-- One histogram of attempt scores (0-100, one-point buckets) per scope: OVERALL, MODE:<mode>
+-- and TOPIC:<topic id>. Nodes add their locally recorded counts periodically, so rows are
+-- the merge of every node's histogram
+
+CREATE TABLE score_distributions (
+    scope VARCHAR(50) PRIMARY KEY,
+    counts JSONB NOT NULL,
+    total BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+WITH attempt_scores AS (
+    SELECT 'OVERALL' AS scope, ROUND(correct_count * 100.0 / total_questions) AS bucket
+    FROM quiz_attempts
+    WHERE finished_at IS NOT NULL AND total_questions > 0
+    UNION ALL
+    SELECT 'MODE:' || mode, ROUND(correct_count * 100.0 / total_questions)
+    FROM quiz_attempts
+    WHERE finished_at IS NOT NULL AND total_questions > 0 AND mode IS NOT NULL
+    UNION ALL
+    SELECT 'TOPIC:' || q.topic_id, ROUND(COUNT(*) FILTER (WHERE ans.is_correct) * 100.0 / COUNT(*))
+    FROM quiz_answers ans
+    JOIN quiz_attempts a ON a.id = ans.attempt_id
+    JOIN questions q ON q.id = ans.question_id
+    WHERE a.finished_at IS NOT NULL
+    GROUP BY ans.attempt_id, q.topic_id
+),
+bucket_counts AS (
+    SELECT scope, bucket, COUNT(*) AS n
+    FROM attempt_scores
+    GROUP BY scope, bucket
+)
+INSERT INTO score_distributions (scope, counts, total)
+SELECT s.scope, jsonb_agg(COALESCE(c.n, 0) ORDER BY g.bucket), SUM(COALESCE(c.n, 0))
+FROM (SELECT DISTINCT scope FROM bucket_counts) s
+CROSS JOIN generate_series(0, 100) AS g(bucket)
+LEFT JOIN bucket_counts c ON c.scope = s.scope AND c.bucket = g.bucket
+GROUP BY s.scope;
@@ -0,0 +1,29 @@
+-- V18: Item analysis per question
+-- Sufficient statistics for the p-value (share of correct answers) and the discrimination
+-- index (point-biserial correlation between answering the item correctly and the rest-score,
+-- i.e. the share of the attempt's other answers that were correct). Filled incrementally by a
+-- background job from finished attempts past the high-water mark in item_analysis_state
+
+CREATE TABLE question_item_stats (
+    question_id BIGINT PRIMARY KEY REFERENCES questions(id) ON DELETE CASCADE,
+    responses BIGINT NOT NULL DEFAULT 0,
+    correct BIGINT NOT NULL DEFAULT 0,
+    -- Over answers in attempts with at least one other answer
+    paired_responses BIGINT NOT NULL DEFAULT 0,
+    paired_correct BIGINT NOT NULL DEFAULT 0,
+    sum_rest DOUBLE PRECISION NOT NULL DEFAULT 0,
+    sum_rest_sq DOUBLE PRECISION NOT NULL DEFAULT 0,
+    sum_correct_rest DOUBLE PRECISION NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE item_analysis_state (
+    id SMALLINT PRIMARY KEY CHECK (id = 1),
+    last_finished_at TIMESTAMP NOT NULL,
+    last_attempt_id BIGINT NOT NULL
+);
+
+INSERT INTO item_analysis_state (id, last_finished_at, last_attempt_id) VALUES (1, '1970-01-01 00:00:00', 0);
+
+-- Walked by the job in (finished_at, id) order
+CREATE INDEX idx_quiz_attempts_finished_at_id ON quiz_attempts(finished_at, id) WHERE finished_at IS NOT NULL;
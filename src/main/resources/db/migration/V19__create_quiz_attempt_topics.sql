@@ -0,0 +1,19 @@
+-- V19: Topics of each quiz attempt, normalized out of config_json
+-- Lets history be filtered by topic through an index and topic names come back with a join
+
+CREATE TABLE quiz_attempt_topics (
+    attempt_id BIGINT NOT NULL REFERENCES quiz_attempts(id) ON DELETE CASCADE,
+    topic_id BIGINT NOT NULL REFERENCES topics(id) ON DELETE CASCADE,
+    PRIMARY KEY (attempt_id, topic_id)
+);
+
+CREATE INDEX idx_quiz_attempt_topics_topic ON quiz_attempt_topics(topic_id, attempt_id);
+
+-- Backfilled from the questions each attempt actually drew (config_json.questionIds), matching
+-- what startQuiz records for new attempts; questions deleted since then are not linked
+INSERT INTO quiz_attempt_topics (attempt_id, topic_id)
+SELECT DISTINCT a.id, q.topic_id
+FROM quiz_attempts a
+CROSS JOIN LATERAL jsonb_array_elements_text(a.config_json -> 'questionIds') AS qid(question_id)
+JOIN questions q ON q.id = CAST(qid.question_id AS BIGINT)
+WHERE jsonb_typeof(a.config_json -> 'questionIds') = 'array';
@@ -0,0 +1,8 @@
+-- V6: Frozen per-attempt question snapshot written at quiz start
+-- payload is the gzip-compressed JSON of the attempt's questions, options and topic names
+
+CREATE TABLE quiz_attempt_snapshots (
+    attempt_id BIGINT PRIMARY KEY REFERENCES quiz_attempts(id) ON DELETE CASCADE,
+    payload BYTEA NOT NULL,
+    created_at TIMESTAMP DEFAULT NOW()
+);
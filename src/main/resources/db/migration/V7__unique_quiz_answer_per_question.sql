@@ -0,0 +1,26 @@
+-- V7: One answer per question per attempt
+-- Answer submission trusts the cached attempt state, so the database enforces uniqueness
+
+CREATE TEMPORARY TABLE v7_deduplicated_attempts AS
+SELECT DISTINCT qa.attempt_id
+FROM quiz_answers qa
+JOIN quiz_answers dup
+  ON qa.attempt_id = dup.attempt_id
+ AND qa.question_id = dup.question_id
+ AND qa.id > dup.id;
+
+DELETE FROM quiz_answers qa
+USING quiz_answers dup
+WHERE qa.attempt_id = dup.attempt_id
+  AND qa.question_id = dup.question_id
+  AND qa.id > dup.id;
+
+-- Removed duplicates may have been counted as correct
+UPDATE quiz_attempts a
+SET correct_count = (SELECT COUNT(*) FROM quiz_answers ans WHERE ans.attempt_id = a.id AND ans.is_correct = TRUE)
+WHERE a.id IN (SELECT attempt_id FROM v7_deduplicated_attempts);
+
+DROP TABLE v7_deduplicated_attempts;
+
+DROP INDEX IF EXISTS idx_quiz_answers_attempt_id;
+CREATE UNIQUE INDEX uq_quiz_answers_attempt_question ON quiz_answers(attempt_id, question_id);
@@ -0,0 +1,38 @@
+-- V8: Spaced-repetition REVIEW mode
+-- review_cards holds the SM-2 state of each (user, question) pair; starting a review quiz
+-- is a range scan of (user_id, due_at) instead of an anti-join over the answer history
+
+ALTER TABLE quiz_attempts DROP CONSTRAINT IF EXISTS quiz_attempts_mode_check;
+ALTER TABLE quiz_attempts ADD CONSTRAINT quiz_attempts_mode_check
+    CHECK (mode IN ('EVALUATION', 'STUDY', 'REVIEW'));
+
+CREATE TABLE review_cards (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    question_id BIGINT NOT NULL REFERENCES questions(id) ON DELETE CASCADE,
+    repetitions INTEGER NOT NULL DEFAULT 0,
+    interval_days INTEGER NOT NULL DEFAULT 0,
+    ease_factor DOUBLE PRECISION NOT NULL DEFAULT 2.5,
+    due_at TIMESTAMP NOT NULL,
+    last_reviewed_at TIMESTAMP,
+    PRIMARY KEY (user_id, question_id)
+);
+
+CREATE INDEX idx_review_cards_user_due ON review_cards(user_id, due_at);
+
+-- Seed cards from the latest answer to each question: correct answers come due a day later,
+-- incorrect ones are due immediately
+INSERT INTO review_cards (user_id, question_id, repetitions, interval_days, ease_factor, due_at, last_reviewed_at)
+SELECT user_id, question_id,
+       CASE WHEN is_correct THEN 1 ELSE 0 END,
+       1,
+       2.5,
+       CASE WHEN is_correct THEN answered_at + INTERVAL '1 day' ELSE answered_at END,
+       answered_at
+FROM (
+    SELECT DISTINCT ON (a.user_id, ans.question_id)
+           a.user_id, ans.question_id, COALESCE(ans.is_correct, FALSE) AS is_correct,
+           COALESCE(ans.answered_at, NOW()) AS answered_at
+    FROM quiz_answers ans
+    JOIN quiz_attempts a ON a.id = ans.attempt_id
+    ORDER BY a.user_id, ans.question_id, ans.answered_at DESC
+) latest;
@@ -0,0 +1,21 @@
+-- V9: Materialized per-user answer counters per question
+-- Upserted as answers are stored; replaces the GROUP BY / NOT IN subqueries over quiz_answers
+-- used by the answer-status filters, question stats enrichment and mastery lookups
+
+CREATE TABLE user_question_stats (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    question_id BIGINT NOT NULL REFERENCES questions(id) ON DELETE CASCADE,
+    times_answered INTEGER NOT NULL DEFAULT 0,
+    times_correct INTEGER NOT NULL DEFAULT 0,
+    last_answered_at TIMESTAMP,
+    PRIMARY KEY (user_id, question_id)
+);
+
+INSERT INTO user_question_stats (user_id, question_id, times_answered, times_correct, last_answered_at)
+SELECT a.user_id, ans.question_id,
+       COUNT(*),
+       COUNT(*) FILTER (WHERE ans.is_correct),
+       MAX(ans.answered_at)
+FROM quiz_answers ans
+JOIN quiz_attempts a ON a.id = ans.attempt_id
+GROUP BY a.user_id, ans.question_id;
@@ -0,0 +1,190 @@
+package com.rumoaopratico.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rumoaopratico.model.Question;
+import com.rumoaopratico.model.QuizAnswer;
+import com.rumoaopratico.model.QuizAttempt;
+import com.rumoaopratico.repository.QuizAnswerBatchWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AnswerJournalTest {
+
+    @TempDir
+    Path journalDir;
+
+    private final QuizAnswerBatchWriter batchWriter = mock(QuizAnswerBatchWriter.class);
+    private final AnswerStatsRecorder answerStatsRecorder = mock(AnswerStatsRecorder.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @BeforeEach
+    void setUp() {
+        when(batchWriter.insertAllIgnoringConflicts(anyList(), anyInt())).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    void flush_shouldWriteAppendedAnswersAndDeleteSegments() throws Exception {
+        AnswerJournal journal = newJournal();
+        journal.append(7L, List.of(answer(1L, 10L, true), answer(1L, 11L, false)));
+
+        assertThat(segmentCount()).isEqualTo(1);
+        assertThat(journal.flush()).isTrue();
+
+        List<QuizAnswer> written = captureWritten(1);
+        assertThat(written).extracting(a -> a.getQuestion().getId()).containsExactly(10L, 11L);
+        verify(batchWriter).recountCorrect(Set.of(1L));
+        verify(answerStatsRecorder).recordAnswers(eq(7L), argThat(answers -> answers.size() == 2));
+        assertThat(segmentCount()).isZero();
+    }
+
+    @Test
+    void unflushedAnswers_shouldReturnAttemptsAnswersUntilFlushed() throws Exception {
+        AnswerJournal journal = newJournal();
+        journal.append(7L, List.of(answer(3L, 30L, true), answer(4L, 40L, false)));
+
+        assertThat(journal.unflushedAnswers(3L)).singleElement().satisfies(answer -> {
+            assertThat(answer.getQuestion().getId()).isEqualTo(30L);
+            assertThat(answer.getIsCorrect()).isTrue();
+        });
+
+        journal.flushUser(7L);
+
+        captureWritten(1);
+        assertThat(journal.unflushedAnswers(3L)).isEmpty();
+        assertThat(journal.unflushedAnswers(4L)).isEmpty();
+    }
+
+    @Test
+    void init_shouldReplayLeftoverSegments() throws Exception {
+        AnswerJournal crashed = newJournal();
+        crashed.append(7L, List.of(answer(2L, 20L, true)));
+        // Simulate a crash mid-append of a second entry
+        try (Stream<Path> files = Files.list(journalDir)) {
+            Path segment = files.findFirst().orElseThrow();
+            Files.writeString(segment, Files.readString(segment) + "{\"attemptId\":2,\"quest");
+        }
+
+        AnswerJournal restarted = newJournal();
+        restarted.flushAttempt(2L);
+
+        List<QuizAnswer> written = captureWritten(1);
+        assertThat(written).hasSize(1);
+        assertThat(written.get(0).getIsCorrect()).isTrue();
+        assertThat(segmentCount()).isZero();
+    }
+
+    @Test
+    void flush_shouldNotRecordStatsForAnswersAlreadyStored() throws Exception {
+        AnswerJournal journal = newJournal();
+        journal.append(7L, List.of(answer(4L, 40L, true)));
+        when(batchWriter.insertAllIgnoringConflicts(anyList(), anyInt())).thenReturn(List.of());
+
+        assertThat(journal.flush()).isTrue();
+
+        verify(answerStatsRecorder, never()).recordAnswers(anyLong(), anyList());
+    }
+
+    @Test
+    void flush_whenDatabaseFails_shouldKeepAnswersForRetry() throws Exception {
+        AnswerJournal journal = newJournal();
+        journal.append(7L, List.of(answer(3L, 30L, false)));
+        when(batchWriter.insertAllIgnoringConflicts(anyList(), anyInt()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        assertThat(journal.flush()).isFalse();
+        assertThat(segmentCount()).isEqualTo(1);
+        assertThat(journal.flush()).isTrue();
+        assertThat(segmentCount()).isZero();
+    }
+
+    @Test
+    void append_concurrentCallers_shouldAllBeJournaled() throws Exception {
+        AnswerJournal journal = newJournal();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long q = 1; q <= 32; q++) {
+                long questionId = q;
+                futures.add(executor.submit(() -> journal.append(7L, List.of(answer(5L, questionId, true)))));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(journal.flush()).isTrue();
+
+        assertThat(captureWritten(1)).extracting(a -> a.getQuestion().getId())
+                .containsExactlyInAnyOrderElementsOf(LongStream.rangeClosed(1, 32).boxed().toList());
+    }
+
+    @Test
+    void append_afterShutdown_shouldBeRejected() throws Exception {
+        AnswerJournal journal = newJournal();
+        journal.append(7L, List.of(answer(6L, 60L, false)));
+
+        journal.shutdown();
+
+        verify(batchWriter).insertAllIgnoringConflicts(argThat(answers -> answers.size() == 1), eq(100));
+        assertThatThrownBy(() -> journal.append(7L, List.of(answer(6L, 61L, false))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private AnswerJournal newJournal() throws Exception {
+        AnswerJournal journal = new AnswerJournal(batchWriter, answerStatsRecorder, mock(PlatformTransactionManager.class), objectMapper);
+        ReflectionTestUtils.setField(journal, "enabled", true);
+        ReflectionTestUtils.setField(journal, "journalDir", journalDir.toString());
+        ReflectionTestUtils.setField(journal, "batchSize", 100);
+        journal.init();
+        return journal;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<QuizAnswer> captureWritten(int times) {
+        ArgumentCaptor<List<QuizAnswer>> captor = ArgumentCaptor.forClass(List.class);
+        verify(batchWriter, times(times)).insertAllIgnoringConflicts(captor.capture(), eq(100));
+        return captor.getValue();
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.count();
+        }
+    }
+
+    private static QuizAnswer answer(Long attemptId, Long questionId, boolean correct) {
+        return QuizAnswer.builder()
+                .attempt(QuizAttempt.builder().id(attemptId).build())
+                .question(Question.builder().id(questionId).build())
+                .userAnswerJson(Map.of("selectedOptionId", questionId * 10))
+                .isCorrect(correct)
+                .answeredAt(LocalDateTime.now())
+                .build();
+    }
+}
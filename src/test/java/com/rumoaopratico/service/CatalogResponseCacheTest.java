@@ -0,0 +1,32 @@
+package com.rumoaopratico.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogResponseCacheTest {
+
+    private final CatalogResponseCache.Body body = new CatalogResponseCache.Body(
+            "[]".getBytes(StandardCharsets.UTF_8), null, "\"abc123\"");
+
+    @Test
+    void toResponse_matchingValidator_shouldReturnNotModified() {
+        assertThat(body.toResponse("\"abc123\"", null).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void toResponse_weakValidatorInList_shouldReturnNotModified() {
+        assertThat(body.toResponse("\"old\", W/\"abc123\"", "gzip").getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(body.toResponse("*", null).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void toResponse_otherValidator_shouldReturnBody() {
+        assertThat(body.toResponse("\"old\"", null).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(body.toResponse(null, null).getBody()).isEqualTo("[]".getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,96 @@
+package com.rumoaopratico.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rumoaopratico.exception.BadRequestException;
+import com.rumoaopratico.model.enums.ExportFormat;
+import com.rumoaopratico.repository.HistoryExportReader;
+import com.rumoaopratico.repository.HistoryExportReader.Row;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HistoryExportServiceTest {
+
+    private static final LocalDateTime STARTED = LocalDateTime.of(2024, 5, 1, 10, 0);
+
+    private final HistoryExportReader reader = mock(HistoryExportReader.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private HistoryExportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new HistoryExportService(reader, objectMapper, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "fetchSize", 100);
+        service.init();
+
+        List<Row> rows = List.of(
+                new Row(7L, "STUDY", STARTED, STARTED.plusMinutes(5), 3, 2, 70L, 10L, 1L, "Navegação",
+                        "MULTIPLE_CHOICE", "EASY", "Qual a regra, \"a\" ou b?", "{\"selectedOptionId\":5}",
+                        true, STARTED.plusMinutes(1)),
+                new Row(8L, "EVALUATION", STARTED.plusDays(1), null, 10, 0, null, null, null, null,
+                        null, null, null, null, null, null));
+        doAnswer(invocation -> {
+            rows.forEach(invocation.<Consumer<Row>>getArgument(3));
+            return null;
+        }).when(reader).stream(eq(1L), eq(7L), eq(100), any());
+    }
+
+    @Test
+    void write_ndjson_shouldEmitOneObjectPerLineWithRawAnswerJson() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.write(1L, ExportFormat.NDJSON, 7L, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("attemptId").asLong()).isEqualTo(7L);
+        assertThat(first.get("score").asDouble()).isEqualTo(66.67);
+        assertThat(first.get("topicName").asText()).isEqualTo("Navegação");
+        assertThat(first.get("userAnswer").get("selectedOptionId").asInt()).isEqualTo(5);
+        assertThat(first.get("startedAt").asText()).isEqualTo("2024-05-01T10:00");
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertThat(second.get("answerId").isNull()).isTrue();
+        assertThat(second.get("finishedAt").isNull()).isTrue();
+    }
+
+    @Test
+    void write_csvGzip_shouldQuoteFieldsAndCompress() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.write(1L, ExportFormat.CSV, 7L, true, out);
+
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        String[] lines = csv.split("\r\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).startsWith("attemptId,mode,startedAt,");
+        assertThat(lines[1]).contains(",\"Qual a regra, \"\"a\"\" ou b?\",\"{\"\"selectedOptionId\"\":5}\",true,");
+        assertThat(lines[2]).isEqualTo("8,EVALUATION,2024-05-02T10:00,,10,0,0.0,,,,,,,,,,");
+    }
+
+    @Test
+    void download_unknownFormat_shouldThrowBadRequest() {
+        assertThatThrownBy(() -> service.download(1L, "xml", null, false))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(reader);
+    }
+}
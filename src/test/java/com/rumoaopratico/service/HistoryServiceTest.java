@@ -0,0 +1,76 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.dto.response.CursorSliceResponse;
+import com.rumoaopratico.dto.response.HistoryEntryResponse;
+import com.rumoaopratico.model.QuizAttempt;
+import com.rumoaopratico.model.enums.QuizMode;
+import com.rumoaopratico.repository.QuizAttemptRepository;
+import com.rumoaopratico.util.KeysetCursor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HistoryServiceTest {
+
+    @Mock
+    private QuizAttemptRepository quizAttemptRepository;
+    @Mock
+    private QuizService quizService;
+
+    @InjectMocks
+    private HistoryService historyService;
+
+    @Test
+    void getHistory_shouldFilterByTopicAndGroupTopicNamesPerAttempt() {
+        PageRequest pageable = PageRequest.of(0, 20);
+        when(quizAttemptRepository.findByUserIdFiltered(7L, null, null, 3L, pageable))
+                .thenReturn(new PageImpl<>(List.of(attempt(1L), attempt(2L)), pageable, 2));
+        when(quizAttemptRepository.findTopicNamesByAttemptIdIn(List.of(1L, 2L))).thenReturn(List.of(
+                new Object[]{1L, "Arte Naval"}, new Object[]{2L, "Arte Naval"}, new Object[]{1L, "Navegação"}));
+
+        Page<HistoryEntryResponse> history = historyService.getHistory(7L, null, null, 3L, pageable);
+
+        assertThat(history.getContent()).extracting(HistoryEntryResponse::getTopics).containsExactly(
+                List.of("Arte Naval", "Navegação"), List.of("Arte Naval"));
+    }
+
+    @Test
+    void scrollHistory_attemptWithoutTopics_shouldHaveEmptyTopicList() {
+        when(quizAttemptRepository.scrollByUserIdFiltered(7L, KeysetCursor.START.timestamp(), KeysetCursor.START.id(),
+                null, null, 3L, PageRequest.of(0, 20)))
+                .thenReturn(new SliceImpl<>(List.of(attempt(5L)), PageRequest.of(0, 20), false));
+        when(quizAttemptRepository.findTopicNamesByAttemptIdIn(List.of(5L))).thenReturn(List.of());
+
+        CursorSliceResponse<HistoryEntryResponse> history = historyService.scrollHistory(
+                7L, null, null, 3L, null, 20);
+
+        assertThat(history.getContent()).singleElement()
+                .satisfies(entry -> assertThat(entry.getTopics()).isEmpty());
+        assertThat(history.getNextCursor()).isNull();
+    }
+
+    private static QuizAttempt attempt(Long id) {
+        LocalDateTime startedAt = LocalDateTime.of(2024, 5, 1, 10, 0).plusMinutes(id);
+        return QuizAttempt.builder()
+                .id(id)
+                .mode(QuizMode.STUDY)
+                .totalQuestions(10)
+                .correctCount(7)
+                .startedAt(startedAt)
+                .finishedAt(startedAt.plusMinutes(5))
+                .build();
+    }
+}
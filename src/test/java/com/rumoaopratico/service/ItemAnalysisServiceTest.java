@@ -0,0 +1,86 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.model.ItemAnalysisState;
+import com.rumoaopratico.model.QuestionItemStats;
+import com.rumoaopratico.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ItemAnalysisServiceTest {
+
+    private final ItemAnalysisStateRepository stateRepository = mock(ItemAnalysisStateRepository.class);
+    private final QuestionItemStatsRepository itemStatsRepository = mock(QuestionItemStatsRepository.class);
+    private final QuizAttemptRepository quizAttemptRepository = mock(QuizAttemptRepository.class);
+    private final QuizAnswerRepository quizAnswerRepository = mock(QuizAnswerRepository.class);
+
+    private ItemAnalysisService service;
+    private ItemAnalysisState state;
+
+    @BeforeEach
+    void setUp() {
+        service = new ItemAnalysisService(stateRepository, itemStatsRepository, quizAttemptRepository,
+                quizAnswerRepository, mock(QuestionRepository.class), mock(QuestionPoolIndex.class),
+                mock(QuestionResponseCache.class), mock(CatalogVersion.class), mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+        ReflectionTestUtils.setField(service, "settleSeconds", 300L);
+        service.init();
+
+        state = ItemAnalysisState.builder()
+                .id(ItemAnalysisState.ID)
+                .lastFinishedAt(LocalDateTime.of(2020, 1, 1, 0, 0))
+                .lastAttemptId(0L)
+                .build();
+        when(stateRepository.findByIdForUpdate(ItemAnalysisState.ID)).thenReturn(Optional.of(state));
+    }
+
+    @Test
+    void run_shouldAccumulateSumsAndAdvanceMark() {
+        LocalDateTime finishedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+        when(quizAttemptRepository.findFinishedAfter(any(), anyLong(), any(), any())).thenReturn(List.of(
+                new Object[]{1L, finishedAt}, new Object[]{2L, finishedAt.plusMinutes(1)}));
+        when(quizAnswerRepository.findOutcomesByAttemptIdIn(List.of(1L, 2L))).thenReturn(List.of(
+                new Object[]{1L, 10L, true}, new Object[]{1L, 11L, false}, new Object[]{1L, 12L, true},
+                new Object[]{2L, 10L, false}));
+
+        int processed = service.run();
+
+        assertThat(processed).isEqualTo(2);
+        // q10: rest-score 0.5 in attempt 1; attempt 2 has no other answers, so it only counts for the p-value
+        verify(itemStatsRepository).add(10L, 2, 1, 1, 1, 0.5, 0.25, 0.5);
+        verify(itemStatsRepository).add(11L, 1, 0, 1, 0, 1.0, 1.0, 0.0);
+        assertThat(state.getLastAttemptId()).isEqualTo(2L);
+        assertThat(state.getLastFinishedAt()).isEqualTo(finishedAt.plusMinutes(1));
+    }
+
+    @Test
+    void run_nothingSettled_shouldLeaveMark() {
+        when(quizAttemptRepository.findFinishedAfter(any(), anyLong(), any(), any())).thenReturn(List.of());
+
+        assertThat(service.run()).isZero();
+        verifyNoInteractions(itemStatsRepository);
+        assertThat(state.getLastAttemptId()).isZero();
+    }
+
+    @Test
+    void discrimination_shouldBeOneWhenItemSeparatesPerfectly() {
+        // Two correct answers with rest-score 1 and two wrong ones with rest-score 0
+        QuestionItemStats stats = QuestionItemStats.builder()
+                .responses(4L).correct(2L).pairedResponses(4L).pairedCorrect(2L)
+                .sumRest(2.0).sumRestSq(2.0).sumCorrectRest(2.0)
+                .build();
+
+        assertThat(stats.pValue()).isEqualTo(0.5);
+        assertThat(stats.discrimination()).isCloseTo(1.0, within(1e-9));
+    }
+}
@@ -0,0 +1,128 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.model.UserStats;
+import com.rumoaopratico.model.UserTopicStats;
+import com.rumoaopratico.model.enums.QuizMode;
+import com.rumoaopratico.repository.UserStatsRepository;
+import com.rumoaopratico.repository.UserTopicStatsRepository;
+import com.rumoaopratico.service.LeaderboardIndex.BoardKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LeaderboardIndexTest {
+
+    @Mock
+    private UserStatsRepository userStatsRepository;
+    @Mock
+    private UserTopicStatsRepository userTopicStatsRepository;
+
+    @InjectMocks
+    private LeaderboardIndex leaderboardIndex;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> modeScores = new ArrayList<>();
+        modeScores.add(new Object[]{7L, QuizMode.STUDY, 10L});
+        modeScores.add(new Object[]{8L, QuizMode.STUDY, 4L});
+        List<Object[]> topicScores = new ArrayList<>();
+        topicScores.add(new Object[]{7L, 1L, 10L});
+        when(userStatsRepository.findAllScores()).thenReturn(modeScores);
+        when(userTopicStatsRepository.findAllScores()).thenReturn(topicScores);
+    }
+
+    @Test
+    void recordFinished_shouldAddToEveryBoard() {
+        leaderboardIndex.rebuild();
+
+        leaderboardIndex.recordFinished(8L, QuizMode.STUDY, 9, Map.of(1L, 9L));
+
+        assertThat(leaderboardIndex.top(BoardKey.OVERALL, 2)).extracting(e -> e.userId()).containsExactly(8L, 7L);
+        assertThat(leaderboardIndex.find(BoardKey.ofMode(QuizMode.STUDY), 8L))
+                .hasValueSatisfying(ranked -> assertThat(ranked.entry().score()).isEqualTo(13));
+        assertThat(leaderboardIndex.find(BoardKey.ofTopic(1L), 8L))
+                .hasValueSatisfying(ranked -> assertThat(ranked.rank()).isEqualTo(2));
+    }
+
+    @Test
+    void rebuild_attemptCommittedBeforeReadButAppliedDuringIt_shouldNotBeCountedTwice() {
+        leaderboardIndex.rebuild();
+        // The attempt committed before user_stats was read, so the read already has 4 + 3,
+        // but its after-commit increment only runs while the topic stats are being read
+        List<Object[]> modeScores = new ArrayList<>();
+        modeScores.add(new Object[]{7L, QuizMode.STUDY, 10L});
+        modeScores.add(new Object[]{8L, QuizMode.STUDY, 7L});
+        List<Object[]> topicScores = new ArrayList<>();
+        topicScores.add(new Object[]{7L, 1L, 10L});
+        topicScores.add(new Object[]{8L, 1L, 3L});
+        when(userStatsRepository.findAllScores()).thenReturn(modeScores);
+        when(userTopicStatsRepository.findAllScores()).thenAnswer(invocation -> {
+            leaderboardIndex.recordFinished(8L, QuizMode.STUDY, 3, Map.of(1L, 3L));
+            return topicScores;
+        });
+        stubUserAggregates(8L, 7L, 3L);
+
+        leaderboardIndex.rebuild();
+
+        assertThat(leaderboardIndex.find(BoardKey.OVERALL, 8L))
+                .hasValueSatisfying(ranked -> assertThat(ranked.entry().score()).isEqualTo(7));
+        assertThat(leaderboardIndex.find(BoardKey.ofTopic(1L), 8L))
+                .hasValueSatisfying(ranked -> assertThat(ranked.entry().score()).isEqualTo(3));
+    }
+
+    @Test
+    void rebuild_attemptCommittedAfterRead_shouldBeKept() {
+        leaderboardIndex.rebuild();
+        List<Object[]> topicScores = new ArrayList<>();
+        topicScores.add(new Object[]{7L, 1L, 10L});
+        // Commits after user_stats was read but before the boards are swapped
+        when(userTopicStatsRepository.findAllScores()).thenAnswer(invocation -> {
+            leaderboardIndex.recordFinished(8L, QuizMode.STUDY, 3, Map.of(1L, 3L));
+            return topicScores;
+        });
+        stubUserAggregates(8L, 7L, 3L);
+
+        leaderboardIndex.rebuild();
+
+        assertThat(leaderboardIndex.find(BoardKey.OVERALL, 8L))
+                .hasValueSatisfying(ranked -> assertThat(ranked.entry().score()).isEqualTo(7));
+        assertThat(leaderboardIndex.find(BoardKey.ofTopic(1L), 8L))
+                .hasValueSatisfying(ranked -> assertThat(ranked.entry().score()).isEqualTo(3));
+    }
+
+    @Test
+    void rebuild_removalWhileReading_shouldNotBeUndone() {
+        leaderboardIndex.rebuild();
+        List<Object[]> topicScores = new ArrayList<>();
+        topicScores.add(new Object[]{7L, 1L, 10L});
+        when(userTopicStatsRepository.findAllScores()).thenAnswer(invocation -> {
+            leaderboardIndex.removeUser(7L);
+            return topicScores;
+        });
+        when(userStatsRepository.findByUserIdOrderByMode(7L)).thenReturn(List.of());
+        when(userTopicStatsRepository.findByUserId(7L)).thenReturn(List.of());
+
+        leaderboardIndex.rebuild();
+
+        assertThat(leaderboardIndex.find(BoardKey.OVERALL, 7L)).isEmpty();
+        assertThat(leaderboardIndex.size(BoardKey.ofTopic(1L))).isZero();
+    }
+
+    private void stubUserAggregates(long userId, long correct, long topicCorrect) {
+        when(userStatsRepository.findByUserIdOrderByMode(userId)).thenReturn(List.of(UserStats.builder()
+                .userId(userId).mode(QuizMode.STUDY).correct(correct).build()));
+        when(userTopicStatsRepository.findByUserId(userId)).thenReturn(List.of(UserTopicStats.builder()
+                .userId(userId).topicId(1L).correct(topicCorrect).build()));
+    }
+}
@@ -0,0 +1,82 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.dto.response.QuestionFacetsResponse;
+import com.rumoaopratico.model.enums.Difficulty;
+import com.rumoaopratico.model.enums.QuestionType;
+import com.rumoaopratico.repository.QuestionRepository;
+import com.rumoaopratico.repository.UserQuestionStatsRepository;
+import com.rumoaopratico.service.QuestionPoolIndex.BucketKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QuestionFacetServiceTest {
+
+    @Mock
+    private QuestionRepository questionRepository;
+    @Mock
+    private UserQuestionStatsRepository userQuestionStatsRepository;
+    @Mock
+    private QuestionPoolIndex questionPoolIndex;
+    @Mock
+    private CatalogVersion catalogVersion;
+
+    @InjectMocks
+    private QuestionFacetService questionFacetService;
+
+    @BeforeEach
+    void setUp() {
+        when(questionPoolIndex.isEnabled()).thenReturn(true);
+        when(questionPoolIndex.bucketSizes()).thenReturn(Map.of(
+                new BucketKey(1L, QuestionType.MULTIPLE_CHOICE, Difficulty.EASY), 10,
+                new BucketKey(1L, QuestionType.TRUE_FALSE, null), 4,
+                new BucketKey(2L, QuestionType.MULTIPLE_CHOICE, Difficulty.HARD), 6));
+    }
+
+    @Test
+    void getFacets_noFilters_shouldCountQuestionsWithoutDifficultyAsUnspecified() {
+        QuestionFacetsResponse facets = questionFacetService.getFacets(null, null, null, null);
+
+        assertThat(facets.getTotal()).isEqualTo(20);
+        assertThat(facets.getByDifficulty()).containsOnly(
+                Map.entry("EASY", 10L), Map.entry("HARD", 6L),
+                Map.entry(QuestionFacetService.UNSPECIFIED_DIFFICULTY, 4L));
+        assertThat(facets.getByAnswerStatus()).isNull();
+    }
+
+    @Test
+    void getFacets_shouldApplyEveryFilterExceptTheFacetsOwn() {
+        QuestionFacetsResponse facets = questionFacetService.getFacets(
+                null, List.of(1L), QuestionType.MULTIPLE_CHOICE, null);
+
+        assertThat(facets.getTotal()).isEqualTo(10);
+        // byTopic ignores the topic filter, byType ignores the type filter
+        assertThat(facets.getByTopic()).containsOnly(Map.entry(1L, 10L), Map.entry(2L, 6L));
+        assertThat(facets.getByType()).containsOnly(
+                Map.entry(QuestionType.MULTIPLE_CHOICE, 10L), Map.entry(QuestionType.TRUE_FALSE, 4L));
+        assertThat(facets.getByDifficulty()).containsOnly(Map.entry("EASY", 10L));
+    }
+
+    @Test
+    void getFacets_withUser_shouldReportUnansweredRemainder() {
+        when(userQuestionStatsRepository.countAnsweredByBucket(7L)).thenReturn(List.of(
+                new Object[]{1L, QuestionType.MULTIPLE_CHOICE, Difficulty.EASY, true, 3L},
+                new Object[]{1L, QuestionType.TRUE_FALSE, null, false, 1L},
+                new Object[]{2L, QuestionType.MULTIPLE_CHOICE, Difficulty.HARD, true, 5L}));
+
+        QuestionFacetsResponse facets = questionFacetService.getFacets(7L, List.of(1L), null, null);
+
+        assertThat(facets.getByAnswerStatus()).containsExactly(
+                Map.entry("UNANSWERED", 10L), Map.entry("CORRECT", 3L), Map.entry("INCORRECT", 1L));
+    }
+}
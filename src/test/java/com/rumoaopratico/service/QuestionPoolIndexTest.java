@@ -0,0 +1,146 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.model.Question;
+import com.rumoaopratico.model.Topic;
+import com.rumoaopratico.model.enums.Difficulty;
+import com.rumoaopratico.model.enums.QuestionType;
+import com.rumoaopratico.repository.QuestionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QuestionPoolIndexTest {
+
+    @Mock
+    private QuestionRepository questionRepository;
+
+    @InjectMocks
+    private QuestionPoolIndex questionPoolIndex;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            long topicId = id <= 30 ? 1L : 2L;
+            QuestionType type = id % 2 == 0 ? QuestionType.TRUE_FALSE : QuestionType.MULTIPLE_CHOICE;
+            rows.add(new Object[]{id, topicId, type, Difficulty.MEDIUM});
+        }
+        when(questionRepository.findActiveSelectionKeys()).thenReturn(rows);
+    }
+
+    @Test
+    void sample_shouldReturnDistinctIdsMatchingCriteria() {
+        long[] ids = questionPoolIndex.sample(List.of(1L), List.of(QuestionType.TRUE_FALSE), null, 10, null);
+
+        assertThat(ids).hasSize(10).doesNotHaveDuplicates();
+        assertThat(boxed(ids)).allMatch(id -> id <= 30 && id % 2 == 0);
+    }
+
+    @Test
+    void sample_moreThanAvailable_shouldReturnAllMatching() {
+        long[] ids = questionPoolIndex.sample(List.of(2L), null, null, 100, null);
+
+        assertThat(ids).hasSize(20).doesNotHaveDuplicates();
+        assertThat(boxed(ids)).allMatch(id -> id > 30);
+    }
+
+    @Test
+    void sample_shouldUseDeprioritizedIdsOnlyToFill() {
+        Set<Long> mastered = Set.of(31L, 32L, 33L, 34L, 35L, 36L, 37L, 38L, 39L, 40L,
+                41L, 42L, 43L, 44L, 45L, 46L, 47L, 48L);
+
+        long[] ids = questionPoolIndex.sample(List.of(2L), null, null, 5, mastered::contains);
+
+        assertThat(ids).hasSize(5);
+        assertThat(boxed(Arrays.copyOf(ids, 2))).containsExactlyInAnyOrder(49L, 50L);
+        assertThat(boxed(Arrays.copyOfRange(ids, 2, 5))).allMatch(mastered::contains);
+    }
+
+    @Test
+    void sample_nearlyAllDeprioritized_shouldStopAfterBoundedWalk() {
+        AtomicInteger tested = new AtomicInteger();
+
+        long[] ids = questionPoolIndex.sample(List.of(1L), null, null, 2, id -> {
+            tested.incrementAndGet();
+            return id != 1L;
+        });
+
+        assertThat(ids).hasSize(2).doesNotHaveDuplicates();
+        assertThat(boxed(ids)).allMatch(id -> id <= 30);
+        // 30 candidates match; the walk draws at most 4 per requested id
+        assertThat(tested.get()).isLessThanOrEqualTo(8);
+    }
+
+    @Test
+    void onQuestionSaved_inactive_shouldRemoveFromIndex() {
+        questionPoolIndex.rebuild();
+        Question question = Question.builder()
+                .id(31L)
+                .topic(Topic.builder().id(2L).build())
+                .type(QuestionType.MULTIPLE_CHOICE)
+                .difficulty(Difficulty.MEDIUM)
+                .isActive(false)
+                .build();
+
+        questionPoolIndex.onQuestionSaved(question);
+
+        assertThat(questionPoolIndex.size()).isEqualTo(49);
+        assertThat(questionPoolIndex.sample(List.of(2L), null, null, 100, null)).doesNotContain(31L);
+    }
+
+    @Test
+    void rebuild_questionsSavedWhileReading_shouldBeReappliedAfterSwap() {
+        questionPoolIndex.rebuild();
+        List<Object[]> rows = questionRepository.findActiveSelectionKeys();
+        // Both edits commit after the bank was read but before the new buckets are swapped in
+        when(questionRepository.findActiveSelectionKeys()).thenAnswer(invocation -> {
+            questionPoolIndex.onQuestionSaved(question(31L, false));
+            questionPoolIndex.onQuestionSaved(question(51L, true));
+            return rows;
+        });
+
+        questionPoolIndex.rebuild();
+
+        assertThat(questionPoolIndex.size()).isEqualTo(50);
+        assertThat(boxed(questionPoolIndex.sample(List.of(2L), null, null, 100, null)))
+                .contains(51L)
+                .doesNotContain(31L);
+    }
+
+    @Test
+    void bucketSizes_shouldCountActiveQuestionsPerBucket() {
+        assertThat(questionPoolIndex.bucketSizes()).containsOnly(
+                Map.entry(new QuestionPoolIndex.BucketKey(1L, QuestionType.TRUE_FALSE, Difficulty.MEDIUM), 15),
+                Map.entry(new QuestionPoolIndex.BucketKey(1L, QuestionType.MULTIPLE_CHOICE, Difficulty.MEDIUM), 15),
+                Map.entry(new QuestionPoolIndex.BucketKey(2L, QuestionType.TRUE_FALSE, Difficulty.MEDIUM), 10),
+                Map.entry(new QuestionPoolIndex.BucketKey(2L, QuestionType.MULTIPLE_CHOICE, Difficulty.MEDIUM), 10));
+    }
+
+    private static Question question(long id, boolean active) {
+        return Question.builder()
+                .id(id)
+                .topic(Topic.builder().id(2L).build())
+                .type(QuestionType.MULTIPLE_CHOICE)
+                .difficulty(Difficulty.MEDIUM)
+                .isActive(active)
+                .build();
+    }
+
+    private static List<Long> boxed(long[] ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+}
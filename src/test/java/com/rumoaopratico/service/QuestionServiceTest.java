@@ -8,11 +8,13 @@ import com.rumoaopratico.model.Question;
 import com.rumoaopratico.model.QuestionOption;
 import com.rumoaopratico.model.Topic;
 import com.rumoaopratico.model.User;
+import com.rumoaopratico.model.UserQuestionStats;
 import com.rumoaopratico.model.enums.Difficulty;
 import com.rumoaopratico.model.enums.QuestionType;
+import com.rumoaopratico.model.enums.SearchMode;
 import com.rumoaopratico.repository.QuestionRepository;
-import com.rumoaopratico.repository.QuizAnswerRepository;
 import com.rumoaopratico.repository.TopicRepository;
+import com.rumoaopratico.repository.UserQuestionStatsRepository;
 import com.rumoaopratico.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -41,11 +43,17 @@ class QuestionServiceTest {
     @Mock
     private QuestionRepository questionRepository;
     @Mock
-    private QuizAnswerRepository quizAnswerRepository;
+    private UserQuestionStatsRepository userQuestionStatsRepository;
     @Mock
     private TopicRepository topicRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private QuestionPoolIndex questionPoolIndex;
+    @Mock
+    private QuestionResponseCache questionResponseCache;
+    @Mock
+    private CatalogVersion catalogVersion;
 
     @InjectMocks
     private QuestionService questionService;
@@ -82,20 +90,38 @@ class QuestionServiceTest {
     @Test
     void getQuestions_shouldReturnPage() {
         Page<Question> page = new PageImpl<>(List.of(question));
-        when(questionRepository.findFilteredGlobal(isNull(), isNull(), isNull(), isNull(), any(Pageable.class)))
+        when(questionRepository.findFilteredGlobal(isNull(), isNull(), isNull(), isNull(), isNull(), any(Pageable.class)))
                 .thenReturn(page);
-        when(quizAnswerRepository.findAnswerStatsByUserAndQuestions(eq(1L), anyList()))
+        when(userQuestionStatsRepository.findByUserIdAndQuestionIdIn(eq(1L), anyCollection()))
                 .thenReturn(List.of());
 
-        Page<QuestionResponse> result = questionService.getQuestions(1L, null, null, null, null, null, PageRequest.of(0, 20));
+        Page<QuestionResponse> result = questionService.getQuestions(1L, null, null, null, null, null, SearchMode.CONTAINS, null, PageRequest.of(0, 20));
 
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).getStatement()).isEqualTo("Test question?");
+        assertThat(result.getContent().get(0).getAnswerStatus()).isEqualTo("UNANSWERED");
+    }
+
+    @Test
+    void getQuestions_shouldEnrichWithUserQuestionStats() {
+        Page<Question> page = new PageImpl<>(List.of(question));
+        when(questionRepository.findFilteredGlobal(isNull(), isNull(), isNull(), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(page);
+        when(userQuestionStatsRepository.findByUserIdAndQuestionIdIn(eq(1L), anyCollection()))
+                .thenReturn(List.of(UserQuestionStats.builder()
+                        .userId(1L).questionId(1L).timesAnswered(3).timesCorrect(0).build()));
+
+        Page<QuestionResponse> result = questionService.getQuestions(1L, null, null, null, null, null, SearchMode.CONTAINS, null, PageRequest.of(0, 20));
+
+        QuestionResponse response = result.getContent().get(0);
+        assertThat(response.getTimesAnswered()).isEqualTo(3);
+        assertThat(response.getTimesCorrect()).isZero();
+        assertThat(response.getAnswerStatus()).isEqualTo("INCORRECT");
     }
 
     @Test
     void getQuestion_shouldReturnQuestion() {
-        when(questionRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(question));
+        when(questionResponseCache.get(1L)).thenReturn(Optional.of(QuestionResponse.from(question)));
 
         QuestionResponse result = questionService.getQuestion(1L, 1L);
 
@@ -106,7 +132,7 @@ class QuestionServiceTest {
 
     @Test
     void getQuestion_notFound_shouldThrow() {
-        when(questionRepository.findByIdAndUserId(99L, 1L)).thenReturn(Optional.empty());
+        when(questionResponseCache.get(99L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> questionService.getQuestion(1L, 99L))
                 .isInstanceOf(ResourceNotFoundException.class);
@@ -115,7 +141,7 @@ class QuestionServiceTest {
     @Test
     void createQuestion_shouldCreateSuccessfully() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(topicRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(topic));
+        when(topicRepository.findById(1L)).thenReturn(Optional.of(topic));
         when(questionRepository.save(any(Question.class))).thenReturn(question);
 
         QuestionRequest request = QuestionRequest.builder()
@@ -139,7 +165,7 @@ class QuestionServiceTest {
 
     @Test
     void deleteQuestion_shouldSoftDelete() {
-        when(questionRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(question));
+        when(questionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(question));
         when(questionRepository.save(any(Question.class))).thenReturn(question);
 
         questionService.deleteQuestion(1L, 1L);
@@ -150,8 +176,8 @@ class QuestionServiceTest {
 
     @Test
     void updateQuestion_shouldUpdateSuccessfully() {
-        when(questionRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(question));
-        when(topicRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(topic));
+        when(questionRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(question));
+        when(topicRepository.findById(1L)).thenReturn(Optional.of(topic));
         when(questionRepository.save(any(Question.class))).thenReturn(question);
 
         QuestionRequest request = QuestionRequest.builder()
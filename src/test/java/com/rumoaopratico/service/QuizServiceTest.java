@@ -1,11 +1,16 @@
 package com.rumoaopratico.service;
 
 import com.rumoaopratico.dto.request.QuizAnswerRequest;
+import com.rumoaopratico.dto.request.QuizBatchAnswerRequest;
 import com.rumoaopratico.dto.request.QuizStartRequest;
+import com.rumoaopratico.dto.response.QuestionResponse;
+import com.rumoaopratico.dto.response.QuizAnswerDeltaResponse;
 import com.rumoaopratico.dto.response.QuizAnswerResponse;
 import com.rumoaopratico.dto.response.QuizAttemptResponse;
+import com.rumoaopratico.dto.response.QuizBatchAnswerResponse;
 import com.rumoaopratico.dto.response.QuizResultResponse;
 import com.rumoaopratico.exception.BadRequestException;
+import com.rumoaopratico.exception.DuplicateResourceException;
 import com.rumoaopratico.exception.ResourceNotFoundException;
 import com.rumoaopratico.model.*;
 import com.rumoaopratico.model.enums.Difficulty;
@@ -15,9 +20,12 @@ import com.rumoaopratico.repository.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
@@ -39,6 +47,30 @@ class QuizServiceTest {
     private QuestionRepository questionRepository;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private QuestionPoolIndex questionPoolIndex;
+    @Mock
+    private QuestionResponseCache questionResponseCache;
+    @Mock
+    private MasteryCache masteryCache;
+    @Mock
+    private QuizSnapshotService quizSnapshotService;
+    @Mock
+    private AttemptStateCache attemptStateCache;
+    @Mock
+    private QuizAnswerBatchWriter quizAnswerBatchWriter;
+    @Mock
+    private AnswerJournal answerJournal;
+    @Mock
+    private ReviewCardService reviewCardService;
+    @Mock
+    private AnswerStatsRecorder answerStatsRecorder;
+    @Mock
+    private UserStatsService userStatsService;
+    @Mock
+    private ScoreDistributions scoreDistributions;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @InjectMocks
     private QuizService quizService;
@@ -50,6 +82,7 @@ class QuizServiceTest {
 
     @BeforeEach
     void setUp() {
+        quizService.init();
         user = User.builder().id(1L).name("Test User").email("test@test.com").build();
         topic = Topic.builder().id(1L).user(user).name("Arte Naval").build();
 
@@ -90,8 +123,11 @@ class QuizServiceTest {
     @Test
     void startQuiz_shouldCreateAttempt() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(questionRepository.findRandomForQuiz(eq(1L), eq(List.of(1L)), isNull(), isNull(), any(Pageable.class)))
-                .thenReturn(List.of(question));
+        when(questionPoolIndex.isEnabled()).thenReturn(true);
+        when(questionPoolIndex.sample(eq(List.of(1L)), isNull(), isNull(), eq(10), any()))
+                .thenReturn(new long[]{1L});
+        when(questionRepository.findAllById(List.of(1L))).thenReturn(List.of(question));
+        when(questionResponseCache.getAllInOrder(List.of(1L))).thenReturn(List.of(QuestionResponse.from(question)));
         when(quizAttemptRepository.save(any(QuizAttempt.class))).thenReturn(attempt);
 
         QuizStartRequest request = QuizStartRequest.builder()
@@ -106,13 +142,83 @@ class QuizServiceTest {
         assertThat(result.getMode()).isEqualTo(QuizMode.STUDY);
         assertThat(result.getQuestions()).hasSize(1);
         verify(quizAttemptRepository).save(any(QuizAttempt.class));
+        verify(quizSnapshotService).save(eq(1L), anyList());
+    }
+
+    @Test
+    void startQuiz_shouldLinkOnlyTopicsOfSelectedQuestions() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(questionPoolIndex.isEnabled()).thenReturn(true);
+        when(questionPoolIndex.sample(eq(List.of(1L, 404L)), isNull(), isNull(), eq(10), any()))
+                .thenReturn(new long[]{1L});
+        when(questionRepository.findAllById(List.of(1L))).thenReturn(List.of(question));
+        when(questionResponseCache.getAllInOrder(List.of(1L))).thenReturn(List.of(QuestionResponse.from(question)));
+        when(quizAttemptRepository.save(any(QuizAttempt.class))).thenReturn(attempt);
+
+        QuizStartRequest request = QuizStartRequest.builder()
+                .topicIds(List.of(1L, 404L))
+                .questionCount(10)
+                .mode(QuizMode.STUDY)
+                .build();
+
+        quizService.startQuiz(1L, request);
+
+        // 404 does not exist; linking it would violate the quiz_attempt_topics foreign key
+        verify(quizAttemptRepository).save(argThat(saved -> saved.getTopicIds().equals(Set.of(1L))));
+    }
+
+    @Test
+    void startQuiz_indexDisabled_shouldSelectInSingleQuery() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(questionPoolIndex.isEnabled()).thenReturn(false);
+        List<QuestionType> types = List.of(QuestionType.MULTIPLE_CHOICE, QuestionType.TRUE_FALSE);
+        when(questionRepository.findForQuiz(eq(1L), eq(List.of(1L)), eq(types), isNull(), eq(false), anyCollection(), eq(true), any(Pageable.class)))
+                .thenReturn(List.of(question));
+        when(questionResponseCache.getAllInOrder(List.of(1L))).thenReturn(List.of(QuestionResponse.from(question)));
+        when(quizAttemptRepository.save(any(QuizAttempt.class))).thenReturn(attempt);
+
+        QuizStartRequest request = QuizStartRequest.builder()
+                .topicIds(List.of(1L))
+                .questionCount(10)
+                .types(types)
+                .mode(QuizMode.STUDY)
+                .build();
+
+        QuizAttemptResponse result = quizService.startQuiz(1L, request);
+
+        assertThat(result.getQuestions()).hasSize(1);
+        verify(questionRepository, times(1)).findForQuiz(any(), any(), any(), any(), anyBoolean(), any(), anyBoolean(), any(Pageable.class));
+    }
+
+    @Test
+    void startQuiz_withTags_shouldBypassIndexAndFilterByNormalizedTags() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(questionPoolIndex.isEnabled()).thenReturn(true);
+        when(questionRepository.findForQuiz(eq(1L), eq(List.of(1L)), anyList(), isNull(), eq(true),
+                eq(Set.of("navegação", "balizamento")), eq(true), any(Pageable.class)))
+                .thenReturn(List.of(question));
+        when(questionResponseCache.getAllInOrder(List.of(1L))).thenReturn(List.of(QuestionResponse.from(question)));
+        when(quizAttemptRepository.save(any(QuizAttempt.class))).thenReturn(attempt);
+
+        QuizStartRequest request = QuizStartRequest.builder()
+                .topicIds(List.of(1L))
+                .questionCount(10)
+                .tags(List.of(" Navegação ", "balizamento,NAVEGAÇÃO"))
+                .mode(QuizMode.STUDY)
+                .build();
+
+        QuizAttemptResponse result = quizService.startQuiz(1L, request);
+
+        assertThat(result.getQuestions()).hasSize(1);
+        verify(questionPoolIndex, never()).sample(any(), any(), any(), anyInt(), any());
     }
 
     @Test
     void startQuiz_noQuestions_shouldThrow() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(questionRepository.findRandomForQuiz(eq(1L), eq(List.of(99L)), isNull(), isNull(), any(Pageable.class)))
-                .thenReturn(List.of());
+        when(questionPoolIndex.isEnabled()).thenReturn(true);
+        when(questionPoolIndex.sample(eq(List.of(99L)), isNull(), isNull(), eq(10), any()))
+                .thenReturn(new long[0]);
 
         QuizStartRequest request = QuizStartRequest.builder()
                 .topicIds(List.of(99L))
@@ -129,7 +235,8 @@ class QuizServiceTest {
     void submitAnswer_correctAnswer_shouldReturnTrue() {
         when(quizAttemptRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(attempt));
         when(quizAnswerRepository.existsByAttemptIdAndQuestionId(1L, 1L)).thenReturn(false);
-        when(questionRepository.findById(1L)).thenReturn(Optional.of(question));
+        when(quizSnapshotService.load(1L)).thenReturn(Optional.of(List.of(QuestionResponse.from(question))));
+        when(questionRepository.getReferenceById(1L)).thenReturn(question);
 
         QuizAnswer savedAnswer = QuizAnswer.builder()
                 .id(1L)
@@ -140,7 +247,7 @@ class QuizServiceTest {
                 .answeredAt(LocalDateTime.now())
                 .build();
         when(quizAnswerRepository.save(any(QuizAnswer.class))).thenReturn(savedAnswer);
-        when(quizAttemptRepository.save(any(QuizAttempt.class))).thenReturn(attempt);
+        when(quizAttemptRepository.incrementCorrectCount(1L, 1)).thenReturn(1);
 
         QuizAnswerRequest request = QuizAnswerRequest.builder()
                 .questionId(1L)
@@ -151,6 +258,71 @@ class QuizServiceTest {
 
         assertThat(result).isNotNull();
         assertThat(result.getIsCorrect()).isTrue();
+        verify(quizAttemptRepository, never()).save(any(QuizAttempt.class));
+    }
+
+    @Test
+    void submitAnswer_finishedAfterLoad_shouldNotInsertAnswer() {
+        // The attempt was open when loaded; a finish committed before the guarded increment ran
+        when(quizAttemptRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(attempt));
+        when(quizAnswerRepository.existsByAttemptIdAndQuestionId(1L, 1L)).thenReturn(false);
+        when(quizSnapshotService.load(1L)).thenReturn(Optional.of(List.of(QuestionResponse.from(question))));
+        when(questionRepository.getReferenceById(1L)).thenReturn(question);
+        when(quizAttemptRepository.incrementCorrectCount(1L, 1)).thenReturn(0);
+
+        QuizAnswerRequest request = QuizAnswerRequest.builder()
+                .questionId(1L)
+                .answer(Map.of("selectedOptionId", 10))
+                .build();
+
+        assertThatThrownBy(() -> quizService.submitAnswer(1L, 1L, request))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("already finished");
+        verify(quizAnswerRepository, never()).save(any(QuizAnswer.class));
+        verify(quizAttemptRepository, never()).save(any(QuizAttempt.class));
+    }
+
+    @Test
+    void submitAnswer_questionEditedAfterStart_shouldGradeAgainstSnapshot() {
+        QuestionResponse snapshot = QuestionResponse.from(question);
+        // An admin made option 11 the correct one after the attempt started
+        question.getOptions().get(0).setIsCorrect(false);
+        question.getOptions().get(1).setIsCorrect(true);
+        when(quizAttemptRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(attempt));
+        when(quizAnswerRepository.existsByAttemptIdAndQuestionId(1L, 1L)).thenReturn(false);
+        when(quizSnapshotService.load(1L)).thenReturn(Optional.of(List.of(snapshot)));
+        when(questionRepository.getReferenceById(1L)).thenReturn(question);
+        when(quizAttemptRepository.incrementCorrectCount(1L, 1)).thenReturn(1);
+        when(quizAnswerRepository.save(any(QuizAnswer.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        QuizAnswerRequest request = QuizAnswerRequest.builder()
+                .questionId(1L)
+                .answer(Map.of("selectedOptionId", 10))
+                .build();
+
+        QuizAnswerResponse result = quizService.submitAnswer(1L, 1L, request);
+
+        assertThat(result.getIsCorrect()).isTrue();
+        assertThat(result.getQuestion()).isSameAs(snapshot);
+        verify(questionRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void submitAnswer_questionNotInAttempt_shouldThrow() {
+        when(quizAttemptRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(attempt));
+        when(quizAnswerRepository.existsByAttemptIdAndQuestionId(1L, 99L)).thenReturn(false);
+        when(quizSnapshotService.load(1L)).thenReturn(Optional.of(List.of(QuestionResponse.from(question))));
+
+        QuizAnswerRequest request = QuizAnswerRequest.builder()
+                .questionId(99L)
+                .answer(Map.of("selectedOptionId", 10))
+                .build();
+
+        assertThatThrownBy(() -> quizService.submitAnswer(1L, 1L, request))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("not part of this attempt");
+        verify(quizAnswerRepository, never()).save(any(QuizAnswer.class));
+        verify(quizAttemptRepository, never()).incrementCorrectCount(anyLong(), anyInt());
     }
 
     @Test
@@ -168,12 +340,152 @@ class QuizServiceTest {
                 .hasMessageContaining("already answered");
     }
 
+    @Test
+    void submitAnswerSimple_cachedState_shouldNotReloadAttempt() {
+        AttemptState state = new AttemptState(attempt, 1L,
+                List.of(QuestionResponse.from(question)), List.of());
+        when(attemptStateCache.get(1L)).thenReturn(state);
+        when(quizAttemptRepository.getReferenceById(1L)).thenReturn(attempt);
+        when(questionRepository.getReferenceById(1L)).thenReturn(question);
+        when(quizAnswerRepository.save(any(QuizAnswer.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(quizAttemptRepository.incrementCorrectCount(1L, 1)).thenReturn(1);
+
+        QuizAttemptResponse result = quizService.submitAnswerSimple(1L, 1L, Map.of("answer", "a"));
+
+        assertThat(result.getCorrectCount()).isEqualTo(1);
+        assertThat(result.getCurrentQuestionIndex()).isEqualTo(1);
+        assertThat(result.getQuestions().get(0).getCorrect()).isTrue();
+        verify(quizAttemptRepository, never()).findByIdAndUserId(anyLong(), anyLong());
+        verify(quizAnswerRepository, never()).findByAttemptId(anyLong());
+    }
+
+    @Test
+    void submitAnswerDelta_shouldReturnOnlyEvaluationAndCounters() {
+        AttemptState state = new AttemptState(attempt, 1L,
+                List.of(QuestionResponse.from(question)), List.of());
+        when(attemptStateCache.get(1L)).thenReturn(state);
+        when(quizAttemptRepository.getReferenceById(1L)).thenReturn(attempt);
+        when(questionRepository.getReferenceById(1L)).thenReturn(question);
+        when(quizAnswerRepository.save(any(QuizAnswer.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(quizAttemptRepository.incrementCorrectCount(1L, 0)).thenReturn(1);
+
+        QuizAnswerDeltaResponse result = quizService.submitAnswerDelta(1L, 1L, Map.of("answer", "b"));
+
+        assertThat(result.getQuestionId()).isEqualTo(1L);
+        assertThat(result.getCorrect()).isFalse();
+        assertThat(result.getCorrectOptionIds()).containsExactly(10L);
+        assertThat(result.getCorrectCount()).isZero();
+        assertThat(result.getCurrentQuestionIndex()).isEqualTo(1);
+        assertThat(result.getVersion()).isEqualTo(1L);
+        // Incorrect answers still go through the finished_at guard, with a zero delta
+        verify(quizAttemptRepository).incrementCorrectCount(1L, 0);
+    }
+
+    @Test
+    void submitAnswerSimple_finishedElsewhere_shouldNotInsertAnswer() {
+        AttemptState state = new AttemptState(attempt, 1L,
+                List.of(QuestionResponse.from(question)), List.of());
+        when(attemptStateCache.get(1L)).thenReturn(state);
+        when(quizAttemptRepository.getReferenceById(1L)).thenReturn(attempt);
+        when(questionRepository.getReferenceById(1L)).thenReturn(question);
+        when(quizAttemptRepository.incrementCorrectCount(1L, 0)).thenReturn(0);
+
+        assertThatThrownBy(() -> quizService.submitAnswerSimple(1L, 1L, Map.of("answer", "b")))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("already finished");
+        verify(quizAnswerRepository, never()).save(any(QuizAnswer.class));
+        verifyNoInteractions(answerStatsRecorder);
+        verify(attemptStateCache).invalidate(1L);
+    }
+
+    @Test
+    void submitAnswerSimple_answeredThroughAnotherNode_shouldInvalidateStateAndConflict() {
+        AttemptState state = new AttemptState(attempt, 1L,
+                List.of(QuestionResponse.from(question)), List.of());
+        when(attemptStateCache.get(1L)).thenReturn(state);
+        when(quizAttemptRepository.getReferenceById(1L)).thenReturn(attempt);
+        when(questionRepository.getReferenceById(1L)).thenReturn(question);
+        when(quizAttemptRepository.incrementCorrectCount(1L, 1)).thenReturn(1);
+        when(quizAnswerRepository.save(any(QuizAnswer.class)))
+                .thenThrow(new DataIntegrityViolationException("uq_quiz_answers_attempt_question"));
+
+        assertThatThrownBy(() -> quizService.submitAnswerSimple(1L, 1L, Map.of("answer", "a")))
+                .isInstanceOf(DuplicateResourceException.class);
+        verify(attemptStateCache).invalidate(1L);
+        verifyNoInteractions(answerStatsRecorder);
+    }
+
+    @Test
+    void submitAnswers_shouldRejectDuplicatesAndOutOfOrderItems() {
+        Question second = Question.builder()
+                .id(2L).user(user).topic(topic).type(QuestionType.MULTIPLE_CHOICE)
+                .statement("Second?").isActive(true).options(question.getOptions()).build();
+        AttemptState state = new AttemptState(attempt, 1L,
+                List.of(QuestionResponse.from(question), QuestionResponse.from(second)), List.of());
+        when(attemptStateCache.get(1L)).thenReturn(state);
+        when(quizAttemptRepository.getReferenceById(1L)).thenReturn(attempt);
+        when(questionRepository.getReferenceById(anyLong()))
+                .thenAnswer(inv -> Question.builder().id(inv.getArgument(0)).build());
+        when(quizAttemptRepository.incrementCorrectCount(1L, 1)).thenReturn(1);
+
+        QuizBatchAnswerRequest request = QuizBatchAnswerRequest.builder()
+                .answers(List.of(
+                        new QuizBatchAnswerRequest.Item(2L, "a"),
+                        new QuizBatchAnswerRequest.Item(1L, "a"),
+                        new QuizBatchAnswerRequest.Item(1L, "b"),
+                        new QuizBatchAnswerRequest.Item(99L, "a"),
+                        new QuizBatchAnswerRequest.Item(2L, "b")))
+                .build();
+
+        QuizBatchAnswerResponse result = quizService.submitAnswers(1L, 1L, request);
+
+        assertThat(result.getResults()).extracting(QuizBatchAnswerResponse.ItemResult::getStatus).containsExactly(
+                QuizBatchAnswerResponse.ItemStatus.OUT_OF_ORDER,
+                QuizBatchAnswerResponse.ItemStatus.ACCEPTED,
+                QuizBatchAnswerResponse.ItemStatus.DUPLICATE,
+                QuizBatchAnswerResponse.ItemStatus.UNKNOWN_QUESTION,
+                QuizBatchAnswerResponse.ItemStatus.ACCEPTED);
+        assertThat(result.getAcceptedCount()).isEqualTo(2);
+        assertThat(result.getCorrectCount()).isEqualTo(1);
+        assertThat(result.getCurrentQuestionIndex()).isEqualTo(2);
+        verify(quizAnswerBatchWriter).insertAll(argThat(answers -> answers.size() == 2));
+        verify(quizAnswerRepository, never()).save(any(QuizAnswer.class));
+    }
+
+    @Test
+    void submitAnswers_finishedElsewhere_shouldNotInsertBatch() {
+        AttemptState state = new AttemptState(attempt, 1L,
+                List.of(QuestionResponse.from(question)), List.of());
+        when(attemptStateCache.get(1L)).thenReturn(state);
+        when(quizAttemptRepository.getReferenceById(1L)).thenReturn(attempt);
+        when(questionRepository.getReferenceById(1L)).thenReturn(question);
+        when(quizAttemptRepository.incrementCorrectCount(1L, 1)).thenReturn(0);
+
+        QuizBatchAnswerRequest request = QuizBatchAnswerRequest.builder()
+                .answers(List.of(new QuizBatchAnswerRequest.Item(1L, "a")))
+                .build();
+
+        assertThatThrownBy(() -> quizService.submitAnswers(1L, 1L, request))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("already finished");
+        verifyNoInteractions(quizAnswerBatchWriter, answerStatsRecorder);
+    }
+
+    @Test
+    void submitAnswerSimple_otherUsersAttempt_shouldThrowNotFound() {
+        AttemptState state = new AttemptState(attempt, 2L,
+                List.of(QuestionResponse.from(question)), List.of());
+        when(attemptStateCache.get(1L)).thenReturn(state);
+
+        assertThatThrownBy(() -> quizService.submitAnswerSimple(1L, 1L, Map.of("answer", "a")))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
     @Test
     void finishQuiz_shouldReturnResult() {
-        when(quizAttemptRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(attempt));
-        when(quizAnswerRepository.countByAttemptId(1L)).thenReturn(1L);
+        when(quizAttemptRepository.findByIdAndUserIdForUpdate(1L, 1L)).thenReturn(Optional.of(attempt));
         when(quizAnswerRepository.countByAttemptIdAndIsCorrectTrue(1L)).thenReturn(1L);
-        when(quizAttemptRepository.save(any(QuizAttempt.class))).thenReturn(attempt);
+        when(quizAttemptRepository.markFinished(eq(1L), any(LocalDateTime.class), eq(1))).thenReturn(1);
 
         QuizAnswer answer = QuizAnswer.builder()
                 .id(1L).attempt(attempt).question(question)
@@ -187,16 +499,96 @@ class QuizServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getCorrectCount()).isEqualTo(1);
         assertThat(result.getSuccessRate()).isEqualTo(100.0);
-        verify(quizAttemptRepository).save(any(QuizAttempt.class));
+        assertThat(attempt.getFinishedAt()).isNotNull();
+        verify(userStatsService).recordFinished(1L, attempt);
+    }
+
+    @Test
+    void finishQuiz_shouldCountCorrectAnswersOnlyOnceAttemptIsLocked() {
+        when(quizAttemptRepository.findByIdAndUserIdForUpdate(1L, 1L)).thenReturn(Optional.of(attempt));
+        // A submit that committed while the finish waited for the row lock is counted
+        when(quizAnswerRepository.countByAttemptIdAndIsCorrectTrue(1L)).thenReturn(2L);
+        when(quizAttemptRepository.markFinished(eq(1L), any(LocalDateTime.class), eq(2))).thenReturn(1);
+
+        quizService.finishQuiz(1L, 1L);
+
+        InOrder inOrder = inOrder(quizAttemptRepository, quizAnswerRepository);
+        inOrder.verify(quizAttemptRepository).findByIdAndUserIdForUpdate(1L, 1L);
+        inOrder.verify(quizAnswerRepository).countByAttemptIdAndIsCorrectTrue(1L);
+        inOrder.verify(quizAttemptRepository).markFinished(eq(1L), any(LocalDateTime.class), eq(2));
+        assertThat(attempt.getCorrectCount()).isEqualTo(2);
+        verify(userStatsService).recordFinished(1L, attempt);
+    }
+
+    @Test
+    void finishQuiz_finishedConcurrently_shouldNotRecordStatsTwice() {
+        // Both requests loaded the attempt while it was open; the other one closed it first
+        when(quizAttemptRepository.findByIdAndUserIdForUpdate(1L, 1L)).thenReturn(Optional.of(attempt));
+        when(quizAnswerRepository.countByAttemptIdAndIsCorrectTrue(1L)).thenReturn(1L);
+        when(quizAttemptRepository.markFinished(eq(1L), any(LocalDateTime.class), eq(1))).thenReturn(0);
+
+        assertThatThrownBy(() -> quizService.finishQuiz(1L, 1L))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("already finished");
+        verifyNoInteractions(userStatsService);
+    }
+
+    @Test
+    void abandonQuiz_shouldCloseAttemptAndRecordStats() {
+        when(quizAttemptRepository.findByIdAndUserIdForUpdate(1L, 1L)).thenReturn(Optional.of(attempt));
+        when(quizAnswerRepository.countByAttemptIdAndIsCorrectTrue(1L)).thenReturn(0L);
+        when(quizAttemptRepository.markFinished(eq(1L), any(LocalDateTime.class), eq(0))).thenReturn(1);
+
+        quizService.abandonQuiz(1L, 1L);
+
+        assertThat(attempt.getFinishedAt()).isNotNull();
+        verify(userStatsService).recordFinished(1L, attempt);
+        verify(attemptStateCache).invalidate(1L);
+    }
+
+    @Test
+    void finishQuiz_shouldFlushJournalBeforeOpeningTransaction() {
+        when(quizAttemptRepository.findByIdAndUserIdForUpdate(1L, 1L)).thenReturn(Optional.of(attempt));
+        when(quizAttemptRepository.markFinished(eq(1L), any(LocalDateTime.class), eq(0))).thenReturn(1);
+
+        quizService.finishQuiz(1L, 1L);
+
+        // The flush uses a connection of its own; taking it while holding the request's could starve the pool
+        InOrder inOrder = inOrder(answerJournal, transactionManager, quizAttemptRepository);
+        inOrder.verify(answerJournal).flushAttempt(1L);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(quizAttemptRepository).findByIdAndUserIdForUpdate(1L, 1L);
+    }
+
+    @Test
+    void getAttempt_notCached_shouldMergeJournaledAnswersWithoutFlushing() {
+        QuizAnswer journaled = QuizAnswer.builder()
+                .attempt(QuizAttempt.builder().id(1L).build())
+                .userId(1L)
+                .question(Question.builder().id(1L).build())
+                .userAnswerJson(Map.of("selectedOptionId", 10L))
+                .isCorrect(true)
+                .build();
+        when(answerJournal.unflushedAnswers(1L)).thenReturn(List.of(journaled));
+        when(quizAttemptRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(attempt));
+        when(quizAnswerRepository.findByAttemptId(1L)).thenReturn(List.of());
+        when(quizSnapshotService.load(1L)).thenReturn(Optional.of(List.of(QuestionResponse.from(question))));
+
+        QuizAttemptResponse result = quizService.getAttempt(1L, 1L);
+
+        assertThat(result.getQuestions().get(0).getAnswered()).isTrue();
+        assertThat(result.getCorrectCount()).isEqualTo(1);
+        verify(answerJournal, never()).flushAttempt(anyLong());
     }
 
     @Test
     void finishQuiz_alreadyFinished_shouldThrow() {
         attempt.setFinishedAt(LocalDateTime.now());
-        when(quizAttemptRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(attempt));
+        when(quizAttemptRepository.findByIdAndUserIdForUpdate(1L, 1L)).thenReturn(Optional.of(attempt));
 
         assertThatThrownBy(() -> quizService.finishQuiz(1L, 1L))
                 .isInstanceOf(BadRequestException.class)
                 .hasMessageContaining("already finished");
+        verifyNoInteractions(userStatsService);
     }
 }
@@ -0,0 +1,54 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.model.ReviewCard;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ReviewSchedulerTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @Test
+    void correctAnswers_shouldFollowSm2Intervals() {
+        ReviewCard card = ReviewCard.newCard(1L, 1L);
+
+        ReviewScheduler.schedule(card, true, now);
+        assertThat(card.getIntervalDays()).isEqualTo(1);
+        assertThat(card.getDueAt()).isEqualTo(now.plusDays(1));
+
+        ReviewScheduler.schedule(card, true, now);
+        assertThat(card.getIntervalDays()).isEqualTo(6);
+
+        ReviewScheduler.schedule(card, true, now);
+        assertThat(card.getRepetitions()).isEqualTo(3);
+        assertThat(card.getIntervalDays()).isEqualTo((int) Math.round(6 * card.getEaseFactor()));
+        assertThat(card.getEaseFactor()).isCloseTo(ReviewCard.DEFAULT_EASE_FACTOR, within(1e-9));
+    }
+
+    @Test
+    void incorrectAnswer_shouldResetIntervalAndLowerEase() {
+        ReviewCard card = ReviewCard.newCard(1L, 1L);
+        ReviewScheduler.schedule(card, true, now);
+        ReviewScheduler.schedule(card, true, now);
+
+        ReviewScheduler.schedule(card, false, now);
+
+        assertThat(card.getRepetitions()).isZero();
+        assertThat(card.getIntervalDays()).isEqualTo(1);
+        assertThat(card.getEaseFactor()).isLessThan(ReviewCard.DEFAULT_EASE_FACTOR);
+        assertThat(card.getLastReviewedAt()).isEqualTo(now);
+    }
+
+    @Test
+    void easeFactor_shouldNotDropBelowMinimum() {
+        ReviewCard card = ReviewCard.newCard(1L, 1L);
+        for (int i = 0; i < 20; i++) {
+            ReviewScheduler.schedule(card, false, now);
+        }
+        assertThat(card.getEaseFactor()).isEqualTo(ReviewScheduler.MIN_EASE_FACTOR);
+    }
+}
@@ -0,0 +1,60 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.model.ScoreDistribution;
+import com.rumoaopratico.model.enums.QuizMode;
+import com.rumoaopratico.repository.ScoreDistributionRepository;
+import com.rumoaopratico.util.ScoreHistogram;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ScoreDistributionsTest {
+
+    private final ScoreDistributionRepository repository = mock(ScoreDistributionRepository.class);
+
+    private ScoreDistributions distributions;
+
+    @BeforeEach
+    void setUp() {
+        distributions = new ScoreDistributions(repository, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(distributions, "refreshIntervalMs", 300000L);
+        distributions.init();
+    }
+
+    @Test
+    void flush_nothingPendingAndSnapshotFresh_shouldNotReload() {
+        distributions.percentileRank(ScoreDistributions.overall(), 50.0);
+
+        distributions.flush();
+
+        verify(repository, times(1)).findAll();
+        verify(repository, never()).insertIfAbsent(anyString());
+    }
+
+    @Test
+    void flush_afterWrite_shouldReloadAndKeepCounts() {
+        distributions.percentileRank(ScoreDistributions.overall(), 50.0);
+        ScoreDistribution row = ScoreDistribution.builder()
+                .scope(ScoreDistributions.overall())
+                .counts(new ScoreHistogram().toCounts())
+                .total(0L)
+                .build();
+        when(repository.findByScopeForUpdate(ScoreDistributions.overall())).thenReturn(Optional.of(row));
+        when(repository.findByScopeForUpdate(ScoreDistributions.mode(QuizMode.STUDY)))
+                .thenReturn(Optional.of(ScoreDistribution.builder().counts(new ScoreHistogram().toCounts()).build()));
+
+        distributions.recordFinished(QuizMode.STUDY, 80.0, Map.of());
+        distributions.flush();
+
+        verify(repository, times(2)).findAll();
+        assertThat(row.getTotal()).isEqualTo(1L);
+    }
+}
@@ -0,0 +1,79 @@
+package com.rumoaopratico.service;
+
+import com.rumoaopratico.model.QuizAttempt;
+import com.rumoaopratico.model.enums.QuizMode;
+import com.rumoaopratico.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UserStatsServiceTest {
+
+    private final UserStatsRepository userStatsRepository = mock(UserStatsRepository.class);
+    private final UserTopicStatsRepository userTopicStatsRepository = mock(UserTopicStatsRepository.class);
+    private final UserDailyProgressRepository dailyProgressRepository = mock(UserDailyProgressRepository.class);
+    private final UserDailyTopicProgressRepository dailyTopicProgressRepository = mock(UserDailyTopicProgressRepository.class);
+    private final QuizAnswerRepository quizAnswerRepository = mock(QuizAnswerRepository.class);
+    private final LeaderboardIndex leaderboardIndex = mock(LeaderboardIndex.class);
+    private final ScoreDistributions scoreDistributions = mock(ScoreDistributions.class);
+
+    private UserStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserStatsService(userStatsRepository, userTopicStatsRepository, dailyProgressRepository,
+                dailyTopicProgressRepository, quizAnswerRepository, mock(UserRepository.class), leaderboardIndex,
+                scoreDistributions, mock(PlatformTransactionManager.class));
+        service.init();
+    }
+
+    @Test
+    void recordFinished_shouldAddAttemptToEveryAggregate() {
+        LocalDateTime startedAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+        QuizAttempt attempt = QuizAttempt.builder()
+                .id(3L)
+                .mode(QuizMode.STUDY)
+                .totalQuestions(4)
+                .correctCount(3)
+                .startedAt(startedAt)
+                .finishedAt(startedAt.plusMinutes(2))
+                .build();
+        // topic id, answered, correct
+        when(quizAnswerRepository.countByTopicForAttempt(3L)).thenReturn(List.of(
+                new Object[]{1L, 3L, 2L}, new Object[]{2L, 1L, 1L}));
+
+        service.recordFinished(7L, attempt);
+
+        LocalDate day = LocalDate.of(2024, 5, 1);
+        verify(userStatsRepository).addAttempt(7L, "STUDY", 4, 3, 120);
+        verify(userTopicStatsRepository).addAttempt(7L, 1L, 3, 2);
+        verify(userTopicStatsRepository).addAttempt(7L, 2L, 1, 1);
+        verify(dailyProgressRepository).addAttempt(7L, day, 4, 3, 120);
+        // The time is split by share of answers
+        verify(dailyTopicProgressRepository).addAttempt(7L, day, 1L, 3, 2, 90);
+        verify(dailyTopicProgressRepository).addAttempt(7L, day, 2L, 1, 1, 30);
+        verify(leaderboardIndex).recordFinished(7L, QuizMode.STUDY, 3, Map.of(1L, 2L, 2L, 1L));
+        verify(scoreDistributions).recordFinished(eq(QuizMode.STUDY), eq(75.0), argThat(scores ->
+                Math.abs(scores.get(1L) - 200.0 / 3) < 1e-9 && scores.get(2L) == 100.0));
+    }
+
+    @Test
+    void rebuild_shouldReplaceUsersRowsFromHistory() {
+        service.rebuild(7L);
+
+        verify(userStatsRepository).deleteByUserId(7L);
+        verify(userStatsRepository).insertFromAttempts(7L);
+        verify(userTopicStatsRepository).insertFromAnswers(7L);
+        verify(dailyProgressRepository).insertFromAttempts(7L);
+        verify(dailyTopicProgressRepository).insertFromAnswers(7L);
+        verify(leaderboardIndex).reloadUser(7L);
+    }
+}
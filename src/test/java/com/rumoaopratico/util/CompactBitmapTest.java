@@ -0,0 +1,35 @@
+package com.rumoaopratico.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactBitmapTest {
+
+    @Test
+    void add_shouldBeVisibleToContains() {
+        CompactBitmap bitmap = CompactBitmap.of(List.of(1L, 70_000L, 5_000_000_000L));
+
+        assertThat(bitmap.contains(1L)).isTrue();
+        assertThat(bitmap.contains(70_000L)).isTrue();
+        assertThat(bitmap.contains(5_000_000_000L)).isTrue();
+        assertThat(bitmap.contains(2L)).isFalse();
+        assertThat(bitmap.getCardinality()).isEqualTo(3);
+    }
+
+    @Test
+    void denseChunk_shouldSwitchToBitsetWithoutLosingValues() {
+        CompactBitmap bitmap = new CompactBitmap();
+        for (long v = 0; v < 10_000; v += 2) {
+            bitmap.add(v);
+            bitmap.add(v);
+        }
+
+        assertThat(bitmap.getCardinality()).isEqualTo(5_000);
+        assertThat(bitmap.contains(9_998L)).isTrue();
+        assertThat(bitmap.contains(9_999L)).isFalse();
+        assertThat(bitmap.sizeInBytes()).isLessThan(10_000L);
+    }
+}
@@ -0,0 +1,33 @@
+package com.rumoaopratico.util;
+
+import com.rumoaopratico.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void encode_shouldRoundTrip() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2024, 3, 1, 10, 15, 30, 123_000_000), 42L);
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void decode_missingCursor_shouldStartFromTheTop() {
+        assertThat(KeysetCursor.decode(null)).isEqualTo(KeysetCursor.START);
+        assertThat(KeysetCursor.decode("")).isEqualTo(KeysetCursor.START);
+    }
+
+    @Test
+    void decode_garbage_shouldBeRejected() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not a cursor"))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode("bm9zZXBhcmF0b3I"))
+                .isInstanceOf(BadRequestException.class);
+    }
+}
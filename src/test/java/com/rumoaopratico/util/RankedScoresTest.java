@@ -0,0 +1,66 @@
+package com.rumoaopratico.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankedScoresTest {
+
+    @Test
+    void rank_shouldShareRankOnTies() {
+        RankedScores scores = new RankedScores();
+        scores.set(1L, 10);
+        scores.set(2L, 30);
+        scores.set(3L, 10);
+        scores.set(4L, 5);
+
+        assertThat(scores.rank(2L)).hasValue(1);
+        assertThat(scores.rank(1L)).hasValue(2);
+        assertThat(scores.rank(3L)).hasValue(2);
+        assertThat(scores.rank(4L)).hasValue(4);
+        assertThat(scores.rank(99L)).isEmpty();
+        assertThat(scores.top(3)).containsExactly(
+                new RankedScores.Entry(2L, 30), new RankedScores.Entry(1L, 10), new RankedScores.Entry(3L, 10));
+    }
+
+    @Test
+    void updates_shouldMoveUsersAndGrowPastInitialCapacity() {
+        RankedScores scores = new RankedScores();
+        scores.set(1L, 10);
+        scores.set(2L, 20);
+
+        scores.add(1L, 1_000);
+        scores.remove(2L);
+        scores.add(3L, 7);
+
+        assertThat(scores.size()).isEqualTo(2);
+        assertThat(scores.score(1L)).hasValue(1_010);
+        assertThat(scores.rank(1L)).hasValue(1);
+        assertThat(scores.rank(3L)).hasValue(2);
+        assertThat(scores.rank(2L)).isEmpty();
+    }
+
+    @Test
+    void rank_shouldMatchLinearCount() {
+        Random random = new Random(42);
+        RankedScores scores = new RankedScores();
+        int[] expected = new int[500];
+        for (int i = 0; i < 5_000; i++) {
+            int user = random.nextInt(expected.length);
+            int score = random.nextInt(3_000);
+            scores.set(user, score);
+            expected[user] = score + 1; // 0 marks an unranked user
+        }
+
+        for (int user = 0; user < expected.length; user++) {
+            if (expected[user] == 0) continue;
+            int higher = 0;
+            for (int other : expected) {
+                if (other > expected[user]) higher++;
+            }
+            assertThat(scores.rank(user)).hasValue(higher + 1);
+        }
+    }
+}
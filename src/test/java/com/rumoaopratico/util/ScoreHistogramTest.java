@@ -0,0 +1,52 @@
+package com.rumoaopratico.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ScoreHistogramTest {
+
+    @Test
+    void percentileRank_shouldCountTiesAsHalf() {
+        ScoreHistogram histogram = new ScoreHistogram();
+        for (double score : new double[]{20, 40, 60, 60, 80}) {
+            histogram.add(score);
+        }
+
+        assertThat(histogram.percentileRank(60)).isCloseTo(60.0, within(1e-9));
+        assertThat(histogram.percentileRank(100)).isCloseTo(100.0, within(1e-9));
+        assertThat(histogram.percentileRank(0)).isCloseTo(0.0, within(1e-9));
+        assertThat(histogram.quantile(0.5)).isEqualTo(60);
+        assertThat(new ScoreHistogram().percentileRank(50)).isNull();
+    }
+
+    @Test
+    void merge_shouldMatchRecordingEverythingInOneHistogram() {
+        ScoreHistogram nodeA = new ScoreHistogram();
+        ScoreHistogram nodeB = new ScoreHistogram();
+        ScoreHistogram all = new ScoreHistogram();
+        for (int i = 0; i < 1_000; i++) {
+            double score = (i * 37) % 101;
+            (i % 3 == 0 ? nodeA : nodeB).add(score);
+            all.add(score);
+        }
+
+        ScoreHistogram merged = ScoreHistogram.of(nodeA.toCounts());
+        merged.merge(nodeB);
+
+        assertThat(merged.toCounts()).isEqualTo(all.toCounts());
+        assertThat(merged.total()).isEqualTo(1_000);
+    }
+
+    @Test
+    void of_shouldPadShortCounts() {
+        ScoreHistogram histogram = ScoreHistogram.of(List.of(1L, 2L));
+
+        assertThat(histogram.total()).isEqualTo(3);
+        assertThat(histogram.toCounts()).hasSize(ScoreHistogram.BUCKETS);
+        assertThat(histogram.quantile(1.0)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,35 @@
+package com.rumoaopratico.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TagsTest {
+
+    @Test
+    void normalize_shouldTrimLowerCaseAndDropBlanksAndDuplicates() {
+        assertThat(Tags.normalize(" COLREG, balizamento ,, colreg ,  "))
+                .containsExactly("colreg", "balizamento");
+    }
+
+    @Test
+    void normalize_null_shouldBeEmpty() {
+        assertThat(Tags.normalize((String) null)).isEmpty();
+        assertThat(Tags.normalize((List<String>) null)).isEmpty();
+    }
+
+    @Test
+    void normalizeOne_shouldTruncateLongTags() {
+        assertThat(Tags.normalizeOne("x".repeat(150))).hasSize(Tags.MAX_LENGTH);
+        assertThat(Tags.normalizeOne("   ")).isNull();
+    }
+
+    @Test
+    void forInClause_emptySet_shouldUsePlaceholder() {
+        assertThat(Tags.forInClause(Set.of())).containsExactly("");
+        assertThat(Tags.forInClause(Set.of("colreg"))).containsExactly("colreg");
+    }
+}